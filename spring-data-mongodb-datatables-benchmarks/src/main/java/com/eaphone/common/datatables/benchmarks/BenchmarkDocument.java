@@ -0,0 +1,66 @@
+package com.eaphone.common.datatables.benchmarks;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import lombok.Data;
+
+/**
+ * A wide document with nested documents, so that inputs of up to 50 distinct columns (including nested paths and
+ * renamed fields) can be built
+ *
+ * @author Xiaoyu Guo
+ */
+@Data
+@Document(collection = "benchmark")
+public class BenchmarkDocument {
+
+    @Id
+    private String id;
+    private String orderNumber;
+    private String status;
+    private int amount;
+    private double price;
+    @Field("created_at")
+    private Date createdAt;
+    private boolean paid;
+    private String category;
+    private int quantity;
+    private double discount;
+    private Date updatedAt;
+    private String country;
+    private String city;
+    private long version;
+    private double weight;
+    private Date shippedAt;
+    private boolean archived;
+    private String note;
+    private String channel;
+    private String currency;
+
+    private Party customer;
+    private Party seller;
+
+    @Data
+    public static class Party {
+        private String name;
+        private String email;
+        private int orders;
+        private double rating;
+        private Date since;
+        private boolean verified;
+        private String phone;
+        @Field("zip_code")
+        private String zipCode;
+        private String street;
+        private String city;
+        private String country;
+        private String region;
+        private String company;
+        private long score;
+        private String vatNumber;
+    }
+}
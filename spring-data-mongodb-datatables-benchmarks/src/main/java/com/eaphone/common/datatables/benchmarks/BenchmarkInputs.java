@@ -0,0 +1,213 @@
+package com.eaphone.common.datatables.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.datatables.mapping.Column;
+import org.springframework.data.mongodb.datatables.mapping.ColumnType;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.mapping.Filter;
+import org.springframework.data.mongodb.datatables.mapping.Order;
+import org.springframework.data.mongodb.datatables.mapping.Search;
+import org.springframework.data.mongodb.datatables.repository.DataTablesEntityMetamodel;
+
+/**
+ * Realistic inputs and outputs of {@link BenchmarkDocument} tables
+ *
+ * @author Xiaoyu Guo
+ */
+public final class BenchmarkInputs {
+
+    /**
+     * data and type of the columns, the most common ones first
+     */
+    private static final String[][] COLUMNS = {
+            { "orderNumber", "string" }, { "status", "string" }, { "amount", "integer" },
+            { "createdAt", "date" }, { "customer.name", "string" }, { "price", "double" }, { "paid", "boolean" },
+            { "category", "string" }, { "customer.email", "string" }, { "quantity", "integer" },
+            { "discount", "double" }, { "updatedAt", "date" }, { "country", "string" }, { "city", "string" },
+            { "customer.zipCode", "string" }, { "seller.name", "string" }, { "version", "integer" },
+            { "weight", "double" }, { "shippedAt", "date" }, { "archived", "boolean" }, { "note", "string" },
+            { "channel", "string" }, { "currency", "string" }, { "id", "string" }, { "customer.orders", "integer" },
+            { "customer.rating", "double" }, { "customer.since", "date" }, { "customer.verified", "boolean" },
+            { "customer.phone", "string" }, { "customer.street", "string" }, { "customer.city", "string" },
+            { "customer.country", "string" }, { "customer.region", "string" }, { "customer.company", "string" },
+            { "customer.score", "integer" }, { "customer.vatNumber", "string" }, { "seller.email", "string" },
+            { "seller.orders", "integer" }, { "seller.rating", "double" }, { "seller.since", "date" },
+            { "seller.verified", "boolean" }, { "seller.phone", "string" }, { "seller.zipCode", "string" },
+            { "seller.street", "string" }, { "seller.city", "string" }, { "seller.country", "string" },
+            { "seller.region", "string" }, { "seller.company", "string" }, { "seller.score", "integer" },
+            { "seller.vatNumber", "string" } };
+
+    /**
+     * maximum count of columns of {@link #input(int)}
+     */
+    public static final int MAX_COLUMNS = 50;
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * @return the metamodel of {@link BenchmarkDocument}, without any database
+     */
+    public static DataTablesEntityMetamodel<BenchmarkDocument> metamodel() {
+        final MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setInitialEntitySet(Collections.singleton(BenchmarkDocument.class));
+        mappingContext.afterPropertiesSet();
+        return new DataTablesEntityMetamodel<>(BenchmarkDocument.class, mappingContext);
+    }
+
+    /**
+     * @return the data of the first <code>columnCount</code> columns
+     */
+    public static String[] columnData(int columnCount) {
+        final String[] data = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            data[i] = COLUMNS[i][0];
+        }
+        return data;
+    }
+
+    /**
+     * Creates an input of the given count of columns, as sent by a table with a few column searches and filters,
+     * ordered by two columns
+     *
+     * @param columnCount at most {@link #MAX_COLUMNS}
+     * @return a new input
+     */
+    public static DataTablesInput input(int columnCount) {
+        final DataTablesInput input = new DataTablesInput();
+        input.setDraw(7);
+        input.setStart(20);
+        input.setLength(10);
+        input.setSearch(new Search("", false));
+
+        final List<Column> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            final String type = COLUMNS[i][1];
+            final Column column = new Column();
+            column.setData(COLUMNS[i][0]);
+            column.setName("");
+            column.setSearchable(true);
+            column.setOrderable(true);
+            column.setType(type);
+            column.setSearch(new Search(i % 3 == 1 ? searchValue(type) : "", false));
+            if (i % 5 == 3) {
+                column.setFilter(filter(type));
+            }
+            columns.add(column);
+        }
+        input.setColumns(columns);
+
+        final List<Order> order = new ArrayList<>(2);
+        order.add(order(0, "asc"));
+        if (columnCount > 2) {
+            order.add(order(2, "desc"));
+        }
+        input.setOrder(order);
+        return input;
+    }
+
+    private static String searchValue(String type) {
+        switch (type) {
+        case "integer":
+            return "42";
+        case "double":
+            return "9.5";
+        case "date":
+            return "2020-01-15";
+        case "boolean":
+            return "true";
+        default:
+            return "ab";
+        }
+    }
+
+    private static Filter filter(String type) {
+        final Filter filter = new Filter();
+        if (ColumnType.parse(type).isComparable() && !"string".equals(type)) {
+            filter.setGte(searchValue(type));
+            filter.setLt(searchValue(type));
+        } else {
+            filter.setIn("a,b,c");
+        }
+        return filter;
+    }
+
+    private static Order order(int column, String dir) {
+        final Order order = new Order();
+        order.setColumn(column);
+        order.setDir(dir);
+        return order;
+    }
+
+    /**
+     * Creates an output of the given count of rows
+     *
+     * @param rowCount
+     * @return a new output
+     */
+    public static DataTablesOutput<BenchmarkDocument> output(int rowCount) {
+        final List<BenchmarkDocument> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(document(i));
+        }
+        final DataTablesOutput<BenchmarkDocument> output = new DataTablesOutput<>();
+        output.setDraw(7);
+        output.setRecordsTotal(125000L);
+        output.setRecordsFiltered(4200L);
+        output.setData(rows);
+        return output;
+    }
+
+    private static BenchmarkDocument document(int i) {
+        final Date date = new Date(1577836800000L + i * 3600000L);
+        final BenchmarkDocument document = new BenchmarkDocument();
+        document.setId(String.format("5f3a1c%018x", i));
+        document.setOrderNumber(String.format("O%05d", i));
+        document.setStatus(i % 2 == 0 ? "SHIPPED" : "PENDING");
+        document.setAmount(i % 25);
+        document.setPrice(i * 1.25);
+        document.setCreatedAt(date);
+        document.setPaid(i % 3 == 0);
+        document.setCategory("category-" + i % 7);
+        document.setQuantity(i % 11);
+        document.setDiscount(0.05);
+        document.setUpdatedAt(date);
+        document.setCountry("CN");
+        document.setCity("Guangzhou");
+        document.setVersion(i);
+        document.setWeight(2.5);
+        document.setShippedAt(date);
+        document.setNote("note of order " + i);
+        document.setChannel("web");
+        document.setCurrency("CNY");
+        document.setCustomer(party(i, date));
+        document.setSeller(party(i + 1, date));
+        return document;
+    }
+
+    private static BenchmarkDocument.Party party(int i, Date date) {
+        final BenchmarkDocument.Party party = new BenchmarkDocument.Party();
+        party.setName("Party " + i);
+        party.setEmail("party" + i + "@example.com");
+        party.setOrders(i);
+        party.setRating(4.5);
+        party.setSince(date);
+        party.setVerified(true);
+        party.setPhone("+86 20 5555 " + i);
+        party.setZipCode("510000");
+        party.setStreet(i + " Zhongshan Road");
+        party.setCity("Guangzhou");
+        party.setCountry("CN");
+        party.setRegion("Guangdong");
+        party.setCompany("Company " + i);
+        party.setScore(i * 10L);
+        party.setVatNumber("VAT" + i);
+        return party;
+    }
+}
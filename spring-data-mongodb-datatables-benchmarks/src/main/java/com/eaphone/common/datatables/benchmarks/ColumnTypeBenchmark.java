@@ -0,0 +1,73 @@
+package com.eaphone.common.datatables.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.datatables.mapping.ColumnType;
+
+/**
+ * Converting the search and filter values of the columns, for valid and invalid values of each type
+ *
+ * @author Xiaoyu Guo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnTypeBenchmark {
+
+    @Param({ "integer", "long", "double", "decimal128", "date", "boolean", "objectid" })
+    private String type;
+
+    private ColumnType columnType;
+    private String valid;
+    private String invalid;
+
+    @Setup
+    public void setUp() {
+        columnType = ColumnType.parse(type);
+        switch (type) {
+        case "integer":
+            valid = "42";
+            break;
+        case "long":
+            valid = "10000000042";
+            break;
+        case "double":
+        case "decimal128":
+            valid = "9.5";
+            break;
+        case "objectid":
+            valid = "5f3a1c000000000000000001";
+            break;
+        case "date":
+            valid = "2020-01-15T08:30:00.000Z";
+            break;
+        default:
+            valid = "true";
+        }
+        invalid = "n/a";
+    }
+
+    @Benchmark
+    public Object tryConvertValid() {
+        return columnType.tryConvert(valid);
+    }
+
+    @Benchmark
+    public Object tryConvertInvalid() {
+        return columnType.tryConvert(invalid);
+    }
+}
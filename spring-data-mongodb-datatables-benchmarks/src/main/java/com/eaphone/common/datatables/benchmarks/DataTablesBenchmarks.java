@@ -0,0 +1,28 @@
+package com.eaphone.common.datatables.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Runs the benchmarks with the JMH command line options, adding the GC profiler (allocation rate per operation)
+ * unless another profiler is given
+ *
+ * @author Xiaoyu Guo
+ */
+public final class DataTablesBenchmarks {
+
+    private DataTablesBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-prof") && !options.contains("-lprof") && !options.contains("-h")) {
+            options.add("-prof");
+            options.add("gc");
+        }
+        Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,80 @@
+package com.eaphone.common.datatables.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Binding the JSON request of a draw to a {@link DataTablesInput}, and writing the {@link DataTablesOutput} with its
+ * view, as a controller does
+ *
+ * @author Xiaoyu Guo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param({ "5", "20", "50" })
+        private int columns;
+
+        private ObjectReader reader;
+        private byte[] json;
+
+        @Setup
+        public void setUp() throws IOException {
+            reader = MAPPER.readerFor(DataTablesInput.class);
+            json = MAPPER.writeValueAsBytes(BenchmarkInputs.input(columns));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Output {
+
+        @Param({ "10", "100" })
+        private int rows;
+
+        private ObjectWriter writer;
+        private DataTablesOutput<BenchmarkDocument> output;
+
+        @Setup
+        public void setUp() {
+            writer = MAPPER.writerWithView(DataTablesOutput.View.class);
+            output = BenchmarkInputs.output(rows);
+        }
+    }
+
+    @Benchmark
+    public DataTablesInput readInput(Input input) throws IOException {
+        return input.reader.readValue(input.json);
+    }
+
+    @Benchmark
+    public byte[] writeOutput(Output output) throws IOException {
+        return output.writer.writeValueAsBytes(output.output);
+    }
+}
@@ -0,0 +1,58 @@
+package com.eaphone.common.datatables.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.datatables.repository.DataTablesEntityMetamodel;
+
+/**
+ * Resolving the stored field names of the columns, including nested and renamed fields
+ *
+ * @author Xiaoyu Guo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetamodelBenchmark {
+
+    private DataTablesEntityMetamodel<BenchmarkDocument> metamodel;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        metamodel = BenchmarkInputs.metamodel();
+        names = BenchmarkInputs.columnData(BenchmarkInputs.MAX_COLUMNS);
+    }
+
+    @Benchmark
+    public String getNestedPath() {
+        return metamodel.getPath("customer.zipCode");
+    }
+
+    @Benchmark
+    public String getUnknownPath() {
+        return metamodel.getPath("customer.unknown");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkInputs.MAX_COLUMNS)
+    public void getPaths(Blackhole blackhole) {
+        for (final String name : names) {
+            blackhole.consume(metamodel.getPath(name));
+        }
+    }
+}
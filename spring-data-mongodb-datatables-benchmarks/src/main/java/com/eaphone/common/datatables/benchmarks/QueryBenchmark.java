@@ -0,0 +1,78 @@
+package com.eaphone.common.datatables.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.repository.DataTablesEntityMetamodel;
+import org.springframework.data.mongodb.datatables.repository.DataTablesQueryPlan;
+import org.springframework.data.mongodb.datatables.repository.DataTablesUtils;
+
+/**
+ * Building the query of a draw: compiling the plan of an input shape, binding the values of an input into a compiled
+ * plan (the path of every draw but the first of a shape), and building the pageable and the aggregation
+ *
+ * @author Xiaoyu Guo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({ "5", "20", "50" })
+    private int columns;
+
+    private DataTablesEntityMetamodel<BenchmarkDocument> metamodel;
+    private DataTablesInput input;
+    private DataTablesQueryPlan<BenchmarkDocument> plan;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        metamodel = BenchmarkInputs.metamodel();
+        input = BenchmarkInputs.input(columns);
+        plan = DataTablesQueryPlan.compile(metamodel, input);
+        pageable = DataTablesUtils.getPageable(input, plan.getSort());
+    }
+
+    @Benchmark
+    public DataTablesQueryPlan<BenchmarkDocument> compile() {
+        return DataTablesQueryPlan.compile(metamodel, input);
+    }
+
+    @Benchmark
+    public Query getQueryCold() {
+        return DataTablesUtils.getQuery(metamodel, input);
+    }
+
+    @Benchmark
+    public Query getQuery() {
+        return DataTablesUtils.getQuery(plan, input);
+    }
+
+    @Benchmark
+    public Pageable getPageable() {
+        return DataTablesUtils.getPageable(input, plan.getSort());
+    }
+
+    @Benchmark
+    public TypedAggregation<BenchmarkDocument> makeAggregation() {
+        return DataTablesUtils.makeAggregation(plan, input, pageable, null, null);
+    }
+}
@@ -0,0 +1,264 @@
+package com.eaphone.common.datatables.samples.benchmark;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.eaphone.common.datatables.samples.SampleApplication;
+import com.eaphone.common.datatables.samples.benchmark.LoadBenchmarkProperties.Scenario;
+import com.eaphone.common.datatables.samples.document.Order;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * End-to-end load benchmark of <code>/data/orders</code>: starts the sample application (with its in-process
+ * mongo-java-server) on a random port, bulk-seeds {@link LoadBenchmarkProperties#getDocuments()} random orders, then
+ * runs each scenario with concurrent clients and reports its throughput and latency percentiles.
+ * <p>
+ * Run with e.g. <code>mvn spring-boot:run -Dstart-class=com.eaphone.common.datatables.samples.benchmark.LoadBenchmark
+ * -Dspring-boot.run.jvmArguments=-Xmx8g -Dspring-boot.run.arguments=--benchmark.documents=2000000</code> in the
+ * samples module, see
+ * {@link LoadBenchmarkProperties} for the options.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+@Slf4j
+public class LoadBenchmark {
+
+    private static final List<String> COLUMNS = Arrays.asList("id", "date", "orderNumber", "isValid", "amount",
+            "price");
+    private static final List<String> TYPES = Arrays.asList("string", "date", "string", "boolean", "integer",
+            "double");
+    private static final String HEADER_FORMAT = "%-24s %8s %8s %12s %10s %10s %10s %10s %10s%n";
+    private static final String ROW_FORMAT = "%-24s %8d %8d %12d %10.1f %10.2f %10.2f %10.2f %10.2f%n";
+
+    private final LoadBenchmarkProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final String baseUrl;
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    LoadBenchmark(LoadBenchmarkProperties properties, MongoTemplate mongoTemplate, int port) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.baseUrl = "http://localhost:" + port + "/data/orders";
+    }
+
+    public static void main(String[] args) throws Exception {
+        // the restarter of devtools would run the benchmark twice
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        final ConfigurableApplicationContext context = new SpringApplicationBuilder(SampleApplication.class)
+                .properties("server.port=0").run(args);
+        try {
+            final LoadBenchmarkProperties properties = Binder.get(context.getEnvironment())
+                    .bind("benchmark", Bindable.ofInstance(new LoadBenchmarkProperties()))
+                    .orElseGet(LoadBenchmarkProperties::new);
+            final int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            final LoadBenchmark benchmark = new LoadBenchmark(properties, context.getBean(MongoTemplate.class), port);
+            benchmark.seed();
+            benchmark.run();
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Inserts the random orders with unordered bulk inserts
+     */
+    void seed() {
+        final Random random = new Random(properties.getSeed());
+        final long started = System.nanoTime();
+        int inserted = 0;
+        while (inserted < properties.getDocuments()) {
+            final int count = Math.min(properties.getBatchSize(), properties.getDocuments() - inserted);
+            final List<Order> orders = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                orders.add(Order.random(random));
+            }
+            final BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Order.class);
+            bulk.insert(orders);
+            inserted += bulk.execute().getInsertedCount();
+        }
+        log.info("seeded {} orders in {} ms, {} in the collection", inserted,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                mongoTemplate.count(new Query(), Order.class));
+    }
+
+    /**
+     * Runs all the scenarios, one after the other
+     */
+    void run() throws Exception {
+        final List<Result> results = new ArrayList<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(properties.getConcurrency());
+        try {
+            for (final Scenario scenario : properties.getScenarios()) {
+                final URI uri = toUri(scenario);
+                log.info("running {}", scenario.getName());
+                log.debug("{}: {}", scenario.getName(), uri);
+                drive(executor, scenario.getName(), uri, properties.getWarmupRequests());
+                results.add(drive(executor, scenario.getName(), uri, properties.getRequests()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("{} orders, {} clients, {} requests per scenario", properties.getDocuments(),
+                properties.getConcurrency(), properties.getRequests());
+        log.info("results:{}{}", System.lineSeparator(), toTable(results));
+    }
+
+    /**
+     * Formats the results as a table, one row per scenario
+     */
+    private static String toTable(List<Result> results) {
+        final StringBuilder table = new StringBuilder();
+        try (Formatter formatter = new Formatter(table)) {
+            formatter.format(HEADER_FORMAT, "scenario", "requests", "errors", "filtered", "req/s", "p50 ms", "p99 ms",
+                    "p999 ms", "max ms");
+            for (final Result result : results) {
+                result.formatTo(formatter);
+            }
+        }
+        return table.toString();
+    }
+
+    /**
+     * Sends the given count of requests with the concurrent clients
+     */
+    private Result drive(ExecutorService executor, String name, URI uri, int requestCount) throws Exception {
+        final long[] latencies = new long[requestCount];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final long[] recordsFiltered = { -1L };
+
+        final List<Future<?>> clients = new ArrayList<>(properties.getConcurrency());
+        final long started = System.nanoTime();
+        for (int c = 0; c < properties.getConcurrency(); c++) {
+            clients.add(executor.submit(() -> {
+                for (int i = next.getAndIncrement(); i < requestCount; i = next.getAndIncrement()) {
+                    final long requestStarted = System.nanoTime();
+                    try {
+                        final JsonNode output = objectMapper.readTree(restTemplate.getForObject(uri, String.class));
+                        latencies[i] = System.nanoTime() - requestStarted;
+                        if (output.hasNonNull("error")) {
+                            errors.incrementAndGet();
+                        } else {
+                            recordsFiltered[0] = output.path("recordsFiltered").asLong();
+                        }
+                    } catch (Exception e) {
+                        latencies[i] = System.nanoTime() - requestStarted;
+                        errors.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (final Future<?> client : clients) {
+            client.get();
+        }
+        return new Result(name, latencies, System.nanoTime() - started, errors.get(), recordsFiltered[0]);
+    }
+
+    /**
+     * @return the URI of the request of the scenario, with the parameters sent by the sample table
+     */
+    URI toUri(Scenario scenario) {
+        final UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl).queryParam("draw", 1)
+                .queryParam("start", scenario.getStart()).queryParam("length", scenario.getLength());
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            final String column = COLUMNS.get(i);
+            final String prefix = "columns[" + i + "].";
+            builder.queryParam(prefix + "data", column).queryParam(prefix + "name", "")
+                    .queryParam(prefix + "searchable", true).queryParam(prefix + "orderable", true)
+                    .queryParam(prefix + "type", TYPES.get(i)).queryParam(prefix + "search.regex", false)
+                    .queryParam(prefix + "search.value", nullToEmpty(scenario.getColumnSearch().get(column)));
+        }
+        for (final Map.Entry<String, String> filter : scenario.getFilter().entrySet()) {
+            final int dot = filter.getKey().lastIndexOf('.');
+            final int column = COLUMNS.indexOf(filter.getKey().substring(0, dot));
+            if (column < 0) {
+                throw new IllegalArgumentException("unknown column of filter " + filter.getKey());
+            }
+            builder.queryParam("columns[" + column + "].filter." + filter.getKey().substring(dot + 1),
+                    filter.getValue());
+        }
+        for (int i = 0; i < scenario.getOrder().size(); i++) {
+            final String[] order = scenario.getOrder().get(i).split(":");
+            builder.queryParam("order[" + i + "].column", COLUMNS.indexOf(order[0]))
+                    .queryParam("order[" + i + "].dir", order.length > 1 ? order[1] : "asc");
+        }
+        builder.queryParam("search.value", nullToEmpty(scenario.getSearch())).queryParam("search.regex", false);
+        if (scenario.getStartDate() != null) {
+            builder.queryParam("startDate", scenario.getStartDate());
+        }
+        if (scenario.getEndDate() != null) {
+            builder.queryParam("endDate", scenario.getEndDate());
+        }
+        return builder.build().encode().toUri();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Throughput and latencies of a scenario
+     */
+    private static final class Result {
+
+        private final String name;
+        private final long[] latencies;
+        private final long elapsedNanos;
+        private final int errors;
+        private final long recordsFiltered;
+
+        Result(String name, long[] latencies, long elapsedNanos, int errors, long recordsFiltered) {
+            this.name = name;
+            this.latencies = latencies;
+            this.elapsedNanos = elapsedNanos;
+            this.errors = errors;
+            this.recordsFiltered = recordsFiltered;
+            Arrays.sort(latencies);
+        }
+
+        private double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0.0;
+            }
+            final int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        /**
+         * Appends the row of the result
+         */
+        void formatTo(Formatter formatter) {
+            final double throughput = latencies.length * 1_000_000_000.0 / Math.max(elapsedNanos, 1L);
+            formatter.format(ROW_FORMAT, name, latencies.length, errors, recordsFiltered, throughput,
+                    percentileMillis(0.5), percentileMillis(0.99), percentileMillis(0.999), percentileMillis(1.0));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.eaphone.common.datatables.samples.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Options of {@link LoadBenchmark}, bound from the <code>benchmark.*</code> properties (command line arguments,
+ * <code>application.properties</code>, ...), e.g.
+ *
+ * <pre>
+ * --benchmark.documents=5000000 --benchmark.concurrency=16
+ * --benchmark.scenarios[0].name=deep --benchmark.scenarios[0].order=price:asc --benchmark.scenarios[0].start=500000
+ * --benchmark.scenarios[1].name=cheap --benchmark.scenarios[1].filter[price.lt]=10
+ * </pre>
+ *
+ * Setting any scenario replaces all the default ones.
+ *
+ * @author Xiaoyu Guo
+ */
+@Data
+public class LoadBenchmarkProperties {
+
+    /**
+     * count of seeded orders
+     */
+    private int documents = 1_000_000;
+
+    /**
+     * count of orders per bulk insert
+     */
+    private int batchSize = 10_000;
+
+    /**
+     * seed of the random orders, the same seed gives the same dataset
+     */
+    private long seed = 42L;
+
+    /**
+     * count of concurrent clients
+     */
+    private int concurrency = 8;
+
+    /**
+     * requests of each scenario before measuring, not reported
+     */
+    private int warmupRequests = 200;
+
+    /**
+     * measured requests of each scenario
+     */
+    private int requests = 2_000;
+
+    private List<Scenario> scenarios = defaultScenarios();
+
+    /**
+     * A request to <code>/data/orders</code>, as sent by the sample table
+     */
+    @Data
+    public static class Scenario {
+
+        private String name;
+
+        /**
+         * <code>column:dir</code>, e.g. <code>date:desc</code>
+         */
+        private List<String> order = Collections.singletonList("date:desc");
+
+        /**
+         * global search value
+         */
+        private String search;
+
+        /**
+         * search values of columns
+         */
+        private Map<String, String> columnSearch = new LinkedHashMap<>();
+
+        /**
+         * filters of columns, keyed by <code>column.operator</code>, e.g. <code>amount.gte</code>
+         */
+        private Map<String, String> filter = new LinkedHashMap<>();
+
+        private int start = 0;
+
+        /**
+         * <code>-1</code> for all the matching orders
+         */
+        private int length = 10;
+
+        /**
+         * pre-filtering of the controller, e.g. <code>2010-01-01</code>
+         */
+        private String startDate;
+        private String endDate;
+
+        Scenario name(String name) {
+            this.name = name;
+            return this;
+        }
+    }
+
+    private static List<Scenario> defaultScenarios() {
+        final Scenario firstPage = new Scenario().name("first-page");
+
+        final Scenario sortByPrice = new Scenario().name("sort-price");
+        sortByPrice.setOrder(Arrays.asList("price:asc", "date:desc"));
+
+        final Scenario deepPage = new Scenario().name("deep-page");
+        deepPage.setStart(100_000);
+
+        final Scenario filterAmount = new Scenario().name("filter-amount");
+        filterAmount.getFilter().put("amount.gte", "5");
+        filterAmount.getFilter().put("amount.lt", "10");
+
+        final Scenario searchOrderNumber = new Scenario().name("search-order-number");
+        searchOrderNumber.getColumnSearch().put("orderNumber", "O123");
+
+        final Scenario globalSearch = new Scenario().name("global-search");
+        globalSearch.setSearch("O1234");
+
+        final Scenario unpaged = new Scenario().name("unpaged");
+        unpaged.setLength(-1);
+        unpaged.setOrder(Collections.singletonList("date:asc"));
+        unpaged.setStartDate("2010-01-01");
+        unpaged.setEndDate("2010-01-02");
+
+        return new ArrayList<>(Arrays.asList(firstPage, sortByPrice, deepPage, filterAmount, searchOrderNumber,
+                globalSearch, unpaged));
+    }
+}
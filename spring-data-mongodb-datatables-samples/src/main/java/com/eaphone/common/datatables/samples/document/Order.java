@@ -45,8 +45,16 @@ public class Order {
 
     @Transient
     public static Order random() {
+        return random(new Random());
+    }
+
+    /**
+     * @param r source of the values, seeded for a repeatable dataset
+     * @return a new order with random values
+     */
+    @Transient
+    public static Order random(Random r) {
         Order o = new Order();
-        Random r = new Random();
 
         Calendar c = Calendar.getInstance();
         c.set(2005 + r.nextInt(10), r.nextInt(12), r.nextInt(28), r.nextInt(24), r.nextInt(59), r.nextInt(59));
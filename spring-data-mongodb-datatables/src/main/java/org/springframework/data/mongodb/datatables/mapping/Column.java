@@ -47,10 +47,20 @@ public class Column {
 	 */
 	private Search search;
 
-	private String type = ColumnType.STRING.getCode();
+	/**
+	 * Code of the {@link ColumnType} of the values. If omitted, the type is inferred from the property of the
+	 * entity, and is {@link ColumnType#STRING} for unknown properties.
+	 */
+	private String type;
 
 	private Filter filter = null;
 
+	/**
+	 * How a non regex search value is matched, <code>null</code> for the default of the repository. If the type of
+	 * the column does not support it, the cheapest supported mode is used.
+	 */
+	private SearchMode searchMode;
+
 	public boolean hasValidSearch() {
 		boolean isSearchValid = false;
 		if (this.searchable) {
@@ -1,26 +1,76 @@
 package org.springframework.data.mongodb.datatables.mapping;
 
-import java.text.ParseException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.datatables.repository.DateParser;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 import lombok.Getter;
 
+/**
+ * Type of the values of a column (<code>columns[i].type</code>), which converts the search and filter values to
+ * the BSON type of the field, so that they match the stored values and can use their indexes.
+ * <p>
+ * Types are registered by their code, the built-in ones being <code>string</code>, <code>integer</code>,
+ * <code>long</code>, <code>double</code>, <code>decimal128</code>, <code>date</code>, <code>boolean</code> and
+ * <code>objectid</code>. Applications may {@link #register(ColumnType, Class...) register} their own types, e.g. at
+ * startup. Conversions never throw: values which are not valid for the type are kept as strings.
+ * </p>
+ */
 @Getter
 public abstract class ColumnType {
     private static final String CODE_STRING = "string";
     private static final String CODE_INTEGER = "integer";
+    private static final String CODE_LONG = "long";
     private static final String CODE_DOUBLE = "double";
+    private static final String CODE_DECIMAL128 = "decimal128";
     private static final String CODE_DATE = "date";
     private static final String CODE_BOOLEAN = "boolean";
+    private static final String CODE_OBJECT_ID = "objectid";
+
+    /**
+     * registered types, by lower case code
+     */
+    private static final Map<String, ColumnType> TYPES = new ConcurrentHashMap<>();
+
+    /**
+     * registered types, by java type of the properties
+     */
+    private static final Map<Class<?>, ColumnType> JAVA_TYPES = new ConcurrentHashMap<>();
 
     public static final ColumnType STRING = new StringColumnType();
     public static final ColumnType INTEGER = new IntegerColumnType();
+    public static final ColumnType LONG = new LongColumnType();
     public static final ColumnType DOUBLE = new DoubleColumnType();
+    public static final ColumnType DECIMAL128 = new Decimal128ColumnType();
     public static final ColumnType DATE = new DateColumnType();
     public static final ColumnType BOOLEAN = new BooleanColumnType();
+    public static final ColumnType OBJECT_ID = new ObjectIdColumnType();
+
+    static {
+        register(STRING, String.class);
+        register(INTEGER, Integer.class, Short.class, Byte.class);
+        register(LONG, Long.class);
+        register(DOUBLE, Double.class, Float.class);
+        // BigDecimal is stored as a string unless @Field(targetType = DECIMAL128)
+        register(DECIMAL128, Decimal128.class);
+        register(DATE, Date.class, Instant.class, LocalDate.class, LocalDateTime.class);
+        register(BOOLEAN, Boolean.class);
+        register(OBJECT_ID, ObjectId.class);
+    }
 
     private String code;
     private boolean comparable;
@@ -30,33 +80,186 @@ public abstract class ColumnType {
         this.comparable = isComparable;
     }
 
+    /**
+     * Registers a type, replacing the registered type of the same code (case insensitive)
+     *
+     * @param type
+     * @param javaTypes types of the properties whose columns are of this type when <code>columns[i].type</code> is
+     *            omitted
+     */
+    public static void register(ColumnType type, Class<?>... javaTypes) {
+        TYPES.put(type.getCode().toLowerCase(Locale.ROOT), type);
+        for (final Class<?> javaType : javaTypes) {
+            JAVA_TYPES.put(javaType, type);
+        }
+    }
+
+    /**
+     * @param text code of a registered type
+     * @return the registered type, {@link #STRING} if unknown or empty
+     */
     public static ColumnType parse(String text) {
         // default value is STRING
         ColumnType result = STRING;
         if (StringUtils.hasLength(text)) {
-            switch (text.toLowerCase()) {
-            case CODE_INTEGER:
-                result = INTEGER;
-                break;
-            case CODE_DOUBLE:
-                result = DOUBLE;
-                break;
-            case CODE_DATE:
-                result = DATE;
-                break;
-            case CODE_BOOLEAN:
-                result = BOOLEAN;
-                break;
-            default:
-                result = STRING;
-                break;
-            }
+            result = TYPES.getOrDefault(text.toLowerCase(Locale.ROOT), STRING);
         }
         return result;
     }
 
+    /**
+     * @param javaType type of a property, primitives are resolved to their wrappers
+     * @return the type registered for the java type, or else for its closest superclass, or else for its
+     *         interfaces (in the order they are declared, then their super interfaces), {@link #STRING} if none
+     */
+    public static ColumnType of(Class<?> javaType) {
+        if (javaType == null) {
+            return STRING;
+        }
+        final Class<?> resolved = ClassUtils.resolvePrimitiveIfNecessary(javaType);
+        for (Class<?> superclass = resolved; superclass != null; superclass = superclass.getSuperclass()) {
+            final ColumnType type = JAVA_TYPES.get(superclass);
+            if (type != null) {
+                return type;
+            }
+        }
+        final List<Class<?>> interfaces = new ArrayList<>(ClassUtils.getAllInterfacesForClassAsSet(resolved));
+        for (int i = 0; i < interfaces.size(); i++) {
+            final ColumnType type = JAVA_TYPES.get(interfaces.get(i));
+            if (type != null) {
+                return type;
+            }
+            for (final Class<?> superInterface : interfaces.get(i).getInterfaces()) {
+                if (!interfaces.contains(superInterface)) {
+                    interfaces.add(superInterface);
+                }
+            }
+        }
+        return STRING;
+    }
+
+    /**
+     * @param text
+     * @return the converted value, or the text itself if it is not a valid value of this type
+     */
     public abstract Object tryConvert(String text);
 
+    /**
+     * @param zone zone of dates without offset, <code>null</code> for the default zone of the JVM
+     * @return this type, or a copy converting dates without offset in the given zone
+     */
+    public ColumnType withZone(ZoneId zone) {
+        return this;
+    }
+
+    /**
+     * @param searchMode
+     * @return whether the given search mode applies to values of this type. Only strings support all modes, values
+     *         of other types are matched exactly.
+     */
+    public boolean supports(SearchMode searchMode) {
+        return searchMode == SearchMode.EXACT;
+    }
+
+    /**
+     * @param requested the requested search mode, must not be <code>null</code>
+     * @return the requested search mode if supported, otherwise the cheapest supported one
+     */
+    public SearchMode getSearchMode(SearchMode requested) {
+        if (supports(requested)) {
+            return requested;
+        }
+        for (final SearchMode searchMode : SearchMode.values()) {
+            if (supports(searchMode)) {
+                return searchMode;
+            }
+        }
+        return SearchMode.EXACT;
+    }
+
+    /**
+     * Parses a decimal integer (with an optional sign) without throwing
+     *
+     * @param text
+     * @param min
+     * @param max
+     * @return the value, or <code>null</code> if the text is not a decimal integer within <code>[min, max]</code>
+     */
+    static Long parseLong(String text, long min, long max) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        final int length = text.length();
+        final char first = text.charAt(0);
+        final boolean negative = first == '-';
+        int i = negative || first == '+' ? 1 : 0;
+        if (i == length) {
+            return null;
+        }
+        // accumulated negatively, as the negative range is larger
+        final long limit = negative ? min : -max;
+        final long multiplyMin = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyMin) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * @param text
+     * @return whether the text is a decimal number, <code>[+-]digits[.digits][(e|E)[+-]digits]</code>, with at
+     *         least one digit before or after the point and at most 4 digits of exponent
+     */
+    static boolean isDecimal(String text) {
+        if (text == null) {
+            return false;
+        }
+        final int length = text.length();
+        int i = 0;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        for (; i < length && isDigit(text.charAt(i)); i++) {
+            digits++;
+        }
+        if (i < length && text.charAt(i) == '.') {
+            for (i++; i < length && isDigit(text.charAt(i)); i++) {
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            final int exponentStart = i;
+            for (; i < length && isDigit(text.charAt(i)); i++) {
+                // exponent digits
+            }
+            if (i == exponentStart || i - exponentStart > 4) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
     static final class StringColumnType extends ColumnType {
         StringColumnType() {
             super(CODE_STRING, true);
@@ -66,23 +269,34 @@ public abstract class ColumnType {
         public Object tryConvert(String text) {
             return text;
         }
+
+        @Override
+        public boolean supports(SearchMode searchMode) {
+            return true;
+        }
     }
 
     static final class DateColumnType extends ColumnType {
+        private final DateParser parser;
+
         DateColumnType() {
+            this(DateParser.getDefault());
+        }
+
+        private DateColumnType(DateParser parser) {
             super(CODE_DATE, true);
+            this.parser = parser;
         }
 
         @Override
         public Object tryConvert(String text) {
-            Object result = text;
-            try {
-                Date parsedDate = DateParser.parse(text);
-                result = parsedDate;
-            } catch (ParseException pe) {
-                result = text;
-            }
-            return result;
+            final Date parsedDate = parser.tryParse(text);
+            return parsedDate == null ? text : parsedDate;
+        }
+
+        @Override
+        public ColumnType withZone(ZoneId zone) {
+            return zone == null || zone.equals(parser.getZone()) ? this : new DateColumnType(DateParser.of(zone));
         }
     }
 
@@ -93,14 +307,23 @@ public abstract class ColumnType {
 
         @Override
         public Object tryConvert(String text) {
-            Object result = text;
-            try {
-                Integer parsedInteger = Integer.parseInt(text);
-                result = parsedInteger;
-            } catch (NumberFormatException nfe) {
-                result = text;
-            }
-            return result;
+            final Long parsedLong = parseLong(text, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            return parsedLong == null ? text : (Object) parsedLong.intValue();
+        }
+    }
+
+    /**
+     * 64-bit integers, e.g. amounts in cents or timestamps
+     */
+    static final class LongColumnType extends ColumnType {
+        LongColumnType() {
+            super(CODE_LONG, true);
+        }
+
+        @Override
+        public Object tryConvert(String text) {
+            final Long parsedLong = parseLong(text, Long.MIN_VALUE, Long.MAX_VALUE);
+            return parsedLong == null ? text : parsedLong;
         }
     }
 
@@ -111,17 +334,43 @@ public abstract class ColumnType {
 
         @Override
         public Object tryConvert(String text) {
-            Object result = text;
-            try {
-                Double parsedDouble = Double.parseDouble(text);
-                result = parsedDouble;
-            } catch (NumberFormatException nfe) {
-                result = text;
+            return isDecimal(text) ? (Object) Double.parseDouble(text) : text;
+        }
+    }
+
+    /**
+     * Exact decimals, for fields stored as <code>Decimal128</code>. Values with more than 34 significant digits,
+     * or out of the range of <code>Decimal128</code>, are kept as strings.
+     */
+    static final class Decimal128ColumnType extends ColumnType {
+        private static final int MAX_PRECISION = 34;
+        private static final int MIN_EXPONENT = -6176;
+        private static final int MAX_EXPONENT = 6111;
+
+        Decimal128ColumnType() {
+            super(CODE_DECIMAL128, true);
+        }
+
+        @Override
+        public Object tryConvert(String text) {
+            if (!isDecimal(text)) {
+                return text;
+            }
+            BigDecimal parsedDecimal = new BigDecimal(text);
+            if (parsedDecimal.precision() > MAX_PRECISION) {
+                parsedDecimal = parsedDecimal.stripTrailingZeros();
+            }
+            if (parsedDecimal.precision() > MAX_PRECISION || -parsedDecimal.scale() < MIN_EXPONENT
+                    || -parsedDecimal.scale() > MAX_EXPONENT) {
+                return text;
             }
-            return result;
+            return new Decimal128(parsedDecimal);
         }
     }
 
+    /**
+     * <code>true</code> or <code>false</code>, case insensitive
+     */
     static final class BooleanColumnType extends ColumnType {
         BooleanColumnType() {
             super(CODE_BOOLEAN, false);
@@ -129,10 +378,27 @@ public abstract class ColumnType {
 
         @Override
         public Object tryConvert(String text) {
-            Object result = text;
-            Boolean parsedBoolean = Boolean.parseBoolean(text);
-            result = parsedBoolean;
-            return result;
+            if (Boolean.TRUE.toString().equalsIgnoreCase(text)) {
+                return Boolean.TRUE;
+            }
+            if (Boolean.FALSE.toString().equalsIgnoreCase(text)) {
+                return Boolean.FALSE;
+            }
+            return text;
+        }
+    }
+
+    /**
+     * Identifiers and references stored as <code>ObjectId</code>, ordered by their creation time
+     */
+    static final class ObjectIdColumnType extends ColumnType {
+        ObjectIdColumnType() {
+            super(CODE_OBJECT_ID, true);
+        }
+
+        @Override
+        public Object tryConvert(String text) {
+            return text != null && ObjectId.isValid(text) ? new ObjectId(text) : text;
         }
     }
 
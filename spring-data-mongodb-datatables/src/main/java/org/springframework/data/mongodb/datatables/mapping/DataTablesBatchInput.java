@@ -0,0 +1,96 @@
+package org.springframework.data.mongodb.datatables.mapping;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import lombok.Getter;
+
+/**
+ * One table of a batch, see
+ * {@link org.springframework.data.mongodb.datatables.repository.DataTablesRepository#findAllBatch(java.util.List)}:
+ * the {@link DataTablesInput} of the table, with its optional additional and pre-filtering criteria, or
+ * aggregation operations.
+ */
+@Getter
+public final class DataTablesBatchInput {
+
+  private final DataTablesInput input;
+
+  /**
+   * an additional {@link Criteria} to apply to the query (with an "AND" clause), may be <code>null</code>
+   */
+  private final Criteria additionalCriteria;
+
+  /**
+   * a pre-filtering {@link Criteria} to apply to the query (with an "AND" clause), may be <code>null</code>
+   */
+  private final Criteria preFilteringCriteria;
+
+  /**
+   * operations after the filter of the input, never <code>null</code>
+   */
+  private final Collection<? extends AggregationOperation> additionalOperations;
+
+  /**
+   * operations before the filter of the input, never <code>null</code>
+   */
+  private final Collection<? extends AggregationOperation> preFilteringOperations;
+
+  private DataTablesBatchInput(DataTablesInput input, Criteria additionalCriteria, Criteria preFilteringCriteria,
+      Collection<? extends AggregationOperation> additionalOperations,
+      Collection<? extends AggregationOperation> preFilteringOperations) {
+    this.input = input;
+    this.additionalCriteria = additionalCriteria;
+    this.preFilteringCriteria = preFilteringCriteria;
+    this.additionalOperations =
+        additionalOperations == null ? Collections.emptyList() : additionalOperations;
+    this.preFilteringOperations =
+        preFilteringOperations == null ? Collections.emptyList() : preFilteringOperations;
+  }
+
+  /**
+   * @param input the {@link DataTablesInput} mapped from the Ajax request
+   * @return a table without additional criteria
+   */
+  public static DataTablesBatchInput of(DataTablesInput input) {
+    return new DataTablesBatchInput(input, null, null, null, null);
+  }
+
+  /**
+   * @param input the {@link DataTablesInput} mapped from the Ajax request
+   * @param additionalCriteria an additional {@link Criteria} to apply to the query (with an "AND"
+   *        clause), may be <code>null</code>
+   * @param preFilteringCriteria a pre-filtering {@link Criteria} to apply to the query (with an "AND"
+   *        clause), may be <code>null</code>
+   * @return a table with additional criteria
+   */
+  public static DataTablesBatchInput of(DataTablesInput input, Criteria additionalCriteria,
+      Criteria preFilteringCriteria) {
+    return new DataTablesBatchInput(input, additionalCriteria, preFilteringCriteria, null, null);
+  }
+
+  /**
+   * @param input the {@link DataTablesInput} mapped from the Ajax request
+   * @param additionalOperations operations after the filter of the input, may be <code>null</code>
+   * @param preFilteringOperations operations before the filter of the input, may be
+   *        <code>null</code>
+   * @return a table of an aggregation, only supported by the <code>findAllBatch</code> of a view class of
+   *         {@link org.springframework.data.mongodb.datatables.repository.DataTablesRepository}
+   */
+  public static DataTablesBatchInput ofAggregation(DataTablesInput input,
+      Collection<? extends AggregationOperation> additionalOperations,
+      Collection<? extends AggregationOperation> preFilteringOperations) {
+    return new DataTablesBatchInput(input, null, null, additionalOperations, preFilteringOperations);
+  }
+
+  /**
+   * @return whether this table has aggregation operations
+   */
+  public boolean hasOperations() {
+    return !additionalOperations.isEmpty() || !preFilteringOperations.isEmpty();
+  }
+
+}
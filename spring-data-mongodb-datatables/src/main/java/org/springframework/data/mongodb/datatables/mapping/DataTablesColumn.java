@@ -0,0 +1,41 @@
+package org.springframework.data.mongodb.datatables.mapping;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how a property of an entity is used by DataTables columns.
+ * <p>
+ * The hints are used by the index advisor to recommend indexes, and <code>searchMode</code> is the default of the
+ * column searches of the property (instead of the one of the repository options).
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+public @interface DataTablesColumn {
+
+    /**
+     * @return whether the property is searched (or filtered with <code>eq</code> / <code>in</code>)
+     */
+    boolean searchable() default false;
+
+    /**
+     * @return how the property is searched, if <code>searchable</code>
+     */
+    SearchMode searchMode() default SearchMode.PREFIX;
+
+    /**
+     * @return whether the property is filtered with ranges (<code>gt</code>, <code>lt</code>, ...)
+     */
+    boolean rangeFilterable() default false;
+
+    /**
+     * @return whether the table is ordered by the property
+     */
+    boolean orderable() default false;
+
+}
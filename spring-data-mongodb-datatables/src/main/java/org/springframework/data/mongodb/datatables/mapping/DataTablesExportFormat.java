@@ -0,0 +1,29 @@
+package org.springframework.data.mongodb.datatables.mapping;
+
+import lombok.Getter;
+
+/**
+ * Formats of the streaming export
+ */
+@Getter
+public enum DataTablesExportFormat {
+
+    /**
+     * Comma separated values (RFC 4180), with a header line made of <code>columns[i].data</code>
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * Newline delimited JSON, one JSON object per row
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    DataTablesExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+}
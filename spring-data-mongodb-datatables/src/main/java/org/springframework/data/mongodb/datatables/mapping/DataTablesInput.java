@@ -37,6 +37,12 @@ public class DataTablesInput {
     @Min(-1)
     private int length = 10;
 
+    /**
+     * Optional: the <code>nextCursor</code> or <code>previousCursor</code> of the previous draw, if keyset
+     * pagination is enabled. It is ignored if it does not point to the requested <code>start</code>.
+     */
+    private String cursor;
+
     /**
      * Global search parameter.
      */
@@ -3,6 +3,8 @@ package org.springframework.data.mongodb.datatables.mapping;
 import java.util.Collections;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonView;
 
 import lombok.Data;
@@ -32,6 +34,14 @@ public class DataTablesOutput<T> {
   @JsonView(View.class)
   private long recordsFiltered = 0L;
 
+  /**
+   * Whether counting stopped at the configured ceiling, i.e. there are more than
+   * <code>recordsFiltered</code> records after filtering. Only included if <code>true</code>.
+   */
+  @JsonView(View.class)
+  @JsonInclude(Include.NON_DEFAULT)
+  private boolean recordsFilteredCapped;
+
   /**
    * The data to be displayed in the table. This is an array of data source objects, one for each
    * row, which will be used by DataTables. Note that this parameter's name can be changed using the
@@ -48,6 +58,21 @@ public class DataTablesOutput<T> {
   @JsonView(View.class)
   private String error;
 
+  /**
+   * Optional: cursor of the next page, if keyset pagination is enabled and there is a next page
+   */
+  @JsonView(View.class)
+  @JsonInclude(Include.NON_NULL)
+  private String nextCursor;
+
+  /**
+   * Optional: cursor of the previous page, if keyset pagination is enabled and there is a previous
+   * page
+   */
+  @JsonView(View.class)
+  @JsonInclude(Include.NON_NULL)
+  private String previousCursor;
+
   public interface View {
   }
 
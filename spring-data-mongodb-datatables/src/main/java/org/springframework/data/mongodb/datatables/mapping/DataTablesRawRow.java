@@ -0,0 +1,62 @@
+package org.springframework.data.mongodb.datatables.mapping;
+
+import java.io.IOException;
+
+import org.bson.RawBsonDocument;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/**
+ * A row of the raw passthrough mode: the document as returned by the database, written as JSON straight from its
+ * BSON bytes, without being mapped to the entity.
+ * <p>
+ * Which fields are written, and how, is precomputed once per entity and serialization view by the repository (see
+ * {@link Writer}), so serializing a row does not depend on the view of the response.
+ * </p>
+ */
+public final class DataTablesRawRow extends JsonSerializable.Base {
+
+  /**
+   * Writes a raw document as a JSON object
+   */
+  public interface Writer {
+
+    /**
+     * @param document
+     * @param generator
+     * @throws IOException
+     */
+    void write(RawBsonDocument document, JsonGenerator generator) throws IOException;
+  }
+
+  private final RawBsonDocument document;
+
+  private final Writer writer;
+
+  public DataTablesRawRow(RawBsonDocument document, Writer writer) {
+    this.document = document;
+    this.writer = writer;
+  }
+
+  /**
+   * @return the document as returned by the database
+   */
+  public RawBsonDocument getDocument() {
+    return document;
+  }
+
+  @Override
+  public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+    writer.write(document, generator);
+  }
+
+  @Override
+  public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSer)
+      throws IOException {
+    serialize(generator, serializers);
+  }
+
+}
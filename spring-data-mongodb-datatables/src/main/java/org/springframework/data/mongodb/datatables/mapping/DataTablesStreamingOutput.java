@@ -0,0 +1,99 @@
+package org.springframework.data.mongodb.datatables.mapping;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.springframework.data.util.CloseableIterator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Same as {@link DataTablesOutput}, but the rows are read from an open database cursor while being serialized,
+ * instead of being mapped into a list first.
+ * <p>
+ * Time to first byte and memory then do not grow with the page size. As the counts are written before the rows, an
+ * error while reading the rows cannot be reported in <code>error</code> anymore, the response is truncated
+ * instead. The cursor must be released with {@link #close()}, which {@link #writeTo(JsonGenerator, ObjectWriter)}
+ * does.
+ * </p>
+ */
+@Getter
+@Setter
+public class DataTablesStreamingOutput<T> implements Closeable {
+
+  /**
+   * @see DataTablesOutput#getDraw()
+   */
+  private int draw;
+
+  /**
+   * @see DataTablesOutput#getRecordsTotal()
+   */
+  private long recordsTotal = 0L;
+
+  /**
+   * @see DataTablesOutput#getRecordsFiltered()
+   */
+  private long recordsFiltered = 0L;
+
+  /**
+   * @see DataTablesOutput#isRecordsFilteredCapped()
+   */
+  private boolean recordsFilteredCapped;
+
+  /**
+   * The open cursor of the rows, <code>null</code> if there are none
+   */
+  private CloseableIterator<T> data;
+
+  /**
+   * @see DataTablesOutput#getError()
+   */
+  private String error;
+
+  /**
+   * Writes the same JSON as {@link DataTablesOutput}, and closes the cursor afterwards
+   *
+   * @param generator
+   * @param rowWriter used for each row, e.g. with a serialization view
+   * @throws IOException
+   */
+  public void writeTo(JsonGenerator generator, ObjectWriter rowWriter) throws IOException {
+    // flushing after each row would defeat the buffering
+    final ObjectWriter writer = rowWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try {
+      generator.writeStartObject();
+      generator.writeNumberField("draw", draw);
+      generator.writeNumberField("recordsTotal", recordsTotal);
+      generator.writeNumberField("recordsFiltered", recordsFiltered);
+      if (recordsFilteredCapped) {
+        generator.writeBooleanField("recordsFilteredCapped", true);
+      }
+      generator.writeArrayFieldStart("data");
+      if (data != null) {
+        while (data.hasNext()) {
+          writer.writeValue(generator, data.next());
+        }
+      }
+      generator.writeEndArray();
+      generator.writeStringField("error", error);
+      generator.writeEndObject();
+      generator.flush();
+    } finally {
+      close();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (data != null) {
+      data.close();
+    }
+  }
+
+}
@@ -11,6 +11,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class Order {
 
+  /**
+   * Value of <code>data</code> to order by the relevance of the global search, the most relevant first. Only
+   * applies if the global search is done with a text index, and is ignored otherwise.
+   */
+  public static final String TEXT_SCORE = "$textScore";
+
   /**
    * Column to which ordering should be applied. This is an index reference to the columns array of
    * information that is also submitted to the server.
@@ -0,0 +1,29 @@
+package org.springframework.data.mongodb.datatables.mapping;
+
+/**
+ * How the (non regex) search value of a column is matched, from the cheapest to the most expensive
+ */
+public enum SearchMode {
+
+    /**
+     * Equality with the value converted to the type of the column, which can use any index on the field
+     */
+    EXACT,
+
+    /**
+     * Case insensitive equality, with the collation of the repository options. It can use an index with the same
+     * collation, but note that the collation applies to all string comparisons of the query.
+     */
+    CASE_INSENSITIVE,
+
+    /**
+     * Case sensitive prefix (an anchored regular expression of the escaped value), which can use an index range
+     */
+    PREFIX,
+
+    /**
+     * Case insensitive substring (an unanchored regular expression of the escaped value), which always scans
+     */
+    CONTAINS;
+
+}
@@ -0,0 +1,32 @@
+package org.springframework.data.mongodb.datatables.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of the statistics of a cache used by the repository
+ *
+ * @author Xiaoyu Guo
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DataTablesCacheStats {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long size;
+
+    /**
+     * @return ratio of hits in all lookups, <code>0</code> if the cache has never been used
+     */
+    public double getHitRatio() {
+        final long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+    }
+}
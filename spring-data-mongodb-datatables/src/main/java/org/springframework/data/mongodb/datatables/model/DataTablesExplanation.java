@@ -0,0 +1,90 @@
+package org.springframework.data.mongodb.datatables.model;
+
+import java.util.List;
+
+import org.bson.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Summary of the <code>executionStats</code> explain output of one of the queries issued by a draw
+ *
+ * @author Xiaoyu Guo
+ */
+@Getter
+@ToString(exclude = "explain")
+@AllArgsConstructor
+public class DataTablesExplanation {
+
+    /**
+     * The query computes <code>recordsTotal</code>
+     */
+    public static final String RECORDS_TOTAL = "recordsTotal";
+
+    /**
+     * The query computes <code>recordsFiltered</code>
+     */
+    public static final String RECORDS_FILTERED = "recordsFiltered";
+
+    /**
+     * The query fetches the page
+     */
+    public static final String DATA = "data";
+
+    /**
+     * The query computes the counts and fetches the page in a single <code>$facet</code> pipeline
+     */
+    public static final String FACET = "facet";
+
+    /**
+     * what the query computes, one of the constants of this class
+     */
+    private final String query;
+
+    /**
+     * the explained command, as sent to the database
+     */
+    private final Document command;
+
+    /**
+     * stages of the winning plan, from the root to the leaves, e.g. <code>LIMIT &gt; FETCH &gt; IXSCAN</code>,
+     * preceded by the pipeline stages which are not part of the query
+     */
+    private final String winningPlan;
+
+    /**
+     * names of the indexes scanned by the winning plan, empty for a collection scan
+     */
+    private final List<String> indexNames;
+
+    private final long keysExamined;
+
+    private final long docsExamined;
+
+    private final long returned;
+
+    /**
+     * whether the documents are sorted in memory (a blocking <code>SORT</code> stage), instead of in the order of
+     * an index
+     */
+    private final boolean inMemorySort;
+
+    /**
+     * execution time reported by the database, <code>-1</code> if not reported
+     */
+    private final long executionTimeMillis;
+
+    /**
+     * the whole explain output
+     */
+    private final Document explain;
+
+    /**
+     * @return whether the winning plan scans the whole collection
+     */
+    public boolean isCollectionScan() {
+        return winningPlan != null && winningPlan.contains("COLLSCAN");
+    }
+}
@@ -0,0 +1,48 @@
+package org.springframework.data.mongodb.datatables.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of the statistics of the prefetch of next pages by the repository
+ *
+ * @author Xiaoyu Guo
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DataTablesPrefetchStats {
+
+    /**
+     * count of next pages fetched in the background
+     */
+    private final long prefetchCount;
+
+    /**
+     * count of draws served with a prefetched page
+     */
+    private final long hitCount;
+
+    /**
+     * count of prefetched pages discarded without serving a draw: expired, evicted or invalidated by a write
+     */
+    private final long missCount;
+
+    /**
+     * count of prefetches skipped as the concurrency budget was exhausted or the executor rejected them
+     */
+    private final long skippedCount;
+
+    /**
+     * count of prefetched pages waiting for their draw
+     */
+    private final long size;
+
+    /**
+     * @return ratio of the prefetched pages which served a draw, <code>0</code> if nothing was prefetched
+     */
+    public double getHitRatio() {
+        return prefetchCount == 0 ? 0.0 : (double) hitCount / prefetchCount;
+    }
+}
@@ -0,0 +1,58 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Queries of a batch of draws: each distinct query is run once, in parallel on the executor, and its result is
+ * shared by all draws of the batch issuing it.
+ * <p>
+ * Queries are submitted by a single thread, while the batch is being prepared.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+final class DataTablesBatch {
+
+    private final Executor executor;
+
+    private final Map<String, CompletableFuture<?>> queries = new HashMap<>();
+
+    private int sharedCount;
+
+    DataTablesBatch(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Submits a query, unless an identical one was submitted before
+     *
+     * @param key identifies the query and its kind, <code>null</code> if it cannot be shared
+     * @param query
+     * @return the result of the query, or of the identical one
+     */
+    @SuppressWarnings("unchecked")
+    <R> CompletableFuture<R> submit(String key, Supplier<R> query) {
+        if (key == null) {
+            return CompletableFuture.supplyAsync(query, executor);
+        }
+        CompletableFuture<?> result = queries.get(key);
+        if (result == null) {
+            result = CompletableFuture.supplyAsync(query, executor);
+            queries.put(key, result);
+        } else {
+            sharedCount++;
+        }
+        return (CompletableFuture<R>) result;
+    }
+
+    /**
+     * @return count of queries which were not run, as an identical one was submitted before
+     */
+    int getSharedCount() {
+        return sharedCount;
+    }
+}
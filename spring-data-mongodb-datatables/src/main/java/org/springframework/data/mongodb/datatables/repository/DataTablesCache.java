@@ -0,0 +1,110 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+
+/**
+ * A simple bounded LRU cache with hit / miss statistics
+ *
+ * @author Xiaoyu Guo
+ */
+class DataTablesCache<K, V> {
+
+    private final int maximumSize;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final LinkedHashMap<K, V> entries;
+
+    DataTablesCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > DataTablesCache.this.maximumSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value, or computes (outside of the lock) and caches a new one.
+     *
+     * @param key
+     * @param loader
+     * @return
+     */
+    V get(K key, Function<? super K, ? extends V> loader) {
+        if (maximumSize <= 0) {
+            missCount.incrementAndGet();
+            return loader.apply(key);
+        }
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value != null) {
+            hitCount.incrementAndGet();
+            return value;
+        }
+        missCount.incrementAndGet();
+        final V loaded = loader.apply(key);
+        synchronized (entries) {
+            final V existing = entries.putIfAbsent(key, loaded);
+            return existing == null ? loaded : existing;
+        }
+    }
+
+    /**
+     * Returns the cached value, or <code>null</code> if absent
+     *
+     * @param key
+     * @return
+     */
+    V getIfPresent(K key) {
+        final V value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    void put(K key, V value) {
+        if (maximumSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    DataTablesCacheStats stats() {
+        final int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new DataTablesCacheStats(hitCount.get(), missCount.get(), evictionCount.get(), size);
+    }
+}
@@ -0,0 +1,251 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An opaque keyset (seek) cursor, pointing to the page before or after a page that was already fetched.
+ * <p>
+ * The cursor holds the sort values of the last (or first) row of the fetched page, with the identifier as
+ * tie-breaker, so that the next page can be fetched with a range predicate on the sort keys instead of skipping
+ * <code>start</code> documents:
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * {$or: [
+ *     {k1: {$gt: v1}},
+ *     {k1: {$eq: v1}, k2: {$gt: v2}},
+ *     {k1: {$eq: v1}, k2: {$eq: v2}, _id: {$gt: id}}
+ * ]}
+ * </code>
+ * </pre>
+ * <p>
+ * A cursor is only valid for the page it was created for (same <code>start</code>, sort and filter), otherwise it
+ * is ignored and the page is fetched with <code>skip</code>.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+@Slf4j
+final class DataTablesCursor {
+
+    private static final String ID_FIELD = "_id";
+
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED).build();
+
+    private static final String START = "s";
+    private static final String PREVIOUS = "p";
+    private static final String FILTER = "f";
+    private static final String KEYS = "k";
+    private static final String DIRECTIONS = "d";
+    private static final String VALUES = "v";
+
+    private final int start;
+    private final boolean previous;
+    private final int filterHash;
+    private final List<String> keys;
+    private final List<Integer> directions;
+    private final List<Object> values;
+
+    private DataTablesCursor(int start, boolean previous, int filterHash, List<String> keys,
+            List<Integer> directions, List<Object> values) {
+        this.start = start;
+        this.previous = previous;
+        this.filterHash = filterHash;
+        this.keys = keys;
+        this.directions = directions;
+        this.values = values;
+    }
+
+    /**
+     * Appends the identifier to the sort (if not already sorted by it), so that the order is total
+     *
+     * @param metamodel
+     * @param sort may be <code>null</code>
+     * @return
+     */
+    static Sort withTieBreaker(DataTablesEntityMetamodel<?> metamodel, Sort sort) {
+        if (sort == null) {
+            return Sort.by(Direction.ASC, metamodel.getIdPath());
+        }
+        for (final Order order : sort) {
+            if (ID_FIELD.equals(getFieldName(metamodel, order.getProperty()))) {
+                return sort;
+            }
+        }
+        return sort.and(Sort.by(Direction.ASC, metamodel.getIdPath()));
+    }
+
+    /**
+     * Reverses the direction of all orders
+     *
+     * @param sort
+     * @return
+     */
+    static Sort reverse(Sort sort) {
+        final List<Order> orders = new ArrayList<>();
+        for (final Order order : sort) {
+            orders.add(order.with(order.isAscending() ? Direction.DESC : Direction.ASC));
+        }
+        return Sort.by(orders);
+    }
+
+    /**
+     * Creates a cursor from a row of a fetched page
+     *
+     * @param converter used to get the stored values of the row
+     * @param metamodel used to resolve the stored field names of the sort keys
+     * @param row the last row of the page for a next cursor, the first one for a previous cursor
+     * @param sort the sort of the page, including the tie-breaker
+     * @param start the <code>start</code> of the page the cursor points to
+     * @param previous
+     * @param filterHash
+     * @return the cursor, or <code>null</code> if a sort value of the row is missing or <code>null</code>
+     */
+    static DataTablesCursor of(MongoConverter converter, DataTablesEntityMetamodel<?> metamodel, Object row,
+            Sort sort, int start, boolean previous, int filterHash) {
+        final Document document;
+        if (row instanceof Document) {
+            document = (Document) row;
+        } else {
+            document = new Document();
+            try {
+                converter.write(row, document);
+            } catch (RuntimeException e) {
+                log.debug("unable to create a cursor from {}", row, e);
+                return null;
+            }
+        }
+
+        final List<String> keys = new ArrayList<>();
+        final List<Integer> directions = new ArrayList<>();
+        final List<Object> values = new ArrayList<>();
+        for (final Order order : sort) {
+            final Object value = getValue(document, getFieldName(metamodel, order.getProperty()));
+            if (value == null) {
+                // a range on null does not work with type bracketing, fall back to skip
+                return null;
+            }
+            keys.add(order.getProperty());
+            directions.add(order.isAscending() ? 1 : -1);
+            values.add(value);
+        }
+        return new DataTablesCursor(start, previous, filterHash, keys, directions, values);
+    }
+
+    private static String getFieldName(DataTablesEntityMetamodel<?> metamodel, String path) {
+        final DataTablesField field = metamodel.getField(path);
+        return field == null ? path : field.getFieldName();
+    }
+
+    private static Object getValue(Document document, String fieldName) {
+        Object value = document;
+        for (final String part : fieldName.split("\\.")) {
+            if (!(value instanceof Document)) {
+                return null;
+            }
+            value = ((Document) value).get(part);
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encode()}
+     *
+     * @param cursor
+     * @return the cursor, or <code>null</code> if it is malformed
+     */
+    static DataTablesCursor decode(String cursor) {
+        try {
+            final Document document = Document
+                    .parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            final List<String> keys = document.getList(KEYS, String.class);
+            final List<Integer> directions = document.getList(DIRECTIONS, Integer.class);
+            final List<Object> values = document.getList(VALUES, Object.class);
+            if (keys == null || directions == null || values == null || keys.isEmpty()
+                    || keys.size() != directions.size() || keys.size() != values.size()) {
+                log.debug("ignoring malformed cursor {}", cursor);
+                return null;
+            }
+            return new DataTablesCursor(document.getInteger(START), document.getBoolean(PREVIOUS),
+                    document.getInteger(FILTER), keys, directions, values);
+        } catch (RuntimeException e) {
+            log.debug("ignoring malformed cursor {}", cursor, e);
+            return null;
+        }
+    }
+
+    String encode() {
+        final Document document = new Document(START, start).append(PREVIOUS, previous).append(FILTER, filterHash)
+                .append(KEYS, keys).append(DIRECTIONS, directions).append(VALUES, values);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(document.toJson(JSON_SETTINGS).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks whether this cursor was created for the requested page
+     *
+     * @param start requested <code>start</code>
+     * @param sort the sort of the request, including the tie-breaker
+     * @param filterHash hash of the filter of the request
+     * @return
+     */
+    boolean matches(int start, Sort sort, int filterHash) {
+        if (this.start != start || this.filterHash != filterHash) {
+            return false;
+        }
+        int i = 0;
+        for (final Order order : sort) {
+            if (i >= keys.size() || !order.getProperty().equals(keys.get(i))
+                    || (order.isAscending() ? 1 : -1) != directions.get(i)) {
+                return false;
+            }
+            i++;
+        }
+        return i == keys.size();
+    }
+
+    /**
+     * Whether this cursor points to the page before the fetched one. The page then has to be fetched with the
+     * {@link #reverse(Sort) reversed} sort, and the rows have to be reversed afterwards.
+     *
+     * @return
+     */
+    boolean isPrevious() {
+        return previous;
+    }
+
+    /**
+     * Creates the range predicate of the page this cursor points to
+     *
+     * @return the (unmapped) filter document
+     */
+    Document toPredicate() {
+        final List<Document> clauses = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            final Document clause = new Document();
+            for (int j = 0; j < i; j++) {
+                // $eq, so that values of the cursor are never interpreted as operators
+                clause.put(keys.get(j), new Document("$eq", values.get(j)));
+            }
+            final boolean ascending = directions.get(i) > 0;
+            clause.put(keys.get(i), new Document(ascending != previous ? "$gt" : "$lt", values.get(i)));
+            clauses.add(clause);
+        }
+        return clauses.size() == 1 ? clauses.get(0) : new Document("$or", clauses);
+    }
+}
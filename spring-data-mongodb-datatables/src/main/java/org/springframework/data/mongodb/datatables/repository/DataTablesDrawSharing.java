@@ -0,0 +1,216 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+import org.springframework.data.mongodb.datatables.model.DataTablesPrefetchStats;
+
+/**
+ * Shares the outputs of the draws of a repository: a draw is served from the result cache or from its prefetched
+ * page, or else waits for the identical draw in flight, or else runs, and then its next page is prefetched in the
+ * background.
+ * <p>
+ * The draws themselves are functions of the repository, so that the sharing does not depend on the database.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+final class DataTablesDrawSharing {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final DataTablesOptions options;
+    private final String collectionName;
+    private final DataTablesMetrics metrics;
+    private final Executor executor;
+    private final DataTablesResultCache results;
+    private final DataTablesSingleFlight inFlightDraws = new DataTablesSingleFlight();
+    private final DataTablesResultCache prefetchedPages;
+    private final Semaphore prefetchPermits;
+    private final AtomicLong prefetchCount = new AtomicLong();
+    private final AtomicLong prefetchHitCount = new AtomicLong();
+    private final AtomicLong prefetchSkippedCount = new AtomicLong();
+
+    /**
+     * @param options
+     * @param collectionName the collection of the draws, for the metrics of the draws which are served without
+     *            running
+     * @param metrics
+     * @param executor runs the prefetches
+     */
+    DataTablesDrawSharing(DataTablesOptions options, String collectionName, DataTablesMetrics metrics,
+            Executor executor) {
+        this.options = options;
+        this.collectionName = collectionName;
+        this.metrics = metrics;
+        this.executor = executor;
+        this.results = new DataTablesResultCache(options.getResultCacheTtl(), options.getResultCacheSize(),
+                options.getResultCacheMaxRows());
+        // a prefetched page is bounded by the length of its draw
+        this.prefetchedPages = new DataTablesResultCache(options.getPrefetchTtl(), options.getPrefetchCacheSize(),
+                Long.MAX_VALUE);
+        this.prefetchPermits = new Semaphore(Math.max(0, options.getPrefetchConcurrency()));
+    }
+
+    DataTablesCacheStats getResultCacheStats() {
+        return results.stats();
+    }
+
+    DataTablesCacheStats getCoalescingStats() {
+        return inFlightDraws.stats();
+    }
+
+    DataTablesPrefetchStats getPrefetchStats() {
+        final long size = prefetchedPages.stats().getSize();
+        final long hits = prefetchHitCount.get();
+        final long prefetches = prefetchCount.get();
+        // pages neither served nor waiting were discarded
+        return new DataTablesPrefetchStats(prefetches, hits, Math.max(0L, prefetches - hits - size),
+                prefetchSkippedCount.get(), size);
+    }
+
+    /**
+     * Invalidates the shared outputs after a write
+     */
+    void invalidate() {
+        results.invalidate();
+        inFlightDraws.invalidate();
+        prefetchedPages.invalidate();
+    }
+
+    /**
+     * Runs the draw, unless its output is cached or prefetched, or the identical draw is in flight and coalescing
+     * is enabled, then prefetches its next page if enabled
+     *
+     * @param path the path of the draw, for the metrics of the draws which are served without it
+     * @param input
+     * @param parameters what the draw depends on besides the input, e.g. its criteria, <code>null</code> if they
+     *            cannot be compared
+     * @param draw runs the draw of an input, with the output of its previous page whose counts are reused, or
+     *            <code>null</code> to count
+     * @return the output, or a copy of the shared one with the draw counter of the input
+     */
+    @SuppressWarnings("unchecked")
+    <R> DataTablesOutput<R> find(DataTablesMetrics.Path path, DataTablesInput input, Supplier<String> parameters,
+            BiFunction<DataTablesInput, DataTablesOutput<?>, DataTablesOutput<R>> draw) {
+        if (!options.isCoalescing() && !results.isEnabled() && !prefetchedPages.isEnabled()) {
+            return draw.apply(input, null);
+        }
+        final String parametersKey = parameters.get();
+        if (parametersKey == null) {
+            return draw.apply(input, null);
+        }
+        final String key = toKey(input, parametersKey);
+
+        DataTablesMetrics.Source source = DataTablesMetrics.Source.CACHE;
+        DataTablesOutput<R> shared = results.isEnabled() ? (DataTablesOutput<R>) results.get(key) : null;
+        if (shared == null && prefetchedPages.isEnabled()) {
+            source = DataTablesMetrics.Source.PREFETCH;
+            shared = (DataTablesOutput<R>) prefetchedPages.take(toPageKey(input, parametersKey));
+            if (shared != null) {
+                prefetchHitCount.incrementAndGet();
+            }
+        }
+        if (shared != null) {
+            final DataTablesMetrics.Draw served = metrics.start(collectionName, path, source, input);
+            prefetchNext(input, parametersKey, shared, draw);
+            final DataTablesOutput<R> copy = DataTablesUtils.copyOf(shared, input.getDraw());
+            served.end(copy);
+            return copy;
+        }
+
+        final long generation = results.getGeneration();
+        final Supplier<DataTablesOutput<R>> execution = () -> {
+            final DataTablesOutput<R> output = draw.apply(input, null);
+            // the caller may modify its output, and its rows
+            final DataTablesOutput<R> copy = DataTablesUtils.copyOf(output, output.getDraw());
+            copy.setData(Collections.unmodifiableList(new ArrayList<>(output.getData())));
+            if (results.isEnabled()) {
+                results.put(key, copy, generation);
+            }
+            prefetchNext(input, parametersKey, copy, draw);
+            return output;
+        };
+        if (!options.isCoalescing()) {
+            return execution.get();
+        }
+        return inFlightDraws.execute(key, execution, () -> {
+            // the wait for the identical draw is the duration of this one
+            final DataTablesMetrics.Draw served = metrics.start(collectionName, path,
+                    DataTablesMetrics.Source.COALESCED, input);
+            return output -> {
+                final DataTablesOutput<R> copy = DataTablesUtils.copyOf(output, input.getDraw());
+                served.end(copy);
+                return copy;
+            };
+        });
+    }
+
+    /**
+     * Fetches the next page of a draw in the background with the counts of the draw, unless it is the last page,
+     * it is already cached or prefetched, or the concurrency budget of the prefetch is exhausted
+     *
+     * @param input
+     * @param parametersKey
+     * @param output the output of the input, must not be modified afterwards
+     * @param draw
+     */
+    private <R> void prefetchNext(DataTablesInput input, String parametersKey, DataTablesOutput<R> output,
+            BiFunction<DataTablesInput, DataTablesOutput<?>, DataTablesOutput<R>> draw) {
+        if (!prefetchedPages.isEnabled() || output.getError() != null || output.isRecordsFilteredCapped()
+                || input.getLength() <= 0
+                || (long) input.getStart() + input.getLength() >= output.getRecordsFiltered()) {
+            return;
+        }
+        final DataTablesInput next = DataTablesUtils.nextPageOf(input, output);
+        // the "next" click of a client which does not send the cursor back has the same page key
+        final String key = toPageKey(next, parametersKey);
+        if (prefetchedPages.contains(key) || results.contains(toKey(next, parametersKey))) {
+            return;
+        }
+        if (!prefetchPermits.tryAcquire()) {
+            prefetchSkippedCount.incrementAndGet();
+            return;
+        }
+        final long generation = prefetchedPages.getGeneration();
+        try {
+            executor.execute(() -> {
+                try {
+                    final DataTablesOutput<R> page = draw.apply(next, output);
+                    if (page.getError() == null) {
+                        page.setData(Collections.unmodifiableList(page.getData()));
+                        // counted first, so that the page is never taken before it is counted
+                        prefetchCount.incrementAndGet();
+                        prefetchedPages.put(key, page, generation);
+                    }
+                } finally {
+                    prefetchPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            prefetchPermits.release();
+            prefetchSkippedCount.incrementAndGet();
+        }
+    }
+
+    private String toKey(DataTablesInput input, String parametersKey) {
+        return DataTablesQueryPlan.keyOf(input, options.isFieldProjection()) + KEY_SEPARATOR + parametersKey;
+    }
+
+    /**
+     * @return the key of the page of the draw, whatever its cursor, see {@link #prefetchNext}
+     */
+    private String toPageKey(DataTablesInput input, String parametersKey) {
+        return DataTablesQueryPlan.keyOf(input, options.isFieldProjection(), false) + KEY_SEPARATOR
+                + parametersKey;
+    }
+}
@@ -0,0 +1,228 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesColumn;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lookup table from frontend provided field names (<code>columns[i].data</code>) to {@link DataTablesField}s.
+ * <p>
+ * The table is built once per entity from the {@link MongoPersistentEntity} metadata, so that resolving a column
+ * during a request is a single hash lookup. Both the property name and the <code>@JsonProperty</code> name (if
+ * jackson is available) are accepted on every level of a nested path. With an {@link ObjectMapper}, the name it
+ * serializes the property with (e.g. following its <code>PropertyNamingStrategy</code>) is accepted too.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+@Slf4j
+public class DataTablesEntityMetamodel<T> {
+
+    /**
+     * check jackson at startup
+     */
+    private static final boolean IS_JACKSON_AVAILABLE = ClassUtils.isPresent(
+            "com.fasterxml.jackson.annotation.JsonProperty", DataTablesEntityMetamodel.class.getClassLoader());
+
+    private final Class<T> javaType;
+
+    private final ConcurrentMap<String, DataTablesField> fields = new ConcurrentHashMap<>();
+
+    /**
+     * all fields, in declaration order
+     */
+    private final List<DataTablesField> declaredFields = new ArrayList<>();
+
+    private final String idPath;
+
+    /**
+     * the mapper of the rows sent to the frontend, may be <code>null</code>
+     */
+    private final ObjectMapper objectMapper;
+
+    public DataTablesEntityMetamodel(Class<T> javaType,
+            MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext) {
+        this(javaType, mappingContext, null);
+    }
+
+    /**
+     * @param javaType
+     * @param mappingContext
+     * @param objectMapper the mapper of the rows sent to the frontend, whose property names are accepted as well,
+     *            may be <code>null</code>
+     */
+    public DataTablesEntityMetamodel(Class<T> javaType,
+            MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+            ObjectMapper objectMapper) {
+        this.javaType = javaType;
+        this.objectMapper = objectMapper;
+
+        final MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(javaType);
+        this.idPath = entity == null || entity.getIdProperty() == null ? "_id" : entity.getIdProperty().getName();
+        if (entity != null) {
+            final Set<Class<?>> visiting = new LinkedHashSet<>();
+            visiting.add(javaType);
+            index(mappingContext, entity, null, null, visiting);
+        }
+        log.debug("built metamodel of {} with {} field names", javaType.getSimpleName(), fields.size());
+    }
+
+    /**
+     * Recursively index all properties of the given entity (and of its nested entities)
+     *
+     * @param mappingContext
+     * @param entity current level entity
+     * @param parentNames frontend names of the parent level, <code>null</code> on top level
+     * @param parentField resolved field of the parent level, <code>null</code> on top level
+     * @param visiting types on the current path, to stop on cyclic references
+     */
+    private void index(MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+            MongoPersistentEntity<?> entity, List<String> parentNames, DataTablesField parentField,
+            Set<Class<?>> visiting) {
+        final Map<String, String> jsonNames = getJsonNames(entity);
+        entity.doWithProperties((PropertyHandler<MongoPersistentProperty>) property -> {
+            final DataTablesColumn column = property.findAnnotation(DataTablesColumn.class);
+            final FieldType targetType = getTargetType(property);
+            final DataTablesField field = parentField == null
+                    ? new DataTablesField(property.getName(), property.getFieldName(), property.getActualType(),
+                            targetType, column)
+                    : parentField.child(property.getName(), property.getFieldName(), property.getActualType(),
+                            targetType, column);
+            declaredFields.add(field);
+
+            final List<String> names = new ArrayList<>();
+            for (final String alias : getAliases(property, jsonNames.get(property.getName()))) {
+                if (parentNames == null) {
+                    names.add(alias);
+                } else {
+                    for (final String parentName : parentNames) {
+                        names.add(parentName + "." + alias);
+                    }
+                }
+            }
+            for (final String name : names) {
+                // the property name always wins over a conflicting @JsonProperty
+                fields.putIfAbsent(name, field);
+            }
+
+            if (property.isEntity() && visiting.add(property.getActualType())) {
+                final MongoPersistentEntity<?> child = mappingContext.getPersistentEntity(property);
+                if (child != null) {
+                    index(mappingContext, child, names, field, visiting);
+                }
+                visiting.remove(property.getActualType());
+            }
+        });
+    }
+
+    private static FieldType getTargetType(MongoPersistentProperty property) {
+        final Field field = property.findAnnotation(Field.class);
+        return field == null ? FieldType.IMPLICIT : field.targetType();
+    }
+
+    /**
+     * @param entity
+     * @return the names the {@link ObjectMapper} serializes the properties with, by property name, empty without
+     *         a mapper
+     */
+    private Map<String, String> getJsonNames(MongoPersistentEntity<?> entity) {
+        final Map<String, String> jsonNames = new HashMap<>();
+        if (objectMapper != null) {
+            final SerializationConfig config = objectMapper.getSerializationConfig();
+            final BeanDescription description = config.introspect(config.constructType(entity.getType()));
+            for (final BeanPropertyDefinition property : description.findProperties()) {
+                jsonNames.put(property.getInternalName(), property.getName());
+            }
+        }
+        return jsonNames;
+    }
+
+    /**
+     * @param property
+     * @param jsonName name of the property in the rows sent to the frontend, may be <code>null</code>
+     * @return the accepted names of the property, the property name first
+     */
+    private static List<String> getAliases(MongoPersistentProperty property, String jsonName) {
+        final List<String> aliases = new ArrayList<>(3);
+        aliases.add(property.getName());
+        if (IS_JACKSON_AVAILABLE) {
+            // direct matching with @JsonProperty
+            final JsonProperty jsonProperty = property.findAnnotation(JsonProperty.class);
+            if (jsonProperty != null && StringUtils.hasLength(jsonProperty.value())
+                    && !jsonProperty.value().equals(property.getName())) {
+                aliases.add(jsonProperty.value());
+            }
+        }
+        // e.g. renamed by the PropertyNamingStrategy of the mapper
+        if (jsonName != null && !aliases.contains(jsonName)) {
+            aliases.add(jsonName);
+        }
+        return aliases;
+    }
+
+    /**
+     * Determine actual MongoDB field from input
+     *
+     * @param name frontend provided field name, may be a dot separated path
+     * @return the resolved field, or <code>null</code> if not found
+     */
+    public DataTablesField getField(String name) {
+        if (name == null) {
+            return null;
+        }
+        return fields.get(name);
+    }
+
+    /**
+     * Determine actual MongoDB property path from input
+     *
+     * @param name frontend provided field name, may be a dot separated path
+     * @return the property path, or <code>null</code> if not found
+     */
+    public String getPath(String name) {
+        final DataTablesField field = getField(name);
+        return field == null ? null : field.getPath();
+    }
+
+    /**
+     * @return all fields of the entity (including the nested ones), in declaration order
+     */
+    public List<DataTablesField> getFields() {
+        return Collections.unmodifiableList(declaredFields);
+    }
+
+    /**
+     * @return the property path of the identifier, <code>_id</code> if the entity has no identifier property
+     */
+    public String getIdPath() {
+        return idPath;
+    }
+
+    public Class<T> getJavaType() {
+        return javaType;
+    }
+}
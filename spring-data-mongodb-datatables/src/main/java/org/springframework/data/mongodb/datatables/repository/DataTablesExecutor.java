@@ -0,0 +1,70 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default {@link Executor} of the parallel and background queries of the repositories which do not configure one
+ * with {@link DataTablesOptions#setExecutor(Executor)}.
+ * <p>
+ * As the queries are blocking calls, they are not run on {@link java.util.concurrent.ForkJoinPool#commonPool()},
+ * but on a dedicated pool shared by all repositories, with a bounded count of daemon threads and a bounded queue.
+ * Tasks beyond the queue are rejected.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+final class DataTablesExecutor {
+
+    private static final int POOL_SIZE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private static final int QUEUE_SIZE = 256;
+
+    private DataTablesExecutor() {
+    }
+
+    /**
+     * @return the shared default executor, created on first use
+     */
+    static Executor getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Wraps an executor, so that a task it rejects runs on the submitting thread instead, for the queries which are
+     * awaited by a draw anyway
+     *
+     * @param executor
+     * @return
+     */
+    static Executor callerRunsOnRejection(Executor executor) {
+        return task -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        };
+    }
+
+    private static final class Holder {
+
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            final AtomicInteger threadCount = new AtomicInteger();
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(QUEUE_SIZE), task -> {
+                        final Thread thread = new Thread(task, "datatables-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.datatables.model.DataTablesExplanation;
+
+/**
+ * Runs the queries of a draw as <code>explain</code> commands with the <code>executionStats</code> verbosity, and
+ * summarizes their output.
+ * <p>
+ * Queries are mapped to the stored field names the same way as when they are executed. Counts of queries are
+ * explained as <code>count</code> commands, which select the same plan as the <code>countDocuments</code>
+ * aggregation run by {@link MongoOperations#count(Query, String)}.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+final class DataTablesExplainer {
+
+    private static final String VERBOSITY = "executionStats";
+
+    private final MongoOperations mongoOperations;
+    private final MongoPersistentEntity<?> entity;
+    private final String collectionName;
+    private final QueryMapper queryMapper;
+
+    DataTablesExplainer(MongoOperations mongoOperations, MongoPersistentEntity<?> entity, String collectionName) {
+        this.mongoOperations = mongoOperations;
+        this.entity = entity;
+        this.collectionName = collectionName;
+        this.queryMapper = new QueryMapper(mongoOperations.getConverter());
+    }
+
+    /**
+     * Explains the count of the documents matching the query, honoring its limit
+     */
+    DataTablesExplanation explainCount(String name, Query query) {
+        final Document command = new Document("count", collectionName)
+                .append("query", queryMapper.getMappedObject(query.getQueryObject(), entity));
+        if (query.getLimit() > 0) {
+            command.append("limit", query.getLimit());
+        }
+        query.getCollation().ifPresent(collation -> command.append("collation", collation.toDocument()));
+        return explain(name, command);
+    }
+
+    /**
+     * Explains the find of the query, with its projection, sort, skip and limit
+     */
+    DataTablesExplanation explainFind(String name, Query query) {
+        final Document command = new Document("find", collectionName)
+                .append("filter", queryMapper.getMappedObject(query.getQueryObject(), entity));
+        if (!query.getFieldsObject().isEmpty()) {
+            command.append("projection", queryMapper.getMappedFields(query.getFieldsObject(), entity));
+        }
+        if (!query.getSortObject().isEmpty()) {
+            command.append("sort", queryMapper.getMappedSort(query.getSortObject(), entity));
+        }
+        if (query.getSkip() > 0) {
+            command.append("skip", query.getSkip());
+        }
+        if (query.getLimit() > 0) {
+            command.append("limit", query.getLimit());
+        }
+        query.getCollation().ifPresent(collation -> command.append("collation", collation.toDocument()));
+        return explain(name, command);
+    }
+
+    /**
+     * Explains the aggregation, with its collation
+     */
+    DataTablesExplanation explainAggregation(String name, TypedAggregation<?> aggregation) {
+        final List<Document> pipeline = aggregation.toPipeline(new TypeBasedAggregationOperationContext(
+                aggregation.getInputType(), mongoOperations.getConverter().getMappingContext(), queryMapper));
+        final Document command = new Document("aggregate", collectionName).append("pipeline", pipeline)
+                .append("cursor", new Document());
+        aggregation.getOptions().getCollation()
+                .ifPresent(collation -> command.append("collation", collation.toDocument()));
+        return explain(name, command);
+    }
+
+    private DataTablesExplanation explain(String name, Document command) {
+        final Document explain = mongoOperations
+                .executeCommand(new Document("explain", command).append("verbosity", VERBOSITY));
+        return summarize(name, command, explain);
+    }
+
+    static DataTablesExplanation summarize(String name, Document command, Document explain) {
+        final StringBuilder plan = new StringBuilder();
+        final Set<String> indexNames = new LinkedHashSet<>();
+        boolean inMemorySort = false;
+
+        // stages of an aggregation which are not pushed down to the query, last one first
+        final List<?> stages = explain.get("stages", List.class);
+        if (stages != null) {
+            for (int i = stages.size() - 1; i >= 0; i--) {
+                final Object stage = stages.get(i);
+                if (!(stage instanceof Document) || ((Document) stage).isEmpty()) {
+                    continue;
+                }
+                final String stageName = ((Document) stage).keySet().iterator().next();
+                if ("$cursor".equals(stageName)) {
+                    continue;
+                }
+                inMemorySort = inMemorySort || "$sort".equals(stageName);
+                plan.append(stageName).append(" > ");
+            }
+        }
+
+        final Document queryPlanner = find(explain, "queryPlanner");
+        Document winningPlan = queryPlanner == null ? null : queryPlanner.get("winningPlan", Document.class);
+        if (winningPlan != null && winningPlan.get("queryPlan") instanceof Document) {
+            // slot based execution (MongoDB 5.0+)
+            winningPlan = winningPlan.get("queryPlan", Document.class);
+        }
+        inMemorySort = appendStage(plan, winningPlan, indexNames) || inMemorySort;
+        if (plan.length() >= 3 && plan.lastIndexOf(" > ") == plan.length() - 3) {
+            plan.setLength(plan.length() - 3);
+        }
+
+        final Document executionStats = find(explain, "executionStats");
+        return new DataTablesExplanation(name, command, plan.toString(), new ArrayList<>(indexNames),
+                getLong(executionStats, "totalKeysExamined", 0L), getLong(executionStats, "totalDocsExamined", 0L),
+                getLong(executionStats, "nReturned", 0L), inMemorySort,
+                getLong(executionStats, "executionTimeMillis", -1L), explain);
+    }
+
+    /**
+     * Appends the stage and its inputs to the plan
+     *
+     * @return whether there is a blocking sort in the stage or its inputs
+     */
+    private static boolean appendStage(StringBuilder plan, Document stage, Set<String> indexNames) {
+        if (stage == null) {
+            return false;
+        }
+        final String stageName = stage.getString("stage");
+        plan.append(stageName);
+        boolean inMemorySort = "SORT".equals(stageName);
+        if (stage.get("indexName") instanceof String) {
+            indexNames.add(stage.getString("indexName"));
+        }
+
+        final List<Document> inputs = new ArrayList<>();
+        if (stage.get("inputStage") instanceof Document) {
+            inputs.add(stage.get("inputStage", Document.class));
+        }
+        for (final String key : new String[] { "inputStages", "shards" }) {
+            if (stage.get(key) instanceof List) {
+                for (final Object input : stage.get(key, List.class)) {
+                    if (input instanceof Document) {
+                        final Document shardPlan = ((Document) input).get("winningPlan", Document.class);
+                        inputs.add(shardPlan == null ? (Document) input : shardPlan);
+                    }
+                }
+            }
+        }
+        if (inputs.size() == 1) {
+            plan.append(" > ");
+            inMemorySort = appendStage(plan, inputs.get(0), indexNames) || inMemorySort;
+        } else if (!inputs.isEmpty()) {
+            plan.append(" [");
+            for (int i = 0; i < inputs.size(); i++) {
+                if (i > 0) {
+                    plan.append(", ");
+                }
+                inMemorySort = appendStage(plan, inputs.get(i), indexNames) || inMemorySort;
+            }
+            plan.append("]");
+        }
+        return inMemorySort;
+    }
+
+    /**
+     * @return the first document under the given key, depth first
+     */
+    private static Document find(Object value, String key) {
+        if (value instanceof Document) {
+            final Document document = (Document) value;
+            if (document.get(key) instanceof Document) {
+                return document.get(key, Document.class);
+            }
+            for (final Map.Entry<String, Object> entry : document.entrySet()) {
+                final Document found = find(entry.getValue(), key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (value instanceof List) {
+            for (final Object element : (List<?>) value) {
+                final Document found = find(element, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long getLong(Document document, String key, long defaultValue) {
+        final Object value = document == null ? null : document.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+}
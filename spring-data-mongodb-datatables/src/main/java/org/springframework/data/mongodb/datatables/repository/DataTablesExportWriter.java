@@ -0,0 +1,195 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.mongodb.datatables.mapping.Column;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesExportFormat;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes rows one by one to an {@link OutputStream}, as CSV or NDJSON.
+ * <p>
+ * Rows are serialized with jackson, so that the exported values are the same as in the JSON response of
+ * <code>findAll</code>. For CSV, the columns are the <code>columns[i].data</code> of the input, resolved as
+ * (dot separated) paths in the serialized row, and text cells which a spreadsheet would evaluate as a formula
+ * can be escaped. Closing the writer flushes, but does not close the underlying stream.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+class DataTablesExportWriter implements Closeable {
+
+    private static final char CSV_SEPARATOR = ',';
+    private static final char CSV_QUOTE = '"';
+    private static final String CSV_LINE_END = "\r\n";
+    private static final char NDJSON_LINE_END = '\n';
+    private static final char CSV_FORMULA_ESCAPE = '\'';
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    private final DataTablesExportFormat format;
+    private final boolean formulaEscaping;
+    private final List<String> columns = new ArrayList<>();
+    private final Writer writer;
+    private JsonGenerator generator;
+    private long count = 0L;
+
+    /**
+     * @param objectMapper
+     * @param format
+     * @param columns
+     * @param formulaEscaping whether CSV text cells starting like a formula are escaped, see
+     *        {@link DataTablesOptions#isCsvFormulaEscaping()}
+     * @param out
+     * @throws IOException
+     */
+    DataTablesExportWriter(ObjectMapper objectMapper, DataTablesExportFormat format, List<Column> columns,
+            boolean formulaEscaping, OutputStream out) throws IOException {
+        this.objectMapper = objectMapper;
+        // flushing after each row would defeat the buffering
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.format = format;
+        this.formulaEscaping = formulaEscaping;
+        for (final Column column : columns) {
+            if (StringUtils.hasLength(column.getData())) {
+                this.columns.add(column.getData());
+            }
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        if (format == DataTablesExportFormat.CSV) {
+            // the columns come from the request
+            final List<String> header = new ArrayList<>(this.columns.size());
+            for (final String column : this.columns) {
+                header.add(escapeFormula(column));
+            }
+            writeCsvLine(header);
+        } else {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString(String.valueOf(NDJSON_LINE_END)));
+        }
+    }
+
+    /**
+     * Writes a single row
+     *
+     * @param row
+     * @throws IOException
+     */
+    void write(Object row) throws IOException {
+        if (format == DataTablesExportFormat.CSV) {
+            final JsonNode node = objectMapper.valueToTree(row);
+            final List<String> values = new ArrayList<>(columns.size());
+            for (final String column : columns) {
+                final JsonNode value = getNode(node, column);
+                // numbers, e.g. negative ones, are not evaluated as formulas
+                values.add(value.isTextual() ? escapeFormula(value.asText()) : toText(value));
+            }
+            writeCsvLine(values);
+        } else {
+            objectWriter.writeValue(generator, row);
+        }
+        count++;
+    }
+
+    /**
+     * @return count of rows written so far
+     */
+    long getCount() {
+        return count;
+    }
+
+    private static JsonNode getNode(JsonNode node, String path) {
+        JsonNode current = node;
+        for (final String part : StringUtils.delimitedListToStringArray(path, ".")) {
+            current = current.path(part);
+        }
+        return current;
+    }
+
+    private static String toText(JsonNode node) {
+        if (node.isMissingNode() || node.isNull()) {
+            return "";
+        }
+        return node.isValueNode() ? node.asText() : node.toString();
+    }
+
+    /**
+     * @return the value prefixed with <code>'</code> if a spreadsheet would evaluate it as a formula and escaping
+     *         is enabled
+     */
+    private String escapeFormula(String value) {
+        if (!formulaEscaping || value.isEmpty()) {
+            return value;
+        }
+        switch (value.charAt(0)) {
+        case '=':
+        case '+':
+        case '-':
+        case '@':
+        case '\t':
+        case '\r':
+            return CSV_FORMULA_ESCAPE + value;
+        default:
+            return value;
+        }
+    }
+
+    private void writeCsvLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(CSV_SEPARATOR);
+            }
+            writeCsvValue(values.get(i));
+        }
+        writer.write(CSV_LINE_END);
+    }
+
+    private void writeCsvValue(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            final char c = value.charAt(i);
+            quote = c == CSV_SEPARATOR || c == CSV_QUOTE || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write(CSV_QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == CSV_QUOTE) {
+                writer.write(CSV_QUOTE);
+            }
+            writer.write(c);
+        }
+        writer.write(CSV_QUOTE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+            if (count > 0) {
+                writer.write(NDJSON_LINE_END);
+            }
+        }
+        writer.flush();
+    }
+}
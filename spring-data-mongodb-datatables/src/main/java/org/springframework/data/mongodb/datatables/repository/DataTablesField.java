@@ -0,0 +1,84 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.datatables.mapping.ColumnType;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesColumn;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A field resolved from a frontend provided name (<code>columns[i].data</code>) by {@link DataTablesEntityMetamodel}
+ *
+ * @author Xiaoyu Guo
+ */
+@Getter
+@ToString
+public class DataTablesField {
+
+    /**
+     * dot separated property path, as used in {@link org.springframework.data.mongodb.core.query.Criteria}
+     */
+    private final String path;
+
+    /**
+     * dot separated field name, as actually stored in MongoDB (with <code>@Field</code> applied)
+     */
+    private final String fieldName;
+
+    /**
+     * actual type of the value (the element type for collections)
+     */
+    private final Class<?> type;
+
+    /**
+     * BSON type the value is stored as, from <code>@Field(targetType = ...)</code>, {@link FieldType#IMPLICIT} if
+     * derived from {@link #type}
+     */
+    private final FieldType targetType;
+
+    /**
+     * usage hints of the property, <code>null</code> if not annotated
+     */
+    private final DataTablesColumn column;
+
+    DataTablesField(String path, String fieldName, Class<?> type, FieldType targetType, DataTablesColumn column) {
+        this.path = path;
+        this.fieldName = fieldName;
+        this.type = type;
+        this.targetType = targetType;
+        this.column = column;
+    }
+
+    DataTablesField child(String path, String fieldName, Class<?> type, FieldType targetType,
+            DataTablesColumn column) {
+        return new DataTablesField(this.path + "." + path, this.fieldName + "." + fieldName, type, targetType,
+                column);
+    }
+
+    /**
+     * @return the type of the columns of this field which do not specify one, from the BSON type it is stored as
+     */
+    public ColumnType getColumnType() {
+        switch (targetType) {
+        case STRING:
+            return ColumnType.STRING;
+        case INT32:
+            return ColumnType.INTEGER;
+        case INT64:
+            return ColumnType.LONG;
+        case DOUBLE:
+            return ColumnType.DOUBLE;
+        case DECIMAL128:
+            return ColumnType.DECIMAL128;
+        case DATE_TIME:
+            return ColumnType.DATE;
+        case BOOLEAN:
+            return ColumnType.BOOLEAN;
+        case OBJECT_ID:
+            return ColumnType.OBJECT_ID;
+        default:
+            return ColumnType.of(type);
+        }
+    }
+}
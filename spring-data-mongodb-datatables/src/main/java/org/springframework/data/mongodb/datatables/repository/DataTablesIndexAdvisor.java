@@ -0,0 +1,298 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.bson.Document;
+
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesColumn;
+import org.springframework.data.mongodb.datatables.mapping.SearchMode;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the usage of the fields declared with {@link DataTablesColumn} to the indexes of the collection.
+ * <p>
+ * A search on a field without an index starting with it is a collection scan (<code>COLLSCAN</code>), an order
+ * without an index starting with the ordered field, or with the searched field and then the ordered one, is an
+ * in-memory <code>SORT</code>. For each pair of a searched field and an ordered field, the recommended compound
+ * index follows the equality, sort, range rule: <code>{equality: 1, sort: 1}</code> and
+ * <code>{sort: 1, range: 1}</code>. Recommendations which are a prefix of another one, or of an existing index,
+ * are left out.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+@Slf4j
+public class DataTablesIndexAdvisor {
+
+    /**
+     * What the advisor does when a repository is created
+     */
+    public enum Mode {
+        /**
+         * nothing
+         */
+        OFF,
+
+        /**
+         * logs the searches and orders which are not backed by an index, and the recommended indexes
+         */
+        REPORT,
+
+        /**
+         * same as {@link #REPORT}, and creates the recommended indexes
+         */
+        CREATE
+    }
+
+    private static final String LOCALE = "locale";
+    private static final String SIMPLE_LOCALE = "simple";
+
+    private final MongoOperations mongoOperations;
+    private final DataTablesEntityMetamodel<?> metamodel;
+    private final String collectionName;
+    private final Collation searchCollation;
+
+    public DataTablesIndexAdvisor(MongoOperations mongoOperations, DataTablesEntityMetamodel<?> metamodel,
+            String collectionName, DataTablesOptions options) {
+        this.mongoOperations = mongoOperations;
+        this.metamodel = metamodel;
+        this.collectionName = collectionName;
+        this.searchCollation = options.getSearchCollation();
+    }
+
+    /**
+     * Runs the advisor in the given mode. Failures are logged, so that they never prevent the repository from
+     * being created.
+     *
+     * @param mode
+     * @return the recommended indexes which did not exist
+     */
+    public List<Index> run(Mode mode) {
+        if (mode == null || mode == Mode.OFF) {
+            return Collections.emptyList();
+        }
+        try {
+            final IndexOperations indexOperations = mongoOperations.indexOps(collectionName);
+            final List<Index> missing = advise(indexOperations.getIndexInfo());
+            if (mode == Mode.CREATE) {
+                for (final Index index : missing) {
+                    log.info("creating index {} on {}", index.getIndexKeys().toJson(), collectionName);
+                    try {
+                        indexOperations.ensureIndex(index);
+                    } catch (Exception e) {
+                        log.error("could not create index {} on {}", index.getIndexKeys().toJson(), collectionName,
+                                e);
+                    }
+                }
+            }
+            return missing;
+        } catch (Exception e) {
+            log.error("index advisor failed for {}", collectionName, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Compares the declared usage of the fields to the given indexes, and logs the findings
+     *
+     * @param indexes the existing indexes of the collection
+     * @return the recommended indexes which do not exist
+     */
+    public List<Index> advise(List<IndexInfo> indexes) {
+        final List<DataTablesField> equalities = new ArrayList<>();
+        final List<DataTablesField> ranges = new ArrayList<>();
+        final List<DataTablesField> orders = new ArrayList<>();
+        for (final DataTablesField field : metamodel.getFields()) {
+            final DataTablesColumn column = field.getColumn();
+            if (column == null) {
+                continue;
+            }
+            if (column.searchable()) {
+                switch (getSearchMode(field)) {
+                case CONTAINS:
+                    log.warn("{}: search on '{}' with {} always scans, consider {}", collectionName,
+                            field.getFieldName(), SearchMode.CONTAINS, SearchMode.PREFIX);
+                    break;
+                case PREFIX:
+                    // an anchored regular expression is an index range
+                    ranges.add(field);
+                    break;
+                default:
+                    equalities.add(field);
+                    break;
+                }
+            }
+            if (column.rangeFilterable() && !ranges.contains(field)) {
+                ranges.add(field);
+            }
+            if (column.orderable()) {
+                orders.add(field);
+            }
+        }
+
+        final List<List<DataTablesField>> recommended = new ArrayList<>();
+        for (final DataTablesField field : equalities) {
+            check(indexes, recommended, "COLLSCAN", "search on '" + field.getFieldName() + "'", field);
+        }
+        for (final DataTablesField field : ranges) {
+            check(indexes, recommended, "COLLSCAN", "range on '" + field.getFieldName() + "'", field);
+        }
+        for (final DataTablesField order : orders) {
+            check(indexes, recommended, "SORT", "order by '" + order.getFieldName() + "'", order);
+            for (final DataTablesField field : equalities) {
+                if (field != order) {
+                    check(indexes, recommended, "SORT",
+                            "search on '" + field.getFieldName() + "' ordered by '" + order.getFieldName() + "'",
+                            field, order);
+                }
+            }
+            for (final DataTablesField field : ranges) {
+                if (field != order) {
+                    check(indexes, recommended, "SORT",
+                            "range on '" + field.getFieldName() + "' ordered by '" + order.getFieldName() + "'",
+                            order, field);
+                }
+            }
+        }
+
+        final List<Index> missing = new ArrayList<>();
+        for (final List<DataTablesField> keys : recommended) {
+            if (!isPrefixOfAnother(keys, recommended)) {
+                final Index index = toIndex(keys);
+                log.warn("{}: recommended index {}", collectionName, index.getIndexKeys().toJson());
+                missing.add(index);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Logs a finding and records the keys as recommended, if no existing index starts with the given keys
+     */
+    private void check(List<IndexInfo> indexes, List<List<DataTablesField>> recommended, String stage,
+            String usage, DataTablesField... keys) {
+        final List<DataTablesField> keyList = new ArrayList<>(keys.length);
+        Collections.addAll(keyList, keys);
+        for (final IndexInfo index : indexes) {
+            if (isUsable(index, keyList)) {
+                return;
+            }
+        }
+        log.warn("{}: {} is a {}, no index starts with {}", collectionName, usage, stage, toNames(keyList));
+        if (!recommended.contains(keyList)) {
+            recommended.add(keyList);
+        }
+    }
+
+    /**
+     * @return whether the index starts with the given keys (in the same order), with the collation of the query
+     */
+    private boolean isUsable(IndexInfo index, List<DataTablesField> keys) {
+        if (index.getPartialFilterExpression() != null) {
+            // only usable by queries implying the filter expression
+            return false;
+        }
+        final List<IndexField> indexFields = index.getIndexFields();
+        if (indexFields.size() < keys.size()) {
+            return false;
+        }
+        // a case insensitive search sets the collation of the whole query
+        boolean collated = false;
+        for (final DataTablesField key : keys) {
+            collated = collated || isCaseInsensitive(key);
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            final IndexField indexField = indexFields.get(i);
+            final DataTablesField key = keys.get(i);
+            if (indexField.isText() || indexField.isGeo() || indexField.isHashed()
+                    || !indexField.getKey().equals(key.getFieldName())) {
+                return false;
+            }
+            // strings are only compared with the index if it has the collation of the query, other values always
+            if (key.getColumnType().supports(SearchMode.CASE_INSENSITIVE)
+                    && !hasCollation(index, collated ? searchCollation : null)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param index
+     * @param collation <code>null</code> for none
+     * @return whether the index has the given collation. The collation of an index lists all its options, so only
+     *         the options of the given one are compared.
+     */
+    private static boolean hasCollation(IndexInfo index, Collation collation) {
+        final Optional<Document> indexCollation = index.getCollation();
+        if (collation == null) {
+            // the "simple" locale is the binary comparison, same as none
+            return !indexCollation.isPresent() || SIMPLE_LOCALE.equals(indexCollation.get().get(LOCALE));
+        }
+        if (!indexCollation.isPresent()) {
+            return false;
+        }
+        for (final Map.Entry<String, Object> option : collation.toDocument().entrySet()) {
+            if (!Objects.equals(option.getValue(), indexCollation.get().get(option.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPrefixOfAnother(List<DataTablesField> keys, List<List<DataTablesField>> all) {
+        for (final List<DataTablesField> other : all) {
+            if (other.size() > keys.size() && other.subList(0, keys.size()).equals(keys)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Index toIndex(List<DataTablesField> keys) {
+        final Index index = new Index();
+        boolean collated = false;
+        for (final DataTablesField key : keys) {
+            index.on(key.getFieldName(), Direction.ASC);
+            collated = collated || isCaseInsensitive(key);
+        }
+        if (collated) {
+            index.collation(searchCollation);
+        }
+        return index;
+    }
+
+    private static boolean isCaseInsensitive(DataTablesField field) {
+        return field.getColumn() != null && field.getColumn().searchable()
+                && getSearchMode(field) == SearchMode.CASE_INSENSITIVE;
+    }
+
+    /**
+     * @return the declared search mode of the field, if supported by its type (values which are not strings are
+     *         matched exactly)
+     */
+    private static SearchMode getSearchMode(DataTablesField field) {
+        return field.getColumnType().getSearchMode(field.getColumn().searchMode());
+    }
+
+    private static List<String> toNames(List<DataTablesField> keys) {
+        final List<String> names = new ArrayList<>(keys.size());
+        for (final DataTablesField key : keys) {
+            names.add(key.getFieldName());
+        }
+        return names;
+    }
+}
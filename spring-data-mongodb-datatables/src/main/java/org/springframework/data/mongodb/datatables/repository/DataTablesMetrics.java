@@ -0,0 +1,183 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.function.Supplier;
+
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+
+/**
+ * Records the duration of the phases of the draws of a repository.
+ * <p>
+ * {@link MicrometerDataTablesMetrics} is used when Micrometer is on the classpath and a <code>MeterRegistry</code>
+ * bean is declared, unless {@link DataTablesOptions#getMetrics()} is set.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+public interface DataTablesMetrics {
+
+    /**
+     * Records nothing
+     */
+    DataTablesMetrics NOOP = (collectionName, path, input) -> Draw.NOOP;
+
+    /**
+     * How the draw queries the collection
+     */
+    enum Path {
+        /**
+         * <code>find</code> and <code>count</code> with {@link org.springframework.data.mongodb.core.query.Criteria}
+         */
+        CRITERIA,
+
+        /**
+         * aggregations, with or without <code>$facet</code>
+         */
+        AGGREGATION,
+
+        /**
+         * <code>find</code> of raw documents, see {@link DataTablesRepository#findAllRaw(Class, DataTablesInput)}
+         */
+        RAW
+    }
+
+    /**
+     * Where the output of a draw comes from
+     */
+    enum Source {
+        /**
+         * the queries of the draw
+         */
+        QUERY,
+
+        /**
+         * the cache of the outputs, see {@link DataTablesOptions#getResultCacheTtl()}
+         */
+        CACHE,
+
+        /**
+         * a page prefetched by the previous draw, see {@link DataTablesOptions#getPrefetchTtl()}
+         */
+        PREFETCH,
+
+        /**
+         * the identical draw in flight, see {@link DataTablesOptions#isCoalescing()}
+         */
+        COALESCED
+    }
+
+    /**
+     * Phases of a draw. On the {@link Path#CRITERIA} and {@link Path#AGGREGATION} paths, the documents are mapped
+     * by {@link org.springframework.data.mongodb.core.MongoOperations} while they are read, so {@link #FETCH}
+     * includes the mapping, except for <code>$facet</code> aggregations.
+     */
+    enum Phase {
+        /**
+         * compiling (or getting the cached) query plan, binding the values and building the query
+         */
+        PLAN,
+
+        /**
+         * counting <code>recordsTotal</code> (possibly cached)
+         */
+        COUNT_TOTAL,
+
+        /**
+         * counting <code>recordsFiltered</code>
+         */
+        COUNT_FILTERED,
+
+        /**
+         * fetching the page
+         */
+        FETCH,
+
+        /**
+         * mapping the fetched documents, when not part of {@link #FETCH}
+         */
+        MAP
+    }
+
+    /**
+     * Starts recording a draw
+     *
+     * @param collectionName
+     * @param path
+     * @param input
+     * @return the recorder of the draw, to be ended with {@link Draw#end(DataTablesOutput)}
+     */
+    Draw start(String collectionName, Path path, DataTablesInput input);
+
+    /**
+     * Starts recording a draw from the given source. The draws which do not query the collection have no phases,
+     * and are not recorded unless this method is overridden.
+     *
+     * @param collectionName
+     * @param path
+     * @param source
+     * @param input
+     * @return the recorder of the draw, to be ended with {@link Draw#end(DataTablesOutput)}
+     */
+    default Draw start(String collectionName, Path path, Source source, DataTablesInput input) {
+        return source == Source.QUERY ? start(collectionName, path, input) : Draw.NOOP;
+    }
+
+    /**
+     * Recorder of a single draw
+     */
+    interface Draw {
+
+        /**
+         * Records nothing
+         */
+        Draw NOOP = new Draw() {
+
+            @Override
+            public void phase(Phase phase) {
+            }
+
+            @Override
+            public <R> Supplier<R> timed(Phase phase, Supplier<R> supplier) {
+                return supplier;
+            }
+
+            @Override
+            public void error(Exception e) {
+            }
+
+            @Override
+            public void end(DataTablesOutput<?> output) {
+            }
+        };
+
+        /**
+         * Ends the current phase (if any) and starts the given one
+         *
+         * @param phase <code>null</code> to only end the current phase
+         */
+        void phase(Phase phase);
+
+        /**
+         * Wraps the given supplier to record its duration as the given phase, for phases running in parallel
+         *
+         * @param phase
+         * @param supplier
+         * @return the wrapped supplier
+         */
+        <R> Supplier<R> timed(Phase phase, Supplier<R> supplier);
+
+        /**
+         * Records the failure of the draw
+         *
+         * @param e
+         */
+        void error(Exception e);
+
+        /**
+         * Ends the current phase (if any) and the draw
+         *
+         * @param output the output of the draw
+         */
+        void end(DataTablesOutput<?> output);
+    }
+}
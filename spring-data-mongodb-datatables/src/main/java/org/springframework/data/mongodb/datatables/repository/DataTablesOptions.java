@@ -0,0 +1,212 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Collation.ComparisonLevel;
+import org.springframework.data.mongodb.datatables.mapping.SearchMode;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Data;
+
+/**
+ * Options of {@link DataTablesRepositoryImpl}.
+ * <p>
+ * Declare a bean of this type to customize all repositories created by {@link DataTablesRepositoryFactoryBean}.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+@Data
+public class DataTablesOptions {
+
+    /**
+     * Maximum count of compiled query plans cached per repository, <code>0</code> disables the cache
+     */
+    private int queryPlanCacheSize = 256;
+
+    /**
+     * How long the fields of the text index of the collection, which decide whether the global search is a
+     * <code>$text</code> search, are used before they are read again; the query plans are compiled again if they
+     * changed. <code>null</code> means they are read once.
+     */
+    private Duration textIndexRefreshInterval = Duration.ofMinutes(5);
+
+    /**
+     * Whether the total count, the filtered count and the page fetch of the criteria based <code>findAll</code> are
+     * run in parallel on {@link #executor}
+     */
+    private boolean concurrentExecution = false;
+
+    /**
+     * Server-side time limit (<code>maxTimeMS</code>) of each of the parallel queries of
+     * {@link #concurrentExecution}, so that a draw does not hold three connections and threads for longer;
+     * <code>null</code> for no limit
+     */
+    private Duration concurrentQueryMaxTime = Duration.ofSeconds(30);
+
+    /**
+     * {@link Executor} of the parallel and background queries (parallel counts, batches, refresh of the total
+     * counts, prefetches). As these are blocking calls, it should be a pool sized for the expected concurrency;
+     * <code>null</code> means a pool of daemon threads shared by all repositories, bounded to twice the count of
+     * processors (at least 4 threads) and 256 queued tasks. The parallel queries of a draw which the executor rejects
+     * run on the thread of the draw, background ones are skipped.
+     */
+    private Executor executor;
+
+    /**
+     * Whether identical concurrent draws are coalesced: while a draw is running, the draws of the same input (up to
+     * its <code>draw</code> counter) with the same criteria or operations wait for it and get a copy of its output,
+     * instead of querying the collection again. The load then grows with the count of distinct draws rather than
+     * with the count of viewers, e.g. of an auto-refreshed dashboard. The rows of the copies are shared. Draws
+     * starting after a write method of the repository never wait for a draw started before.
+     */
+    private boolean coalescing = false;
+
+    /**
+     * Whether the aggregation based <code>findAll</code> computes the total count, the filtered count and the page
+     * with a single <code>$facet</code> pipeline. Requests with <code>length = -1</code> still use separate
+     * queries, as the whole page must fit into one result document.
+     */
+    private boolean facetAggregation = false;
+
+    /**
+     * How long a cached <code>recordsTotal</code> is considered fresh. Expired values are still returned while they
+     * are reloaded in the background on {@link #executor}. <code>null</code> disables the cache. The cache is
+     * invalidated by the write methods of the repository (<code>save</code>, <code>insert</code>,
+     * <code>delete*</code>), but not by writes through other means.
+     */
+    private Duration totalCountCacheTtl;
+
+    /**
+     * Maximum count of cached <code>recordsTotal</code> per repository (one for each distinct pre-filter)
+     */
+    private int totalCountCacheSize = 1024;
+
+    /**
+     * How long the output of a draw is cached, <code>null</code> disables the cache. Outputs are keyed by the
+     * canonical form of the input (up to its <code>draw</code> counter, the order of its columns and the columns
+     * which are neither searched nor filtered) and the criteria or operations, so that paging back to a page
+     * recently seen is served from memory. The cache is invalidated by the write methods of the repository
+     * (<code>save</code>, <code>insert</code>, <code>delete*</code>), but not by writes through other means.
+     * Outputs with an error are not cached. The rows of the cached outputs are shared.
+     */
+    private Duration resultCacheTtl;
+
+    /**
+     * Maximum count of cached outputs per repository, the least recently used ones being evicted first
+     */
+    private int resultCacheSize = 1024;
+
+    /**
+     * Maximum count of rows of all cached outputs per repository, which bounds the memory of the cache
+     */
+    private long resultCacheMaxRows = 100_000L;
+
+    /**
+     * How long the next page of a draw, fetched in the background on {@link #executor} with the counts of the draw,
+     * waits for the "next" click, <code>null</code> disables the prefetch. A prefetched page serves a single draw.
+     * Writes through the repository discard the prefetched pages.
+     */
+    private Duration prefetchTtl;
+
+    /**
+     * Maximum count of prefetches in flight per repository, further ones being skipped, e.g. under load
+     */
+    private int prefetchConcurrency = 2;
+
+    /**
+     * Maximum count of prefetched pages waiting for their draw per repository, the least recently prefetched ones
+     * being evicted first
+     */
+    private int prefetchCacheSize = 256;
+
+    /**
+     * Whether <code>recordsTotal</code> without pre-filter uses <code>estimatedDocumentCount</code> (collection
+     * metadata) instead of an exact count
+     */
+    private boolean estimatedTotalCount = false;
+
+    /**
+     * Ceiling of <code>recordsFiltered</code>, <code>0</code> for no limit. Counting stops after
+     * <code>maxFilteredCount + 1</code> documents, so the cost of the count is bounded however broad the filter is;
+     * if there are more, <code>recordsFiltered</code> is <code>maxFilteredCount</code> and
+     * {@link org.springframework.data.mongodb.datatables.mapping.DataTablesOutput#isRecordsFilteredCapped()} is set.
+     */
+    private long maxFilteredCount = 0L;
+
+    /**
+     * Whether keyset (seek) pagination is enabled. The output then contains cursors of the previous and the next
+     * page; if such a cursor is sent back with the matching <code>start</code>, the page is fetched with a range
+     * predicate on the sort keys instead of <code>skip</code>. <code>_id</code> is appended to the sort as
+     * tie-breaker.
+     */
+    private boolean keysetPagination = false;
+
+    /**
+     * Whether only the fields of the columns of the input (plus <code>_id</code> and the sort keys) are fetched,
+     * instead of whole documents. Properties of the entity which are not part of the columns are then left empty.
+     * For aggregations, the <code>$project</code> stage is added after <code>$limit</code>, unless there are
+     * additional operations after the filter of the input.
+     */
+    private boolean fieldProjection = false;
+
+    /**
+     * How non regex column searches are matched if the column does not specify a
+     * {@link org.springframework.data.mongodb.datatables.mapping.Column#getSearchMode() searchMode}.
+     * {@link SearchMode#CONTAINS} (the default) always scans, {@link SearchMode#PREFIX} can use an index.
+     */
+    private SearchMode defaultSearchMode = SearchMode.CONTAINS;
+
+    /**
+     * Collation of {@link SearchMode#CASE_INSENSITIVE} searches, which should be the collation of the index of
+     * the searched fields
+     */
+    private Collation searchCollation = Collation.of(Locale.ENGLISH).strength(ComparisonLevel.secondary());
+
+    /**
+     * Zone of the values of <code>date</code> columns without offset (e.g. <code>2020-01-15</code>),
+     * <code>null</code> means the default zone of the JVM
+     */
+    private ZoneId dateZone;
+
+    /**
+     * What {@link DataTablesIndexAdvisor} does when a repository is created: compare the properties annotated with
+     * {@link org.springframework.data.mongodb.datatables.mapping.DataTablesColumn} to the indexes of the collection
+     * and log the missing ones ({@link DataTablesIndexAdvisor.Mode#REPORT}), and create them
+     * ({@link DataTablesIndexAdvisor.Mode#CREATE})
+     */
+    private DataTablesIndexAdvisor.Mode indexAdvisor = DataTablesIndexAdvisor.Mode.OFF;
+
+    /**
+     * Count of documents fetched per round-trip by the streaming export (and at most by
+     * <code>findAllStreaming</code>), which bounds its memory
+     */
+    private int exportBatchSize = 1000;
+
+    /**
+     * Whether the text cells of the CSV export which a spreadsheet would evaluate as a formula (starting with
+     * <code>=</code>, <code>+</code>, <code>-</code>, <code>@</code>, a tab or a carriage return) are prefixed with
+     * <code>'</code>, so that opening an export does not run formulas stored by users. Disable it only if the
+     * export is not meant to be opened in a spreadsheet.
+     */
+    private boolean csvFormulaEscaping = true;
+
+    /**
+     * Recorder of the duration of the phases of the draws. <code>null</code> means {@link MicrometerDataTablesMetrics}
+     * if Micrometer is on the classpath and a <code>MeterRegistry</code> bean is declared, none otherwise.
+     */
+    private DataTablesMetrics metrics;
+
+    /**
+     * {@link ObjectMapper} used to serialize the rows of the streaming export and of <code>findAllRaw</code>,
+     * <code>null</code> means the <code>ObjectMapper</code> bean of the application if there is a single one, a
+     * default one with all jackson modules on the classpath registered otherwise
+     */
+    private ObjectMapper objectMapper;
+
+}
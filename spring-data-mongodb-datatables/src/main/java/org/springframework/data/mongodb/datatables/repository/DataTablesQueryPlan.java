@@ -0,0 +1,777 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.datatables.mapping.Column;
+import org.springframework.data.mongodb.datatables.mapping.ColumnType;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.Filter;
+import org.springframework.data.mongodb.datatables.mapping.Search;
+import org.springframework.data.mongodb.datatables.mapping.SearchMode;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A compiled query plan for all {@link DataTablesInput}s of the same shape.
+ * <p>
+ * Two inputs have the same shape if they have the same columns (with the same types), the same set of
+ * searches and filter operators, and the same order; only the search / filter values, <code>start</code>,
+ * <code>length</code> and <code>draw</code> may differ. All work that depends on the shape only (resolving
+ * field names, parsing column types, deciding which operators apply, building the sort) is done once in
+ * {@link #compile(DataTablesEntityMetamodel, DataTablesInput)}, so that for each draw
+ * {@link #bind(DataTablesInput)} only converts the values and puts them into the filter document.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+@Slf4j
+public class DataTablesQueryPlan<T> {
+
+    private static final String COMMA = ",";
+
+    private static final char SEPARATOR = '\u0000';
+
+    private static final String ID_FIELD = "_id";
+
+    /**
+     * key of a text index covering all string fields
+     */
+    static final String TEXT_INDEX_WILDCARD = "$**";
+
+    /**
+     * property of the sort by text score
+     */
+    static final String TEXT_SCORE = org.springframework.data.mongodb.datatables.mapping.Order.TEXT_SCORE;
+
+    /**
+     * Operators of {@link Filter}, in order of precedence
+     */
+    enum Operator {
+        EQ("$eq", true, Filter::getEq), NE("$ne", false, Filter::getNe), IN("$in", false, Filter::getIn),
+        NIN("$nin", false, Filter::getNin), REGEX("$regex", true, Filter::getRegex),
+        IS_NULL("$eq", true, Filter::getIsNull), IS_EMPTY("$eq", true, Filter::getIsEmpty),
+        EXISTS("$exists", false, Filter::getExists), GT("$gt", false, Filter::getGt),
+        GTE("$gte", false, Filter::getGte), LT("$lt", false, Filter::getLt), LTE("$lte", false, Filter::getLte);
+
+        private final String operatorName;
+        private final boolean equality;
+        private final Function<Filter, Object> getter;
+
+        Operator(String operatorName, boolean equality, Function<Filter, Object> getter) {
+            this.operatorName = operatorName;
+            this.equality = equality;
+            this.getter = getter;
+        }
+
+        Object getValue(Filter filter) {
+            return getter.apply(filter);
+        }
+
+        boolean isSet(Filter filter) {
+            final Object value = getValue(filter);
+            if (value instanceof String) {
+                return StringUtils.hasLength((String) value);
+            } else if (this == IS_NULL || this == IS_EMPTY) {
+                return Boolean.TRUE.equals(value);
+            }
+            return value != null;
+        }
+
+        boolean isComparison() {
+            return this == GT || this == GTE || this == LT || this == LTE;
+        }
+    }
+
+    private final DataTablesEntityMetamodel<T> metamodel;
+
+    private final List<ColumnBinder> binders;
+
+    private final GlobalSearchBinder globalSearch;
+
+    private final Sort sort;
+
+    private final Document projection;
+
+    private final Collation collation;
+
+    private DataTablesQueryPlan(DataTablesEntityMetamodel<T> metamodel, List<ColumnBinder> binders,
+            GlobalSearchBinder globalSearch, Sort sort, Document projection, Collation collation) {
+        this.metamodel = metamodel;
+        this.binders = binders;
+        this.globalSearch = globalSearch;
+        this.sort = sort;
+        this.projection = projection;
+        this.collation = collation;
+    }
+
+    /**
+     * Computes the shape of the given input, which is used as the key of compiled plans.
+     *
+     * @param input
+     * @return
+     */
+    public static String shapeOf(DataTablesInput input) {
+        final StringBuilder sb = new StringBuilder(64);
+        for (final Column column : input.getColumns()) {
+            sb.append(column.getData()).append(SEPARATOR).append(column.getType()).append(SEPARATOR)
+                    .append(column.isOrderable() ? 'o' : '-').append(column.isSearchable() ? 's' : '-');
+            if (column.hasValidSearch()) {
+                sb.append(column.getSearch().isRegex() ? 'r' : 's');
+                if (column.getSearchMode() != null) {
+                    sb.append(column.getSearchMode().ordinal());
+                }
+            } else if (column.getFilter() != null) {
+                sb.append('f');
+                for (final Operator operator : Operator.values()) {
+                    sb.append(operator.isSet(column.getFilter()) ? '1' : '0');
+                }
+            }
+            sb.append(SEPARATOR);
+        }
+        sb.append(SEPARATOR);
+        if (hasGlobalSearch(input)) {
+            sb.append(input.getSearch().isRegex() ? 'r' : 's');
+        }
+        sb.append(SEPARATOR);
+        for (final org.springframework.data.mongodb.datatables.mapping.Order order : input.getOrder()) {
+            sb.append(order.getColumn()).append(SEPARATOR).append(order.getData()).append(SEPARATOR)
+                    .append(order.getDir()).append(SEPARATOR);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Computes the canonical key of the given input, which identifies the result of a draw up to its
+     * <code>draw</code> counter. Equivalent inputs have the same key: the columns are sorted, the orders refer to
+     * them by <code>data</code>, and the columns which are neither searched nor filtered are dropped (unless all
+     * columns are fetched), as well as the orders which are ignored.
+     *
+     * @param input
+     * @param allColumnsFetched whether the fields of all columns are fetched, see
+     *            {@link DataTablesOptions#isFieldProjection()}
+     * @return
+     */
+    public static String keyOf(DataTablesInput input, boolean allColumnsFetched) {
+        return keyOf(input, allColumnsFetched, true);
+    }
+
+    /**
+     * Same as {@link #keyOf(DataTablesInput, boolean)}
+     *
+     * @param input
+     * @param allColumnsFetched
+     * @param withCursor whether the cursor is part of the key, which only changes how the page is fetched
+     * @return
+     */
+    static String keyOf(DataTablesInput input, boolean allColumnsFetched, boolean withCursor) {
+        final boolean globalSearch = hasGlobalSearch(input);
+        final List<String> columns = new ArrayList<>();
+        final Set<String> fetched = new TreeSet<>();
+        for (final Column column : input.getColumns()) {
+            if (allColumnsFetched && StringUtils.hasLength(column.getData())) {
+                fetched.add(column.getData());
+            }
+            final String key = keyOf(column, globalSearch);
+            if (key != null) {
+                columns.add(key);
+            }
+        }
+        Collections.sort(columns);
+
+        final StringBuilder sb = new StringBuilder(128);
+        sb.append(input.getStart()).append(SEPARATOR).append(input.getLength()).append(SEPARATOR)
+                .append(withCursor ? input.getCursor() : null).append(SEPARATOR);
+        if (globalSearch) {
+            sb.append(input.getSearch().isRegex() ? 'r' : 's').append(input.getSearch().getValue());
+        }
+        sb.append(SEPARATOR);
+        for (final String column : columns) {
+            sb.append(column).append(SEPARATOR);
+        }
+        sb.append(SEPARATOR);
+        for (final org.springframework.data.mongodb.datatables.mapping.Order order : input.getOrder()) {
+            // same resolution as getSort(DataTablesEntityMetamodel, DataTablesInput, boolean)
+            Column column = null;
+            if (TEXT_SCORE.equals(order.getData())) {
+                sb.append(TEXT_SCORE).append(SEPARATOR);
+                continue;
+            } else if (StringUtils.hasLength(order.getData())) {
+                column = input.getColumn(order.getData());
+            } else if (order.getColumn() != null && input.getColumns().size() > order.getColumn()) {
+                column = input.getColumns().get(order.getColumn());
+            }
+            if (column == null ? StringUtils.hasLength(order.getData()) : column.isOrderable()) {
+                sb.append(column == null ? order.getData() : column.getData()).append(' ')
+                        .append(order.getDir() == null ? null : order.getDir().toLowerCase(Locale.ROOT))
+                        .append(SEPARATOR);
+            }
+        }
+        sb.append(SEPARATOR);
+        for (final String data : fetched) {
+            sb.append(data).append(SEPARATOR);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the part of the key of a column which affects the filter, <code>null</code> if it does not
+     */
+    private static String keyOf(Column column, boolean globalSearch) {
+        final StringBuilder sb = new StringBuilder();
+        if (column.hasValidSearch()) {
+            sb.append(column.getSearch().isRegex() ? 'r' : 's').append(column.getSearchMode())
+                    .append(column.getSearch().getValue());
+        } else if (column.getFilter() != null) {
+            for (final Operator operator : Operator.values()) {
+                if (operator.isSet(column.getFilter())) {
+                    sb.append(operator.name()).append('=').append(operator.getValue(column.getFilter()))
+                            .append(SEPARATOR);
+                }
+            }
+        }
+        final boolean globallySearched = globalSearch && column.isSearchable();
+        if (sb.length() == 0 && !globallySearched) {
+            return null;
+        }
+        return column.getData() + SEPARATOR
+                + (column.getType() == null ? null : column.getType().toLowerCase(Locale.ROOT)) + SEPARATOR
+                + (globallySearched ? 'g' : '-') + sb;
+    }
+
+    private static boolean hasGlobalSearch(DataTablesInput input) {
+        return input.getSearch() != null && StringUtils.hasLength(input.getSearch().getValue());
+    }
+
+    /**
+     * Compiles a plan for all inputs of the same shape as the given one, without any text index
+     *
+     * @param metamodel
+     * @param input
+     * @return
+     */
+    public static <T> DataTablesQueryPlan<T> compile(DataTablesEntityMetamodel<T> metamodel, DataTablesInput input) {
+        return compile(metamodel, input, Collections.emptySet());
+    }
+
+    /**
+     * Compiles a plan for all inputs of the same shape as the given one
+     *
+     * @param metamodel
+     * @param input
+     * @param textIndexedFields the (stored) fields covered by the text index of the collection, may contain
+     *            {@link #TEXT_INDEX_WILDCARD}, empty if there is none
+     * @return
+     */
+    public static <T> DataTablesQueryPlan<T> compile(DataTablesEntityMetamodel<T> metamodel, DataTablesInput input,
+            Set<String> textIndexedFields) {
+        return compile(metamodel, input, textIndexedFields, new DataTablesOptions());
+    }
+
+    /**
+     * Compiles a plan for all inputs of the same shape as the given one
+     *
+     * @param metamodel
+     * @param input
+     * @param textIndexedFields the (stored) fields covered by the text index of the collection, may contain
+     *            {@link #TEXT_INDEX_WILDCARD}, empty if there is none
+     * @param options provides the default search mode and the collation of case insensitive searches
+     * @return
+     */
+    public static <T> DataTablesQueryPlan<T> compile(DataTablesEntityMetamodel<T> metamodel, DataTablesInput input,
+            Set<String> textIndexedFields, DataTablesOptions options) {
+        final List<ColumnBinder> binders = new ArrayList<>();
+        final List<Column> columns = input.getColumns();
+        boolean collated = false;
+
+        for (int i = 0; i < columns.size(); i++) {
+            final Column column = columns.get(i);
+            final ColumnType type = getType(metamodel, column, options);
+            if (column.hasValidSearch()) {
+                // search != null && issearchable == true && search.value.length > 0
+                final SearchMode searchMode = type.getSearchMode(getSearchMode(metamodel, column, options));
+                final boolean regex = column.getSearch().isRegex();
+                collated = collated || (!regex && searchMode == SearchMode.CASE_INSENSITIVE);
+                binders.add(new SearchBinder(i, getPath(metamodel, column.getData()), type, regex, searchMode));
+            } else if (column.getFilter() != null) {
+                // handle column.filter
+                final Filter filter = column.getFilter();
+                final List<Operator> operators = new ArrayList<>();
+                if (Operator.EQ.isSet(filter)) {
+                    // $eq takes first place
+                    operators.add(Operator.EQ);
+                } else if (Operator.NE.isSet(filter)) {
+                    operators.add(Operator.NE);
+                } else {
+                    for (final Operator operator : Operator.values()) {
+                        if (operator == Operator.EQ || operator == Operator.NE || !operator.isSet(filter)) {
+                            continue;
+                        }
+                        // $gt, $lt, etc. only works if type is comparable
+                        if (operator.isComparison() && !type.isComparable()) {
+                            continue;
+                        }
+                        operators.add(operator);
+                    }
+                }
+                if (!operators.isEmpty()) {
+                    binders.add(new FilterBinder(i, getPath(metamodel, column.getData()), type, operators));
+                }
+            }
+        }
+
+        // check whether a global filter value exists
+        final GlobalSearchBinder globalSearch = hasGlobalSearch(input)
+                ? GlobalSearchBinder.compile(metamodel, input, textIndexedFields, options)
+                : null;
+
+        final Sort sort = getSort(metamodel, input, globalSearch != null && globalSearch.text);
+        final DataTablesQueryPlan<T> plan = new DataTablesQueryPlan<>(metamodel,
+                Collections.unmodifiableList(binders), globalSearch, sort, getProjection(metamodel, input, sort),
+                collated ? options.getSearchCollation() : null);
+        log.debug("compiled query plan for {}: {} binder(s), {} global search, sort {}",
+                metamodel.getJavaType().getSimpleName(), binders.size(),
+                globalSearch == null ? "no" : globalSearch.text ? "$text" : "$or", plan.sort);
+        return plan;
+    }
+
+    /**
+     * @return the search mode of the column, else of the <code>@DataTablesColumn</code> of the property, else the
+     *         default of the options
+     */
+    private static SearchMode getSearchMode(DataTablesEntityMetamodel<?> metamodel, Column column,
+            DataTablesOptions options) {
+        if (column.getSearchMode() != null) {
+            return column.getSearchMode();
+        }
+        final DataTablesField field = metamodel == null ? null : metamodel.getField(column.getData());
+        if (field != null && field.getColumn() != null && field.getColumn().searchable()) {
+            return field.getColumn().searchMode();
+        }
+        return options.getDefaultSearchMode();
+    }
+
+    /**
+     * @return the type of the column, else the type inferred from the property, converting dates in the zone of the
+     *         options
+     */
+    private static ColumnType getType(DataTablesEntityMetamodel<?> metamodel, Column column,
+            DataTablesOptions options) {
+        ColumnType type = ColumnType.STRING;
+        if (StringUtils.hasLength(column.getType())) {
+            type = ColumnType.parse(column.getType());
+        } else if (metamodel != null) {
+            final DataTablesField field = metamodel.getField(column.getData());
+            if (field != null) {
+                type = field.getColumnType();
+            }
+        }
+        return type.withZone(options.getDateZone());
+    }
+
+    /**
+     * Determine the property path of a column. Names not known by the entity are kept as they are, as they may
+     * refer to fields introduced by aggregation stages.
+     *
+     * @param metamodel
+     * @param name
+     * @return
+     */
+    private static String getPath(DataTablesEntityMetamodel<?> metamodel, String name) {
+        final String path = metamodel == null ? null : metamodel.getPath(name);
+        return path == null ? name : path;
+    }
+
+    /**
+     * Creates an inclusion projection of the stored fields of all columns, the sort keys and <code>_id</code>.
+     * Names not known by the entity are kept as they are. Nested paths of an included field are left out, as
+     * MongoDB rejects such path collisions.
+     *
+     * @param metamodel
+     * @param input
+     * @param sort may be <code>null</code>
+     * @return
+     */
+    private static Document getProjection(DataTablesEntityMetamodel<?> metamodel, DataTablesInput input,
+            Sort sort) {
+        final Set<String> names = new TreeSet<>();
+        names.add(ID_FIELD);
+        for (final Column column : input.getColumns()) {
+            if (StringUtils.hasLength(column.getData())) {
+                names.add(getFieldName(metamodel, column.getData()));
+            }
+        }
+        if (sort != null) {
+            for (final Order order : sort) {
+                if (!TEXT_SCORE.equals(order.getProperty())) {
+                    names.add(getFieldName(metamodel, order.getProperty()));
+                }
+            }
+        }
+
+        final Document projection = new Document();
+        for (final String name : names) {
+            boolean nested = false;
+            for (final String included : projection.keySet()) {
+                if (name.startsWith(included + ".")) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (!nested) {
+                projection.put(name, 1);
+            }
+        }
+        return projection;
+    }
+
+    private static String getFieldName(DataTablesEntityMetamodel<?> metamodel, String name) {
+        final DataTablesField field = metamodel == null ? null : metamodel.getField(name);
+        return field == null ? name : field.getFieldName();
+    }
+
+    /**
+     * Creates the sort of the given input, without text search
+     *
+     * @param metamodel used to resolve the column names, may be <code>null</code>
+     * @param input
+     * @return the sort, or <code>null</code> if not sorted
+     */
+    static Sort getSort(DataTablesEntityMetamodel<?> metamodel, DataTablesInput input) {
+        return getSort(metamodel, input, false);
+    }
+
+    /**
+     * Creates the sort of the given input
+     *
+     * @param metamodel used to resolve the column names, may be <code>null</code>
+     * @param input
+     * @param textSearch whether the global search is a <code>$text</code> search, otherwise ordering by
+     *            {@link #TEXT_SCORE} is ignored
+     * @return the sort, or <code>null</code> if not sorted
+     */
+    static Sort getSort(DataTablesEntityMetamodel<?> metamodel, DataTablesInput input, boolean textSearch) {
+        final List<Order> orders = new ArrayList<Order>();
+        for (org.springframework.data.mongodb.datatables.mapping.Order order : input.getOrder()) {
+            if (TEXT_SCORE.equals(order.getData())) {
+                if (textSearch) {
+                    // the most relevant first, whatever the direction
+                    orders.add(Order.desc(TEXT_SCORE));
+                } else {
+                    log.debug("Warning: no text search, order by text score is ignored");
+                }
+                continue;
+            }
+            Column column = null;
+            if (StringUtils.hasLength(order.getData())) {
+                column = input.getColumn(order.getData());
+            } else if (order.getColumn() != null && input.getColumns() != null
+                    && input.getColumns().size() > order.getColumn()) {
+                column = input.getColumns().get(order.getColumn());
+            }
+
+            if (column == null) {
+                if (StringUtils.hasLength(order.getData())) {
+                    // in case if input has no columns defined
+                    Direction sortDirection = Direction.fromString(order.getDir());
+                    orders.add(new Order(sortDirection, getPath(metamodel, order.getData())));
+                } else {
+                    log.debug("Warning: unable to find column by specified order {}", order);
+                }
+            } else if (!column.isOrderable()) {
+                log.debug("Warning: column {} is not orderable, order is ignored", column);
+            } else {
+                Direction sortDirection = Direction.fromString(order.getDir());
+                orders.add(new Order(sortDirection, getPath(metamodel, column.getData())));
+            }
+        }
+        return orders.isEmpty() ? null : Sort.by(orders);
+    }
+
+    /**
+     * Binds the values of the given input (which must have the same shape as the compiled one) into a filter
+     *
+     * @param input
+     * @return the (unmapped) filter document, never <code>null</code>
+     */
+    public Document bind(DataTablesInput input) {
+        return DataTablesUtils.and(Arrays.asList(bindTextSearch(input), bindFilters(input)));
+    }
+
+    /**
+     * Binds the global search of the given input, if it is a <code>$text</code> search. As <code>$text</code> is
+     * only allowed in the first stage of an aggregation, it is kept apart from {@link #bindFilters(DataTablesInput)}.
+     *
+     * @param input
+     * @return the <code>$text</code> filter, or <code>null</code> if there is no text search
+     */
+    public Document bindTextSearch(DataTablesInput input) {
+        return hasTextSearch() ? globalSearch.bind(input.getSearch()) : null;
+    }
+
+    /**
+     * Binds the values of the given input, except a <code>$text</code> search
+     *
+     * @param input
+     * @return the (unmapped) filter document, never <code>null</code>
+     */
+    public Document bindFilters(DataTablesInput input) {
+        if (binders.isEmpty() && (globalSearch == null || globalSearch.text)) {
+            return new Document();
+        }
+        final List<Document> parts = new ArrayList<>(binders.size() + 1);
+        for (final ColumnBinder binder : binders) {
+            parts.add(binder.bind(input.getColumns().get(binder.index)));
+        }
+        if (globalSearch != null && !globalSearch.text) {
+            parts.add(globalSearch.bind(input.getSearch()));
+        }
+        return DataTablesUtils.and(parts);
+    }
+
+    /**
+     * @return the collation required by {@link SearchMode#CASE_INSENSITIVE} searches, <code>null</code> if there are
+     *         none
+     */
+    public Collation getCollation() {
+        return collation;
+    }
+
+    /**
+     * @return whether the global search is done with <code>$text</code>
+     */
+    public boolean hasTextSearch() {
+        return globalSearch != null && globalSearch.text;
+    }
+
+    public DataTablesEntityMetamodel<T> getMetamodel() {
+        return metamodel;
+    }
+
+    /**
+     * @return the sort of the compiled input, or <code>null</code> if not sorted
+     */
+    public Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * @return a new inclusion projection of the (stored) fields needed to display the columns of the compiled
+     *         input
+     */
+    public Document getProjection() {
+        return new Document(projection);
+    }
+
+    /**
+     * "LIKE" search is converted to $regex, the value being taken literally
+     *
+     * @param filterValue
+     * @return
+     */
+    private static Pattern getLikeFilterPattern(String filterValue) {
+        return Pattern.compile(Pattern.quote(filterValue), Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Prefix search is converted to an anchored, case sensitive $regex, which can use an index range
+     *
+     * @param filterValue
+     * @return
+     */
+    private static Pattern getPrefixFilterPattern(String filterValue) {
+        return Pattern.compile("^" + Pattern.quote(filterValue));
+    }
+
+    private static List<Object> convertArray(ColumnType type, String value) {
+        final String[] parts = value.split(COMMA);
+        final List<Object> convertedParts = new ArrayList<>(parts.length);
+        for (int i = 0; i < parts.length; i++) {
+            convertedParts.add(type.tryConvert(parts[i]));
+        }
+        return convertedParts;
+    }
+
+    private abstract static class ColumnBinder {
+        final int index;
+        final String key;
+        final ColumnType type;
+
+        ColumnBinder(int index, String key, ColumnType type) {
+            this.index = index;
+            this.key = key;
+            this.type = type;
+        }
+
+        abstract Document bind(Column column);
+    }
+
+    private static final class SearchBinder extends ColumnBinder {
+        private final boolean regex;
+        private final SearchMode searchMode;
+
+        SearchBinder(int index, String key, ColumnType type, boolean regex, SearchMode searchMode) {
+            super(index, key, type);
+            this.regex = regex;
+            this.searchMode = searchMode;
+        }
+
+        @Override
+        Document bind(Column column) {
+            final String searchValue = column.getSearch().getValue();
+            if (regex) {
+                // is regex, so treat directly as regular expression
+                return new Document(key, Pattern.compile(searchValue));
+            }
+            switch (searchMode) {
+            case CONTAINS:
+                return new Document(key, getLikeFilterPattern(searchValue));
+            case PREFIX:
+                return new Document(key, getPrefixFilterPattern(searchValue));
+            default:
+                // exact or case insensitive (by collation), treat as $eq
+                return new Document(key, type.tryConvert(searchValue));
+            }
+        }
+    }
+
+    /**
+     * Binds the global search value, with <code>$text</code> if the text index covers all searchable columns, and
+     * with an <code>$or</code> over the searchable columns otherwise
+     */
+    private static final class GlobalSearchBinder {
+        private final boolean text;
+        private final String[] keys;
+        private final ColumnType[] types;
+
+        private GlobalSearchBinder(boolean text, List<String> keys, List<ColumnType> types) {
+            this.text = text;
+            this.keys = keys.toArray(new String[0]);
+            this.types = types.toArray(new ColumnType[0]);
+        }
+
+        static GlobalSearchBinder compile(DataTablesEntityMetamodel<?> metamodel, DataTablesInput input,
+                Set<String> textIndexedFields, DataTablesOptions options) {
+            final List<String> keys = new ArrayList<>();
+            final List<ColumnType> types = new ArrayList<>();
+            // $text cannot do regular expressions
+            boolean covered = !textIndexedFields.isEmpty() && !input.getSearch().isRegex();
+            for (final Column column : input.getColumns()) {
+                if (!column.isSearchable() || !StringUtils.hasLength(column.getData())) {
+                    continue;
+                }
+                keys.add(getPath(metamodel, column.getData()));
+                types.add(getType(metamodel, column, options));
+                covered = covered && (textIndexedFields.contains(TEXT_INDEX_WILDCARD)
+                        || textIndexedFields.contains(getFieldName(metamodel, column.getData())));
+            }
+            if (keys.isEmpty()) {
+                return null;
+            }
+            return new GlobalSearchBinder(covered, keys, types);
+        }
+
+        Document bind(Search search) {
+            if (text) {
+                return new Document("$text", new Document("$search", search.getValue()));
+            }
+            final List<Document> alternatives = new ArrayList<>(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                if (search.isRegex()) {
+                    alternatives.add(new Document(keys[i], Pattern.compile(search.getValue())));
+                    continue;
+                }
+                final Object parsedSearchValue = types[i].tryConvert(search.getValue());
+                if (types[i] == ColumnType.STRING) {
+                    // the value is taken literally
+                    alternatives.add(new Document(keys[i],
+                            Pattern.compile(Pattern.quote(search.getValue()), Pattern.CASE_INSENSITIVE)));
+                } else if (!(parsedSearchValue instanceof String)) {
+                    alternatives.add(new Document(keys[i], parsedSearchValue));
+                }
+            }
+            if (alternatives.isEmpty()) {
+                // e.g. a text searched in numeric columns only: nothing matches
+                return new Document(ID_FIELD, new Document("$in", Collections.emptyList()));
+            }
+            return new Document("$or", alternatives);
+        }
+    }
+
+    private static final class FilterBinder extends ColumnBinder {
+        private final Operator[] operators;
+
+        /**
+         * whether both <code>isNull</code> and <code>isEmpty</code> are set, which match either value, instead of
+         * both compiling to the same <code>$eq</code>
+         */
+        private final boolean nullOrEmpty;
+
+        FilterBinder(int index, String key, ColumnType type, List<Operator> operators) {
+            super(index, key, type);
+            this.nullOrEmpty = operators.contains(Operator.IS_NULL) && operators.contains(Operator.IS_EMPTY);
+            if (nullOrEmpty) {
+                operators = new ArrayList<>(operators);
+                operators.removeAll(Arrays.asList(Operator.IS_NULL, Operator.IS_EMPTY));
+            }
+            this.operators = operators.toArray(new Operator[0]);
+        }
+
+        @Override
+        Document bind(Column column) {
+            final Filter filter = column.getFilter();
+            if (!nullOrEmpty && operators.length == 1 && operators[0].equality) {
+                // a single equality: {key: value}
+                return new Document(key, getOperand(operators[0], filter));
+            }
+            final Document expression = new Document();
+            for (final Operator operator : operators) {
+                expression.put(operator.operatorName, getOperand(operator, filter));
+            }
+            if (!nullOrEmpty) {
+                return new Document(key, expression);
+            }
+            final Document nullOrEmptyExpression = new Document("$in", Arrays.asList(null, ""));
+            if (expression.containsKey("$in")) {
+                // $in of the filter and of null or empty cannot share the expression
+                return new Document("$and",
+                        Arrays.asList(new Document(key, expression), new Document(key, nullOrEmptyExpression)));
+            }
+            expression.putAll(nullOrEmptyExpression);
+            return new Document(key, expression);
+        }
+
+        private Object getOperand(Operator operator, Filter filter) {
+            final Object value = operator.getValue(filter);
+            switch (operator) {
+            case IN:
+            case NIN:
+                return convertArray(type, (String) value);
+            case REGEX:
+                // $regex also works here
+                return Pattern.compile((String) value);
+            case IS_NULL:
+                return null;
+            case IS_EMPTY:
+                return "";
+            case EXISTS:
+                return value;
+            default:
+                return type.tryConvert((String) value);
+            }
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.types.Decimal128;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesRawRow;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+/**
+ * The fields of an entity visible under a jackson serialization view, with their JSON names and formats, used to
+ * write raw documents as JSON the way jackson would write the entity.
+ * <p>
+ * The jackson properties are resolved once against the persistent properties: <code>@JsonView</code>,
+ * <code>@JsonIgnore</code>, <code>@JsonProperty</code>, the <code>pattern</code> of <code>@JsonFormat</code> on
+ * dates and the exclusion of <code>null</code> values by <code>@JsonInclude</code> are honored. Properties
+ * without a persisted field (e.g. computed getters) are not written.
+ * </p>
+ * <p>
+ * Nested entities, alone or in arrays, are written the same way, with the properties of their declared type: a
+ * stored subtype is written as its declared type. Maps, documents of other types (e.g. {@link Document}) and
+ * entities nested in an entity of the same type are written as stored, i.e. with the stored field names and
+ * <code>_class</code>.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+final class DataTablesRawView implements DataTablesRawRow.Writer {
+
+    private static final BsonValueCodec VALUE_CODEC = new BsonValueCodec();
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    /**
+     * jackson's default format of dates written as text
+     */
+    private static final String ISO_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSxxx";
+
+    private final List<RawField> fields;
+
+    /**
+     * stored field name to the slot of its value
+     */
+    private final Map<String, Integer> slots;
+
+    private final Document projection;
+
+    private final DateTimeFormatter defaultDateFormatter;
+
+    private DataTablesRawView(List<RawField> fields, Map<String, Integer> slots,
+            DateTimeFormatter defaultDateFormatter) {
+        this.fields = fields;
+        this.slots = slots;
+        this.defaultDateFormatter = defaultDateFormatter;
+        this.projection = new Document();
+        for (final String fieldName : slots.keySet()) {
+            projection.put(fieldName, 1);
+        }
+        if (!slots.containsKey("_id")) {
+            projection.put("_id", 0);
+        }
+    }
+
+    /**
+     * @param objectMapper
+     * @param mappingContext the mapping context of the entity, which resolves the nested entities
+     * @param entity
+     * @param serializationView may be <code>null</code>
+     * @return the fields of the entity visible under the given view
+     */
+    static DataTablesRawView of(ObjectMapper objectMapper,
+            MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+            MongoPersistentEntity<?> entity, Class<?> serializationView) {
+        SerializationConfig config = objectMapper.getSerializationConfig();
+        if (serializationView != null) {
+            config = config.withView(serializationView);
+        }
+        return of(config, mappingContext, entity, serializationView, new HashSet<>());
+    }
+
+    /**
+     * @param enclosing the types of the entities being resolved, the ones nested in themselves are written as stored
+     */
+    private static DataTablesRawView of(SerializationConfig config,
+            MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+            MongoPersistentEntity<?> entity, Class<?> serializationView, Set<Class<?>> enclosing) {
+        enclosing.add(entity.getType());
+        final BeanDescription description = config.introspect(config.constructType(entity.getType()));
+        // same resolution as jackson's PropertyBuilder: the class, then the type of the property, then the property
+        final JsonInclude.Value beanInclusion = JsonInclude.Value.merge(
+                description.findPropertyInclusion(JsonInclude.Value.empty()),
+                config.getDefaultPropertyInclusion(entity.getType(), JsonInclude.Value.empty()));
+
+        final List<RawField> fields = new ArrayList<>();
+        final Map<String, Integer> slots = new HashMap<>();
+        for (final BeanPropertyDefinition property : description.findProperties()) {
+            if (!property.couldSerialize() || !isVisible(config, property, serializationView)) {
+                continue;
+            }
+            final MongoPersistentProperty persistentProperty = entity
+                    .getPersistentProperty(property.getInternalName());
+            if (persistentProperty == null) {
+                continue;
+            }
+            final String fieldName = persistentProperty.getFieldName();
+            Integer slot = slots.get(fieldName);
+            if (slot == null) {
+                slot = slots.size();
+                slots.put(fieldName, slot);
+            }
+
+            final Class<?> type = property.getRawPrimaryType();
+            final JsonInclude.Value inclusion = config.getDefaultInclusion(type, type, beanInclusion)
+                    .withOverrides(property.findInclusion());
+            final JsonInclude.Include valueInclusion = inclusion.getValueInclusion();
+            final boolean includeNull = valueInclusion == JsonInclude.Include.ALWAYS
+                    || valueInclusion == JsonInclude.Include.USE_DEFAULTS;
+
+            fields.add(new RawField(property.getName(), slot, includeNull,
+                    getDateFormatter(config, property.getPrimaryMember()),
+                    getDefaultValue(property.getRawPrimaryType()),
+                    getNestedView(config, mappingContext, persistentProperty, serializationView, enclosing)));
+        }
+        enclosing.remove(entity.getType());
+
+        final DateTimeFormatter defaultDateFormatter = config
+                .isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) ? null
+                : DateTimeFormatter.ofPattern(ISO_PATTERN, config.getLocale())
+                        .withZone(config.getTimeZone().toZoneId());
+        return new DataTablesRawView(fields, slots, defaultDateFormatter);
+    }
+
+    /**
+     * @return the view of the entity held by the property, alone or in a collection, <code>null</code> to write
+     *         the value as stored
+     */
+    private static DataTablesRawView getNestedView(SerializationConfig config,
+            MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+            MongoPersistentProperty property, Class<?> serializationView, Set<Class<?>> enclosing) {
+        if (!property.isEntity() || property.isMap()) {
+            return null;
+        }
+        final MongoPersistentEntity<?> nested = mappingContext.getPersistentEntity(property.getActualType());
+        if (nested == null || enclosing.contains(nested.getType())) {
+            return null;
+        }
+        return of(config, mappingContext, nested, serializationView, enclosing);
+    }
+
+    private static boolean isVisible(SerializationConfig config, BeanPropertyDefinition property,
+            Class<?> serializationView) {
+        if (serializationView == null) {
+            return true;
+        }
+        final Class<?>[] views = property.findViews();
+        if (views == null) {
+            return config.isEnabled(MapperFeature.DEFAULT_VIEW_INCLUSION);
+        }
+        for (final Class<?> view : views) {
+            if (view.isAssignableFrom(serializationView)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static DateTimeFormatter getDateFormatter(SerializationConfig config, AnnotatedMember member) {
+        final JsonFormat.Value format = member == null ? null
+                : config.getAnnotationIntrospector().findFormat(member);
+        if (format == null || !StringUtils.hasLength(format.getPattern())) {
+            return null;
+        }
+        final Locale locale = format.hasLocale() ? format.getLocale() : config.getLocale();
+        final TimeZone timeZone = format.hasTimeZone() ? format.getTimeZone() : config.getTimeZone();
+        return DateTimeFormatter.ofPattern(format.getPattern(), locale).withZone(timeZone.toZoneId());
+    }
+
+    /**
+     * @return the value jackson writes for a missing primitive, <code>null</code> for other types
+     */
+    private static BsonValue getDefaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return BsonBoolean.FALSE;
+        }
+        if (type == double.class || type == float.class) {
+            return new BsonDouble(0.0);
+        }
+        if (type == long.class) {
+            return new BsonInt64(0L);
+        }
+        if (type == int.class || type == short.class || type == byte.class) {
+            return new BsonInt32(0);
+        }
+        return null;
+    }
+
+    /**
+     * @return a new projection of the stored fields written by this view
+     */
+    Document getProjection() {
+        return new Document(projection);
+    }
+
+    @Override
+    public void write(RawBsonDocument document, JsonGenerator generator) throws IOException {
+        // single pass over the bytes, as the stored order may differ from the order of the properties
+        final BsonValue[] values = new BsonValue[slots.size()];
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                final Integer slot = slots.get(reader.readName());
+                if (slot == null) {
+                    reader.skipValue();
+                } else {
+                    values[slot] = VALUE_CODEC.decode(reader, DECODER_CONTEXT);
+                }
+            }
+            reader.readEndDocument();
+        }
+        write(values, generator);
+    }
+
+    /**
+     * Writes a nested document, already decoded with the document holding it
+     */
+    private void write(BsonDocument document, JsonGenerator generator) throws IOException {
+        final BsonValue[] values = new BsonValue[slots.size()];
+        for (final Map.Entry<String, BsonValue> entry : document.entrySet()) {
+            final Integer slot = slots.get(entry.getKey());
+            if (slot != null) {
+                values[slot] = entry.getValue();
+            }
+        }
+        write(values, generator);
+    }
+
+    private void write(BsonValue[] values, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        for (final RawField field : fields) {
+            BsonValue value = values[field.slot];
+            if (value == null) {
+                value = field.defaultValue;
+            }
+            if ((value == null || value.isNull()) && !field.includeNull) {
+                continue;
+            }
+            generator.writeFieldName(field.name);
+            writeValue(generator, value, field.dateFormatter, field.nestedView);
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * @param nestedView the view of the nested documents, <code>null</code> to write them as stored
+     */
+    private void writeValue(JsonGenerator generator, BsonValue value, DateTimeFormatter dateFormatter,
+            DataTablesRawView nestedView) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        switch (value.getBsonType()) {
+        case STRING:
+            generator.writeString(value.asString().getValue());
+            break;
+        case INT32:
+            generator.writeNumber(value.asInt32().getValue());
+            break;
+        case INT64:
+            generator.writeNumber(value.asInt64().getValue());
+            break;
+        case DOUBLE:
+            generator.writeNumber(value.asDouble().getValue());
+            break;
+        case DECIMAL128:
+            final Decimal128 decimal = value.asDecimal128().getValue();
+            if (decimal.isNaN() || decimal.isInfinite()) {
+                generator.writeString(decimal.toString());
+            } else {
+                generator.writeNumber(decimal.bigDecimalValue());
+            }
+            break;
+        case BOOLEAN:
+            generator.writeBoolean(value.asBoolean().getValue());
+            break;
+        case OBJECT_ID:
+            generator.writeString(value.asObjectId().getValue().toHexString());
+            break;
+        case DATE_TIME:
+            final DateTimeFormatter formatter = dateFormatter == null ? defaultDateFormatter : dateFormatter;
+            if (formatter == null) {
+                generator.writeNumber(value.asDateTime().getValue());
+            } else {
+                generator.writeString(formatter.format(Instant.ofEpochMilli(value.asDateTime().getValue())));
+            }
+            break;
+        case DOCUMENT:
+            final BsonDocument nested = value.asDocument();
+            if (nestedView != null) {
+                nestedView.write(nested, generator);
+                break;
+            }
+            generator.writeStartObject();
+            for (final Map.Entry<String, BsonValue> entry : nested.entrySet()) {
+                generator.writeFieldName(entry.getKey());
+                writeValue(generator, entry.getValue(), null, null);
+            }
+            generator.writeEndObject();
+            break;
+        case ARRAY:
+            generator.writeStartArray();
+            for (final BsonValue element : value.asArray()) {
+                writeValue(generator, element, dateFormatter, nestedView);
+            }
+            generator.writeEndArray();
+            break;
+        case BINARY:
+            generator.writeBinary(value.asBinary().getData());
+            break;
+        case NULL:
+        case UNDEFINED:
+            generator.writeNull();
+            break;
+        default:
+            generator.writeString(value.toString());
+            break;
+        }
+    }
+
+    private static final class RawField {
+
+        private final String name;
+        private final int slot;
+        private final boolean includeNull;
+        private final DateTimeFormatter dateFormatter;
+        private final BsonValue defaultValue;
+        private final DataTablesRawView nestedView;
+
+        RawField(String name, int slot, boolean includeNull, DateTimeFormatter dateFormatter,
+                BsonValue defaultValue, DataTablesRawView nestedView) {
+            this.name = name;
+            this.slot = slot;
+            this.includeNull = includeNull;
+            this.dateFormatter = dateFormatter;
+            this.defaultValue = defaultValue;
+            this.nestedView = nestedView;
+        }
+    }
+}
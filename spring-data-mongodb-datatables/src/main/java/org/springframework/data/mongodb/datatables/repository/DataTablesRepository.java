@@ -1,13 +1,23 @@
 package org.springframework.data.mongodb.datatables.repository;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
 
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesBatchInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesExportFormat;
 import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
 import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesRawRow;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesStreamingOutput;
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+import org.springframework.data.mongodb.datatables.model.DataTablesExplanation;
+import org.springframework.data.mongodb.datatables.model.DataTablesPrefetchStats;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
@@ -85,4 +95,233 @@ public interface DataTablesRepository<T, ID extends Serializable>
             Collection<? extends AggregationOperation> additionalOperations,
             Collection<? extends AggregationOperation> preFilteringOperations);
 
+    /**
+     * Returns the filtered lists of several tables at once, e.g. of a dashboard, as
+     * {@link #findAll(DataTablesInput, Criteria, Criteria)} would for each of them.
+     * <p>
+     * Identical total counts (same pre-filter) and filtered counts (same filter) are computed only once for the
+     * whole batch, and the distinct queries are run in parallel on {@link DataTablesOptions#getExecutor()}. A
+     * failing table only sets the <code>error</code> of its own output.
+     * </p>
+     *
+     * @param inputs the tables, without aggregation operations
+     * @return a {@link DataTablesOutput} per table, in the same order
+     * @throws IllegalArgumentException if a table has aggregation operations
+     */
+    List<DataTablesOutput<T>> findAllBatch(List<DataTablesBatchInput> inputs);
+
+    /**
+     * Same as {@link #findAllBatch(List)}, with the operations of each table applied exactly as
+     * {@link #findAll(Class, DataTablesInput, Collection, Collection)} applies the same arguments, so that each
+     * output is the one of <code>findAll</code>. The criteria of a table, if any, are applied with
+     * <code>$match</code> stages so that its output is the one of
+     * {@link #findAll(DataTablesInput, Criteria, Criteria)}: the pre-filtering criteria is counted in
+     * <code>recordsTotal</code>, the additional one only in <code>recordsFiltered</code>. <code>$facet</code> is
+     * not used, so that the counts can be shared.
+     *
+     * @param classOfView
+     * @param inputs the tables
+     * @return a {@link DataTablesOutput} per table, in the same order
+     */
+    <View> List<DataTablesOutput<View>> findAllBatch(Class<View> classOfView, List<DataTablesBatchInput> inputs);
+
+    /**
+     * Same as {@link #findAll(DataTablesInput)}, but the rows are read from the database cursor while the output is
+     * serialized, e.g. by
+     * {@link org.springframework.data.mongodb.datatables.web.DataTablesStreamingHttpMessageConverter}. The output
+     * must be serialized or closed to release the cursor.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @return a {@link DataTablesStreamingOutput}
+     */
+    DataTablesStreamingOutput<T> findAllStreaming(DataTablesInput input);
+
+    /**
+     * Same as {@link #findAll(DataTablesInput, Criteria, Criteria)}, but the rows are read from the database cursor
+     * while the output is serialized. The output must be serialized or closed to release the cursor.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @param additionalCriteria an additional {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param preFilteringCriteria a pre-filtering {@link Criteria} to apply to the query (with an "AND" clause)
+     * @return a {@link DataTablesStreamingOutput}
+     */
+    DataTablesStreamingOutput<T> findAllStreaming(DataTablesInput input, Criteria additionalCriteria,
+            Criteria preFilteringCriteria);
+
+    /**
+     * Same as {@link #findAll(Class, DataTablesInput, Collection, Collection)}, but the rows are read from the
+     * database cursor while the output is serialized. The output must be serialized or closed to release the
+     * cursor.
+     *
+     * @param classOfView
+     * @param input
+     * @param additionalOperations
+     * @param preFilteringOperations
+     * @return a {@link DataTablesStreamingOutput}
+     */
+    <View> DataTablesStreamingOutput<View> findAllStreaming(Class<View> classOfView, DataTablesInput input,
+            Collection<? extends AggregationOperation> additionalOperations,
+            Collection<? extends AggregationOperation> preFilteringOperations);
+
+    /**
+     * Same as {@link #findAll(DataTablesInput)}, but the documents are not mapped to the entity: each row is written
+     * as JSON straight from the BSON returned by the database. Only the fields visible under the given jackson view
+     * are fetched and written, with the names and date patterns of <code>@JsonProperty</code> /
+     * <code>@JsonFormat</code>. Keyset cursors are not available in this mode.
+     *
+     * @param serializationView the jackson view of the rows, e.g. {@link DataTablesOutput.View}, may be
+     *            <code>null</code>
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @return a {@link DataTablesOutput} of {@link DataTablesRawRow}s
+     */
+    DataTablesOutput<DataTablesRawRow> findAllRaw(Class<?> serializationView, DataTablesInput input);
+
+    /**
+     * Same as {@link #findAll(DataTablesInput, Criteria, Criteria)}, but the documents are not mapped to the entity,
+     * see {@link #findAllRaw(Class, DataTablesInput)}.
+     *
+     * @param serializationView the jackson view of the rows, may be <code>null</code>
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @param additionalCriteria an additional {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param preFilteringCriteria a pre-filtering {@link Criteria} to apply to the query (with an "AND" clause)
+     * @return a {@link DataTablesOutput} of {@link DataTablesRawRow}s
+     */
+    DataTablesOutput<DataTablesRawRow> findAllRaw(Class<?> serializationView, DataTablesInput input,
+            Criteria additionalCriteria, Criteria preFilteringCriteria);
+
+    /**
+     * Writes all rows matching the given {@link DataTablesInput} to the given stream, one by one from a database
+     * cursor, so that memory does not grow with the count of rows. <code>start</code> and <code>length</code> are
+     * honored as in {@link #findAll(DataTablesInput)}, use <code>length = -1</code> to export all rows.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @param format the format of the export
+     * @param out the stream to write to, which is flushed but not closed
+     * @return the count of written rows
+     * @throws IOException if writing fails
+     */
+    long export(DataTablesInput input, DataTablesExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Same as {@link #export(DataTablesInput, DataTablesExportFormat, OutputStream)}, with additional criteria.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @param additionalCriteria an additional {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param preFilteringCriteria a pre-filtering {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param format the format of the export
+     * @param out the stream to write to, which is flushed but not closed
+     * @return the count of written rows
+     * @throws IOException if writing fails
+     */
+    long export(DataTablesInput input, Criteria additionalCriteria, Criteria preFilteringCriteria,
+            DataTablesExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Same as {@link #export(DataTablesInput, DataTablesExportFormat, OutputStream)}, after the given
+     * {@link AggregationOperation}s
+     *
+     * @param classOfView
+     * @param input
+     * @param format
+     * @param out
+     * @param operations
+     * @return the count of written rows
+     * @throws IOException if writing fails
+     */
+    <View> long export(Class<View> classOfView, DataTablesInput input, DataTablesExportFormat format,
+            OutputStream out, AggregationOperation... operations) throws IOException;
+
+    /**
+     * Same as {@link #export(DataTablesInput, DataTablesExportFormat, OutputStream)}, with aggregation in the same
+     * order as {@link #findAll(Class, DataTablesInput, Collection, Collection)}
+     *
+     * @param classOfView
+     * @param input
+     * @param additionalOperations
+     * @param preFilteringOperations
+     * @param format
+     * @param out
+     * @return the count of written rows
+     * @throws IOException if writing fails
+     */
+    <View> long export(Class<View> classOfView, DataTablesInput input,
+            Collection<? extends AggregationOperation> additionalOperations,
+            Collection<? extends AggregationOperation> preFilteringOperations, DataTablesExportFormat format,
+            OutputStream out) throws IOException;
+
+    /**
+     * Explains the queries {@link #findAll(DataTablesInput, Criteria, Criteria)} would issue for the given
+     * {@link DataTablesInput}: the total count, the filtered count and the page fetch, whether or not
+     * <code>recordsTotal</code> is cached. The queries are run with the <code>executionStats</code> verbosity, so
+     * they are as expensive as the draw itself.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @return a {@link DataTablesExplanation} per query
+     */
+    List<DataTablesExplanation> explain(DataTablesInput input);
+
+    /**
+     * Same as {@link #explain(DataTablesInput)}, with additional criteria.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @param additionalCriteria an additional {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param preFilteringCriteria a pre-filtering {@link Criteria} to apply to the query (with an "AND" clause)
+     * @return a {@link DataTablesExplanation} per query
+     */
+    List<DataTablesExplanation> explain(DataTablesInput input, Criteria additionalCriteria,
+            Criteria preFilteringCriteria);
+
+    /**
+     * Explains the aggregations {@link #findAll(Class, DataTablesInput, Collection, Collection)} would issue for the
+     * given {@link DataTablesInput}: the total count, the filtered count and the page fetch, or the single
+     * <code>$facet</code> pipeline if enabled.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @param additionalOperations
+     * @param preFilteringOperations
+     * @return a {@link DataTablesExplanation} per query
+     */
+    List<DataTablesExplanation> explainAggregation(DataTablesInput input,
+            Collection<? extends AggregationOperation> additionalOperations,
+            Collection<? extends AggregationOperation> preFilteringOperations);
+
+    /**
+     * Returns the statistics of the compiled query plan cache of this repository.
+     *
+     * @return a {@link DataTablesCacheStats}
+     */
+    DataTablesCacheStats getQueryPlanCacheStats();
+
+    /**
+     * Returns the statistics of the <code>recordsTotal</code> cache of this repository.
+     *
+     * @return a {@link DataTablesCacheStats}
+     */
+    DataTablesCacheStats getTotalCountCacheStats();
+
+    /**
+     * Returns the statistics of the output cache of this repository.
+     *
+     * @return a {@link DataTablesCacheStats}
+     * @see DataTablesOptions#getResultCacheTtl()
+     */
+    DataTablesCacheStats getResultCacheStats();
+
+    /**
+     * Returns the statistics of the coalescing of identical concurrent draws of this repository: the draws which
+     * got the output of an identical one as hits, the draws which ran as misses, and the draws in flight as size.
+     *
+     * @return a {@link DataTablesCacheStats}
+     * @see DataTablesOptions#isCoalescing()
+     */
+    DataTablesCacheStats getCoalescingStats();
+
+    /**
+     * Returns the statistics of the prefetch of next pages of this repository.
+     *
+     * @return a {@link DataTablesPrefetchStats}
+     * @see DataTablesOptions#getPrefetchTtl()
+     */
+    DataTablesPrefetchStats getPrefetchStats();
+
 }
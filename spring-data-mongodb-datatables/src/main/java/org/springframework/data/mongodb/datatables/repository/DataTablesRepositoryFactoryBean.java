@@ -2,35 +2,111 @@ package org.springframework.data.mongodb.datatables.repository;
 
 import java.io.Serializable;
 
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
 import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
 import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
+import org.springframework.data.repository.core.RepositoryInformation;
 import org.springframework.data.repository.core.RepositoryMetadata;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.util.ClassUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * {@link FactoryBean} creating DataTablesRepositoryFactory instances.
+ * <p>
+ * If a {@link DataTablesOptions} bean is declared, it is applied to all created repositories. Unless the options
+ * set one, the rows are serialized with the {@link ObjectMapper} bean of the application, if there is a single one.
+ * </p>
  *
  * @author Damien Arrachequesne
  */
 public class DataTablesRepositoryFactoryBean<R extends MongoRepository<T, ID>, T, ID extends Serializable>
 extends MongoRepositoryFactoryBean<R, T, ID> {
 
+	/**
+	 * check micrometer at startup
+	 */
+	private static final boolean IS_MICROMETER_AVAILABLE = ClassUtils.isPresent(
+			"io.micrometer.core.instrument.MeterRegistry", DataTablesRepositoryFactoryBean.class.getClassLoader());
+
+	private BeanFactory beanFactory;
+
 	public DataTablesRepositoryFactoryBean(Class<? extends R> repositoryInterface) {
         super(repositoryInterface);
     }
 
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		super.setBeanFactory(beanFactory);
+		this.beanFactory = beanFactory;
+	}
+
     @Override
 	protected RepositoryFactorySupport getFactoryInstance(MongoOperations operations) {
-		return new DataTablesRepositoryFactory(operations);
+		DataTablesOptions options = beanFactory == null ? null
+				: beanFactory.getBeanProvider(DataTablesOptions.class).getIfAvailable();
+		if (options == null) {
+			options = new DataTablesOptions();
+		}
+		return new DataTablesRepositoryFactory(operations, options, getMetrics(options), getObjectMapper(options));
+	}
+
+	/**
+	 * @return the {@link ObjectMapper} bean of the application, unless the options set one
+	 */
+	private ObjectMapper getObjectMapper(DataTablesOptions options) {
+		if (options.getObjectMapper() != null || beanFactory == null) {
+			return null;
+		}
+		return beanFactory.getBeanProvider(ObjectMapper.class).getIfUnique();
+	}
+
+	private DataTablesMetrics getMetrics(DataTablesOptions options) {
+		if (options.getMetrics() != null) {
+			return options.getMetrics();
+		}
+		if (IS_MICROMETER_AVAILABLE && beanFactory != null) {
+			DataTablesMetrics metrics = MicrometerMetricsLookup.lookup(beanFactory);
+			if (metrics != null) {
+				return metrics;
+			}
+		}
+		return DataTablesMetrics.NOOP;
+	}
+
+	/**
+	 * Isolates the references to Micrometer, so that they are only loaded if it is on the classpath
+	 */
+	private static class MicrometerMetricsLookup {
+
+		static DataTablesMetrics lookup(BeanFactory beanFactory) {
+			MeterRegistry registry = beanFactory.getBeanProvider(MeterRegistry.class).getIfAvailable();
+			return registry == null ? null : new MicrometerDataTablesMetrics(registry);
+		}
 	}
 
 	private static class DataTablesRepositoryFactory extends MongoRepositoryFactory {
 
-		public DataTablesRepositoryFactory(MongoOperations mongoOperations) {
+		private final MongoOperations mongoOperations;
+		private final DataTablesOptions options;
+		private final DataTablesMetrics metrics;
+		private final ObjectMapper objectMapper;
+
+		public DataTablesRepositoryFactory(MongoOperations mongoOperations, DataTablesOptions options,
+				DataTablesMetrics metrics, ObjectMapper objectMapper) {
 			super(mongoOperations);
+			this.mongoOperations = mongoOperations;
+			this.options = options;
+			this.metrics = metrics;
+			this.objectMapper = objectMapper;
 		}
 
 		@Override
@@ -42,6 +118,32 @@ extends MongoRepositoryFactoryBean<R, T, ID> {
 				return super.getRepositoryBaseClass(metadata);
 			}
 		}
+
+		@Override
+		protected Object getTargetRepository(RepositoryInformation information) {
+			if (DataTablesRepository.class.isAssignableFrom(information.getRepositoryInterface())) {
+				MongoEntityInformation<?, Serializable> entityInformation = getEntityInformation(
+						information.getDomainType());
+				Object repository = getTargetRepositoryViaReflection(information, entityInformation, mongoOperations,
+						options, metrics);
+				if (objectMapper != null && repository instanceof DataTablesRepositoryImpl) {
+					((DataTablesRepositoryImpl<?, ?>) repository).setDefaultObjectMapper(objectMapper);
+				}
+				if (options.getIndexAdvisor() != DataTablesIndexAdvisor.Mode.OFF) {
+					// the metamodel of the repository, unless another base class is configured
+					final DataTablesEntityMetamodel<?> metamodel = repository instanceof DataTablesRepositoryImpl
+							? ((DataTablesRepositoryImpl<?, ?>) repository).getMetamodel()
+							: new DataTablesEntityMetamodel<>(entityInformation.getJavaType(),
+									mongoOperations.getConverter().getMappingContext(),
+									options.getObjectMapper() != null ? options.getObjectMapper() : objectMapper);
+					new DataTablesIndexAdvisor(mongoOperations, metamodel, entityInformation.getCollectionName(),
+							options).run(options.getIndexAdvisor());
+				}
+				return repository;
+			} else {
+				return super.getTargetRepository(information);
+			}
+		}
 	}
 
 }
@@ -2,25 +2,69 @@ package org.springframework.data.mongodb.datatables.repository;
 
 import static org.springframework.data.mongodb.core.query.Query.query;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 
+import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Collation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesBatchInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesExportFormat;
 import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
 import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesRawRow;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesStreamingOutput;
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+import org.springframework.data.mongodb.datatables.model.DataTablesExplanation;
+import org.springframework.data.mongodb.datatables.model.DataTablesPrefetchStats;
 import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
 import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.EstimatedDocumentCountOptions;
 
 /**
  * Repository implementation
@@ -32,13 +76,267 @@ public class DataTablesRepositoryImpl<T, ID extends Serializable> extends Simple
 
     private static final Logger log = LoggerFactory.getLogger(DataTablesRepositoryImpl.class);
 
+    private static final char KEY_SEPARATOR = '\u0000';
+
     private final MongoEntityInformation<T, ID> entityInformation;
     private final MongoOperations mongoOperations;
+    private final DataTablesOptions options;
+    private final DataTablesMetrics metrics;
+    private volatile DataTablesEntityMetamodel<T> metamodel;
+    private final DataTablesCache<String, DataTablesQueryPlan<T>> queryPlans;
+    private final DataTablesTotalCountCache totalCounts;
+    private final DataTablesDrawSharing drawSharing;
+    private volatile ObjectMapper defaultObjectMapper;
+    private volatile TextIndex textIndex;
+    private final AtomicBoolean textIndexReading = new AtomicBoolean();
+    private final ConcurrentMap<Class<?>, DataTablesRawView> rawViews = new ConcurrentHashMap<>();
 
     public DataTablesRepositoryImpl(MongoEntityInformation<T, ID> metadata, MongoOperations mongoOperations) {
+        this(metadata, mongoOperations, new DataTablesOptions());
+    }
+
+    public DataTablesRepositoryImpl(MongoEntityInformation<T, ID> metadata, MongoOperations mongoOperations,
+            DataTablesOptions options) {
+        this(metadata, mongoOperations, options,
+                options.getMetrics() == null ? DataTablesMetrics.NOOP : options.getMetrics());
+    }
+
+    public DataTablesRepositoryImpl(MongoEntityInformation<T, ID> metadata, MongoOperations mongoOperations,
+            DataTablesOptions options, DataTablesMetrics metrics) {
         super(metadata, mongoOperations);
         this.entityInformation = metadata;
         this.mongoOperations = mongoOperations;
+        this.options = options;
+        this.metrics = metrics;
+        this.metamodel = new DataTablesEntityMetamodel<>(metadata.getJavaType(),
+                mongoOperations.getConverter().getMappingContext(), options.getObjectMapper());
+        this.queryPlans = new DataTablesCache<>(options.getQueryPlanCacheSize());
+        this.totalCounts = new DataTablesTotalCountCache(options.getTotalCountCacheTtl(),
+                options.getTotalCountCacheSize(), getExecutor());
+        this.drawSharing = new DataTablesDrawSharing(options, metadata.getCollectionName(), metrics,
+                getExecutor());
+    }
+
+    /**
+     * @return the metamodel of the entity, shared with the {@link DataTablesIndexAdvisor} of the repository
+     */
+    DataTablesEntityMetamodel<T> getMetamodel() {
+        return metamodel;
+    }
+
+    private Executor getExecutor() {
+        return options.getExecutor() == null ? DataTablesExecutor.getDefault() : options.getExecutor();
+    }
+
+    private DataTablesQueryPlan<T> getQueryPlan(DataTablesInput input) {
+        final TextIndex textIndex = getTextIndex();
+        if (textIndex == null) {
+            // the plan is not cached, so that the next draws look the text index up again
+            return DataTablesQueryPlan.compile(this.metamodel, input, Collections.emptySet(), options);
+        }
+        final DataTablesQueryPlan<T> plan = queryPlans.get(DataTablesQueryPlan.shapeOf(input),
+                shape -> DataTablesQueryPlan.compile(this.metamodel, input, textIndex.fields, options));
+        if (textIndex != this.textIndex) {
+            // the text index changed meanwhile, this plan may have been cached after the others were evicted
+            queryPlans.clear();
+        }
+        return plan;
+    }
+
+    /**
+     * Fields of the text index of the collection, as read at a given time
+     */
+    private static final class TextIndex {
+        private final Set<String> fields;
+        private final long readAt;
+
+        private TextIndex(Set<String> fields, long readAt) {
+            this.fields = fields;
+            this.readAt = readAt;
+        }
+    }
+
+    /**
+     * Looks up the fields of the text index of the collection, again once
+     * {@link DataTablesOptions#getTextIndexRefreshInterval()} has elapsed. The compiled query plans are evicted when
+     * they changed. While a draw reads the indexes, the others use the fields read before.
+     *
+     * @return the text index, <code>null</code> if the indexes could not be read yet
+     */
+    private TextIndex getTextIndex() {
+        final TextIndex current = textIndex;
+        final Duration refreshInterval = options.getTextIndexRefreshInterval();
+        if (current != null
+                && (refreshInterval == null || System.nanoTime() - current.readAt < refreshInterval.toNanos())) {
+            return current;
+        }
+        if (!textIndexReading.compareAndSet(false, true)) {
+            return current;
+        }
+        try {
+            final Set<String> fields = readTextIndexedFields();
+            if (fields == null) {
+                // read again by the next draw
+                return current;
+            }
+            final TextIndex read = new TextIndex(fields, System.nanoTime());
+            textIndex = read;
+            if (current != null && !current.fields.equals(fields)) {
+                log.info("text indexed fields of {} changed to {}", this.entityInformation.getCollectionName(),
+                        fields);
+                queryPlans.clear();
+            }
+            return read;
+        } finally {
+            textIndexReading.set(false);
+        }
+    }
+
+    /**
+     * @return the (stored) fields covered by the text index, empty if there is none, <code>null</code> if the
+     *         indexes could not be read
+     */
+    private Set<String> readTextIndexedFields() {
+        final Set<String> fields = new HashSet<>();
+        try {
+            for (final IndexInfo index : mongoOperations.indexOps(this.entityInformation.getCollectionName())
+                    .getIndexInfo()) {
+                for (final IndexField field : index.getIndexFields()) {
+                    if (field.isText()) {
+                        fields.add(field.getKey());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("unable to read the indexes of {}, global search falls back to regular expressions",
+                    this.entityInformation.getCollectionName(), e);
+            return null;
+        }
+        log.debug("text indexed fields of {}: {}", this.entityInformation.getCollectionName(), fields);
+        return Collections.unmodifiableSet(fields);
+    }
+
+    @Override
+    public DataTablesCacheStats getQueryPlanCacheStats() {
+        return queryPlans.stats();
+    }
+
+    @Override
+    public DataTablesCacheStats getTotalCountCacheStats() {
+        return totalCounts.stats();
+    }
+
+    @Override
+    public DataTablesCacheStats getResultCacheStats() {
+        return drawSharing.getResultCacheStats();
+    }
+
+    @Override
+    public DataTablesCacheStats getCoalescingStats() {
+        return drawSharing.getCoalescingStats();
+    }
+
+    @Override
+    public DataTablesPrefetchStats getPrefetchStats() {
+        return drawSharing.getPrefetchStats();
+    }
+
+    /**
+     * Invalidates cached results after a write through this repository
+     */
+    private void invalidateCaches() {
+        totalCounts.invalidate();
+        drawSharing.invalidate();
+    }
+
+    private static String toKey(Criteria additionalCrit, Criteria preFilteringCrit) {
+        return (additionalCrit == null ? "" : DataTablesUtils.toKey(additionalCrit.getCriteriaObject()))
+                + KEY_SEPARATOR
+                + (preFilteringCrit == null ? "" : DataTablesUtils.toKey(preFilteringCrit.getCriteriaObject()));
+    }
+
+    private static String toKey(Class<?> classOfView, AggregationOperation[] preFilteringOps,
+            AggregationOperation[] additionalOps) {
+        final String preFilteringKey = preFilteringOps == null || preFilteringOps.length == 0 ? ""
+                : DataTablesUtils.toKey(preFilteringOps);
+        final String additionalKey = additionalOps == null || additionalOps.length == 0 ? ""
+                : DataTablesUtils.toKey(additionalOps);
+        if (preFilteringKey == null || additionalKey == null) {
+            return null;
+        }
+        return classOfView.getName() + KEY_SEPARATOR + preFilteringKey + KEY_SEPARATOR + additionalKey;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        try {
+            return super.save(entity);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        try {
+            return super.saveAll(entities);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        try {
+            return super.insert(entity);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        try {
+            return super.insert(entities);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        try {
+            super.deleteById(id);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    @Override
+    public void delete(T entity) {
+        try {
+            super.delete(entity);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        try {
+            super.deleteAll(entities);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        try {
+            super.deleteAll();
+        } finally {
+            invalidateCaches();
+        }
     }
 
     /*
@@ -65,27 +363,105 @@ public class DataTablesRepositoryImpl<T, ID extends Serializable> extends Simple
         return findAll(input, additionalCriteria, null);
     }
 
-    private long count(Criteria crit) {
-        Query q = query(crit);
-        return this.mongoOperations.count(q, this.entityInformation.getCollectionName());
+    private long countTotal(Criteria preFilteringCrit) {
+        return countTotal(preFilteringCrit, null);
     }
 
-    private <S extends T> Page<S> findAll(Query q, Pageable p, Class<S> classOfS) {
-        if (p.getSort() == null) {
-            if (!p.isUnpaged()) {
-                q.limit(p.getPageSize()).skip(p.getOffset());
+    /**
+     * @param maxTime server-side time limit of the count, <code>null</code> for none
+     */
+    private long countTotal(Criteria preFilteringCrit, Duration maxTime) {
+        if (preFilteringCrit == null) {
+            return totalCounts.get("", () -> countAll(maxTime));
+        }
+        return totalCounts.get(DataTablesUtils.toKey(preFilteringCrit.getCriteriaObject()),
+                () -> count(query(preFilteringCrit), maxTime));
+    }
+
+    /**
+     * Count the results of the pre-filtering {@link AggregationOperation}s
+     */
+    private long countTotal(AggregationOperation[] preFilteringOps) {
+        if (preFilteringOps == null || preFilteringOps.length == 0) {
+            return countTotal((Criteria) null);
+        }
+        return totalCounts.get(DataTablesUtils.toKey(preFilteringOps),
+                () -> DataTablesUtils.count(mongoOperations, metamodel, preFilteringOps));
+    }
+
+    private long countAll(Duration maxTime) {
+        if (options.isEstimatedTotalCount()) {
+            final EstimatedDocumentCountOptions countOptions = new EstimatedDocumentCountOptions();
+            if (maxTime != null) {
+                countOptions.maxTime(maxTime.toMillis(), TimeUnit.MILLISECONDS);
             }
-        } else {
-            q.with(p);
+            return mongoOperations.execute(this.entityInformation.getCollectionName(),
+                    collection -> collection.estimatedDocumentCount(countOptions));
         }
+        return maxTime == null ? count() : count(new Query(), maxTime);
+    }
+
+    private long countFiltered(Query q) {
+        return mongoOperations.count(toFilteredCountQuery(q), this.entityInformation.getCollectionName());
+    }
 
-        long count = mongoOperations.count(q, this.entityInformation.getCollectionName());
+    private Query toFilteredCountQuery(Query q) {
+        final long maxFilteredCount = options.getMaxFilteredCount();
+        if (maxFilteredCount <= 0) {
+            return q;
+        }
+        // count honors limit, so stop after the first document beyond the ceiling
+        Query limited = new BasicQuery(q.getQueryObject());
+        q.getCollation().ifPresent(limited::collation);
+        limited.limit((int) Math.min(maxFilteredCount + 1, Integer.MAX_VALUE));
+        return limited;
+    }
+
+    /**
+     * Sets <code>recordsFiltered</code>, capped at {@link DataTablesOptions#getMaxFilteredCount()}
+     */
+    private void setRecordsFiltered(DataTablesOutput<?> output, long recordsFiltered) {
+        DataTablesUtils.setRecordsFiltered(output, recordsFiltered, options.getMaxFilteredCount());
+    }
 
-        if (count == 0) {
-            return new PageImpl<S>(Collections.<S> emptyList());
+    /**
+     * Same as {@link MongoOperations#count(Query, String)}, with a server-side time limit
+     *
+     * @param q
+     * @param maxTime <code>null</code> for no limit
+     * @return
+     */
+    private long count(Query q, Duration maxTime) {
+        if (maxTime == null) {
+            return mongoOperations.count(q, this.entityInformation.getCollectionName());
         }
+        // MongoOperations#count does not apply the meta of the query
+        final Document filter = new QueryMapper(mongoOperations.getConverter())
+                .getMappedObject(q.getQueryObject(), Optional.empty());
+        final CountOptions countOptions = new CountOptions().maxTime(maxTime.toMillis(), TimeUnit.MILLISECONDS);
+        if (q.getLimit() > 0) {
+            countOptions.limit(q.getLimit());
+        }
+        q.getCollation().map(Collation::toMongoCollation).ifPresent(countOptions::collation);
+        return mongoOperations.execute(this.entityInformation.getCollectionName(),
+                collection -> collection.countDocuments(filter, countOptions));
+    }
 
-        return new PageImpl<S>(mongoOperations.find(q, classOfS, this.entityInformation.getCollectionName()), p, count);
+    private static Query toPagedQuery(Query q, Pageable p) {
+        if (DataTablesUtils.isSortedByTextScore(p.getSort())) {
+            return toPagedQueryByTextScore(q, p);
+        }
+        // page on a copy, so that q can still be counted (count honors limit and skip)
+        Query paged = new BasicQuery(q.getQueryObject(), q.getFieldsObject());
+        q.getCollation().ifPresent(paged::collation);
+        if (p.getSort() == null) {
+            if (!p.isUnpaged()) {
+                paged.limit(p.getPageSize()).skip(p.getOffset());
+            }
+        } else {
+            paged.with(p);
+        }
+        return paged;
     }
 
     /*
@@ -98,41 +474,602 @@ public class DataTablesRepositoryImpl<T, ID extends Serializable> extends Simple
      */
     @Override
     public DataTablesOutput<T> findAll(DataTablesInput input, Criteria additionalCrit, Criteria preFilteringCrit) {
+        return drawSharing.find(DataTablesMetrics.Path.CRITERIA, input,
+                () -> "criteria" + KEY_SEPARATOR + toKey(additionalCrit, preFilteringCrit),
+                (in, counted) -> doFindAll(in, additionalCrit, preFilteringCrit, counted));
+    }
+
+    /**
+     * @param counted the output of the previous page, whose counts are reused, <code>null</code> to count
+     */
+    private DataTablesOutput<T> doFindAll(DataTablesInput input, Criteria additionalCrit,
+            Criteria preFilteringCrit, DataTablesOutput<?> counted) {
         DataTablesOutput<T> output = new DataTablesOutput<T>();
         output.setDraw(input.getDraw());
 
+        // prefetches are not draws of the client
+        final DataTablesMetrics.Draw draw = counted == null ? startDraw(DataTablesMetrics.Path.CRITERIA, input)
+                : DataTablesMetrics.Draw.NOOP;
+        try {
+            draw.phase(DataTablesMetrics.Phase.PLAN);
+            DataTablesQueryPlan<T> plan = getQueryPlan(input);
+            Query query = getQuery(plan, input, additionalCrit, preFilteringCrit);
+
+            final boolean paged = input.getLength() != -1;
+            Pageable pageable = DataTablesUtils.getPageable(input, getSort(plan));
+            final int filterHash = options.isKeysetPagination()
+                    ? DataTablesUtils.toKey(query.getQueryObject()).hashCode()
+                    : 0;
+            final DataTablesCursor cursor = paged ? getCursor(input, pageable, filterHash) : null;
+
+            if (counted != null) {
+                output.setRecordsTotal(counted.getRecordsTotal());
+                setRecordsFiltered(output, counted.getRecordsFiltered());
+                output.setData(find(query, pageable, cursor));
+                if (paged) {
+                    setCursors(output, output.getData(), counted.getRecordsFiltered(), input.getStart(), pageable,
+                            filterHash);
+                }
+                return output;
+            }
+
+            if (options.isConcurrentExecution()) {
+                draw.phase(null);
+                findConcurrently(output, query, pageable, cursor, preFilteringCrit, draw);
+                if (paged) {
+                    setCursors(output, output.getData(), output.getRecordsFiltered(), input.getStart(), pageable,
+                            filterHash);
+                }
+                return output;
+            }
+
+            draw.phase(DataTablesMetrics.Phase.COUNT_TOTAL);
+            long recordsTotal = countTotal(preFilteringCrit);
+            if (recordsTotal == 0) {
+                return output;
+            }
+            output.setRecordsTotal(recordsTotal);
+
+            draw.phase(DataTablesMetrics.Phase.COUNT_FILTERED);
+            long recordsFiltered = countFiltered(query);
+            setRecordsFiltered(output, recordsFiltered);
+            if (recordsFiltered > 0) {
+                draw.phase(DataTablesMetrics.Phase.FETCH);
+                output.setData(find(query, pageable, cursor));
+                if (paged) {
+                    setCursors(output, output.getData(), recordsFiltered, input.getStart(), pageable, filterHash);
+                }
+            }
+
+        } catch (Exception e) {
+            draw.error(e);
+            output.setError(e.toString());
+            output.setRecordsFiltered(0L);
+            log.error("caught exception", e);
+        } finally {
+            draw.end(output);
+        }
+
+        return output;
+    }
+
+    private DataTablesMetrics.Draw startDraw(DataTablesMetrics.Path path, DataTablesInput input) {
+        return metrics.start(this.entityInformation.getCollectionName(), path, input);
+    }
+
+    private DataTablesMetrics.Draw startDraw(DataTablesMetrics.Path path, DataTablesMetrics.Source source,
+            DataTablesInput input) {
+        return metrics.start(this.entityInformation.getCollectionName(), path, source, input);
+    }
+
+    /**
+     * Runs the total count, the filtered count and the page fetch in parallel on the configured executor, each
+     * bounded by {@link DataTablesOptions#getConcurrentQueryMaxTime()}.
+     * <p>
+     * The others are cancelled as soon as one of them fails, or when the total count is <code>0</code>.
+     * </p>
+     */
+    private void findConcurrently(DataTablesOutput<T> output, Query query, Pageable pageable,
+            DataTablesCursor cursor, Criteria preFilteringCrit, DataTablesMetrics.Draw draw) throws Exception {
+        final Executor executor = DataTablesExecutor.callerRunsOnRejection(getExecutor());
+        final Duration maxTime = options.getConcurrentQueryMaxTime();
+
+        final CompletableFuture<Long> total = CompletableFuture.supplyAsync(
+                draw.timed(DataTablesMetrics.Phase.COUNT_TOTAL, () -> countTotal(preFilteringCrit, maxTime)),
+                executor);
+        final CompletableFuture<Long> filtered = CompletableFuture.supplyAsync(
+                draw.timed(DataTablesMetrics.Phase.COUNT_FILTERED,
+                        () -> count(toFilteredCountQuery(query), maxTime)),
+                executor);
+        final CompletableFuture<List<T>> data = CompletableFuture.supplyAsync(
+                draw.timed(DataTablesMetrics.Phase.FETCH, () -> find(query, pageable, cursor, maxTime)), executor);
+
+        final CompletableFuture<?>[] all = { total, filtered, data };
+        for (final CompletableFuture<?> future : all) {
+            future.whenComplete((result, e) -> {
+                if (e != null) {
+                    cancel(all);
+                }
+            });
+        }
+        total.thenAccept(recordsTotal -> {
+            if (recordsTotal == 0) {
+                cancel(all);
+            }
+        });
+
+        long recordsTotal = await(total, all);
+        if (recordsTotal == 0) {
+            return;
+        }
+        output.setRecordsTotal(recordsTotal);
+        setRecordsFiltered(output, await(filtered, all));
+        output.setData(await(data, all));
+    }
+
+    @Override
+    public DataTablesStreamingOutput<T> findAllStreaming(DataTablesInput input) {
+        return findAllStreaming(input, null, null);
+    }
+
+    @Override
+    public DataTablesStreamingOutput<T> findAllStreaming(DataTablesInput input, Criteria additionalCrit,
+            Criteria preFilteringCrit) {
+        DataTablesStreamingOutput<T> output = new DataTablesStreamingOutput<T>();
+        output.setDraw(input.getDraw());
+
         try {
-            long recordsTotal = preFilteringCrit == null ? count() : count(preFilteringCrit);
+            DataTablesQueryPlan<T> plan = getQueryPlan(input);
+            Query query = getQuery(plan, input, additionalCrit, preFilteringCrit);
+            Pageable pageable = DataTablesUtils.getPageable(input, plan.getSort());
+
+            long recordsTotal = countTotal(preFilteringCrit);
             if (recordsTotal == 0) {
                 return output;
             }
             output.setRecordsTotal(recordsTotal);
 
-            Query query = DataTablesUtils.getQuery(this.entityInformation, input);
-            if (additionalCrit != null) {
-                query.addCriteria(additionalCrit);
+            long recordsFiltered = countFiltered(query);
+            DataTablesUtils.setRecordsFiltered(output, recordsFiltered, options.getMaxFilteredCount());
+            if (recordsFiltered > 0) {
+                Query paged = toPagedQuery(query, pageable)
+                        .cursorBatchSize(Math.min(pageable.getPageSize(), options.getExportBatchSize()));
+                output.setData(mongoOperations.stream(paged, this.entityInformation.getJavaType(),
+                        this.entityInformation.getCollectionName()));
             }
 
-            if (preFilteringCrit != null) {
-                query.addCriteria(preFilteringCrit);
+        } catch (Exception e) {
+            output.setError(e.toString());
+            output.setRecordsFiltered(0L);
+            log.error("caught exception", e);
+        }
+
+        return output;
+    }
+
+    @Override
+    public <View> DataTablesStreamingOutput<View> findAllStreaming(Class<View> classOfView, DataTablesInput input,
+            Collection<? extends AggregationOperation> additionalOperations,
+            Collection<? extends AggregationOperation> preFilteringOperations) {
+        AggregationOperation[] additionalOps = additionalOperations == null ? null
+                : additionalOperations.toArray(new AggregationOperation[0]);
+        AggregationOperation[] preFilteringOps = preFilteringOperations == null ? null
+                : preFilteringOperations.toArray(new AggregationOperation[0]);
+        return findAllStreaming(classOfView, input, additionalOps, preFilteringOps);
+    }
+
+    /**
+     * Same arguments as {@link #findAll(Class, DataTablesInput, AggregationOperation[], AggregationOperation[])},
+     * so that the pipeline and the counts are the ones of <code>findAll</code>
+     */
+    private <View> DataTablesStreamingOutput<View> findAllStreaming(Class<View> classOfView, DataTablesInput input,
+            AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps) {
+        DataTablesStreamingOutput<View> output = new DataTablesStreamingOutput<View>();
+        output.setDraw(input.getDraw());
+
+        try {
+            final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+            final Pageable pageable = DataTablesUtils.getPageable(input, plan.getSort());
+
+            long recordsTotal = countTotal(preFilteringOps);
+            if (recordsTotal == 0) {
+                return output;
             }
+            output.setRecordsTotal(recordsTotal);
+
+            long recordsFiltered = DataTablesUtils.count(mongoOperations, plan, input, preFilteringOps,
+                    additionalOps, options.getMaxFilteredCount());
+            DataTablesUtils.setRecordsFiltered(output, recordsFiltered, options.getMaxFilteredCount());
+            if (recordsFiltered > 0) {
+                final TypedAggregation<T> aggregation = DataTablesUtils
+                        .makeAggregation(plan, input, pageable, null, getProjection(plan, additionalOps),
+                                preFilteringOps, additionalOps)
+                        .withOptions(AggregationOptions.builder().collation(plan.getCollation())
+                                .cursorBatchSize(Math.min(pageable.getPageSize(), options.getExportBatchSize()))
+                                .build());
+                output.setData(mongoOperations.aggregateStream(aggregation, classOfView));
+            }
+
+        } catch (Exception e) {
+            output.setError(e.toString());
+            output.setRecordsFiltered(0L);
+            output.setRecordsTotal(0L);
+            log.error("caught exception", e);
+        }
+
+        return output;
+    }
+
+    @Override
+    public DataTablesOutput<DataTablesRawRow> findAllRaw(Class<?> serializationView, DataTablesInput input) {
+        return findAllRaw(serializationView, input, null, null);
+    }
+
+    @Override
+    public DataTablesOutput<DataTablesRawRow> findAllRaw(Class<?> serializationView, DataTablesInput input,
+            Criteria additionalCrit, Criteria preFilteringCrit) {
+        return drawSharing.find(DataTablesMetrics.Path.RAW, input,
+                () -> "raw" + KEY_SEPARATOR + (serializationView == null ? "" : serializationView.getName())
+                        + KEY_SEPARATOR + toKey(additionalCrit, preFilteringCrit),
+                (in, counted) -> doFindAllRaw(serializationView, in, additionalCrit, preFilteringCrit, counted));
+    }
+
+    /**
+     * @param counted the output of the previous page, whose counts are reused, <code>null</code> to count
+     */
+    private DataTablesOutput<DataTablesRawRow> doFindAllRaw(Class<?> serializationView, DataTablesInput input,
+            Criteria additionalCrit, Criteria preFilteringCrit, DataTablesOutput<?> counted) {
+        DataTablesOutput<DataTablesRawRow> output = new DataTablesOutput<>();
+        output.setDraw(input.getDraw());
 
-            Pageable pageable = DataTablesUtils.getPageable(input);
+        final DataTablesMetrics.Draw draw = counted == null ? startDraw(DataTablesMetrics.Path.RAW, input)
+                : DataTablesMetrics.Draw.NOOP;
+        try {
+            draw.phase(DataTablesMetrics.Phase.PLAN);
+            DataTablesQueryPlan<T> plan = getQueryPlan(input);
+            Query query = DataTablesUtils.getQuery(plan, input, additionalCrit, preFilteringCrit);
+
+            if (counted != null) {
+                output.setRecordsTotal(counted.getRecordsTotal());
+                setRecordsFiltered(output, counted.getRecordsFiltered());
+                output.setData(findRaw(toPagedQuery(query, DataTablesUtils.getPageable(input, plan.getSort())),
+                        getRawView(serializationView)));
+                return output;
+            }
 
-            Page<T> data = findAll(query, pageable, this.entityInformation.getJavaType());
+            draw.phase(DataTablesMetrics.Phase.COUNT_TOTAL);
+            long recordsTotal = countTotal(preFilteringCrit);
+            if (recordsTotal == 0) {
+                return output;
+            }
+            output.setRecordsTotal(recordsTotal);
 
-            output.setData(data.getContent());
-            output.setRecordsFiltered(data.getTotalElements());
+            draw.phase(DataTablesMetrics.Phase.COUNT_FILTERED);
+            long recordsFiltered = countFiltered(query);
+            setRecordsFiltered(output, recordsFiltered);
+            if (recordsFiltered > 0) {
+                draw.phase(DataTablesMetrics.Phase.FETCH);
+                output.setData(findRaw(toPagedQuery(query, DataTablesUtils.getPageable(input, plan.getSort())),
+                        getRawView(serializationView)));
+            }
 
         } catch (Exception e) {
+            draw.error(e);
             output.setError(e.toString());
             output.setRecordsFiltered(0L);
             log.error("caught exception", e);
+        } finally {
+            draw.end(output);
         }
 
         return output;
     }
 
+    private DataTablesRawView getRawView(Class<?> serializationView) {
+        // ConcurrentHashMap does not accept null keys
+        return rawViews.computeIfAbsent(serializationView == null ? Void.class : serializationView,
+                view -> DataTablesRawView.of(getObjectMapper(), mongoOperations.getConverter().getMappingContext(),
+                        getPersistentEntity(), serializationView));
+    }
+
+    private MongoPersistentEntity<?> getPersistentEntity() {
+        return mongoOperations.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(this.entityInformation.getJavaType());
+    }
+
+    private static Document getRawProjection(Query paged, DataTablesRawView view) {
+        final Document projection = view.getProjection();
+        if (paged.getFieldsObject().containsKey(DataTablesUtils.TEXT_SCORE_FIELD)) {
+            projection.put(DataTablesUtils.TEXT_SCORE_FIELD, DataTablesUtils.textScore());
+        }
+        return projection;
+    }
+
+    /**
+     * Fetches the documents of the query as {@link RawBsonDocument}s, only mapping the query itself
+     */
+    private List<DataTablesRawRow> findRaw(Query paged, DataTablesRawView view) {
+        final MongoPersistentEntity<?> entity = getPersistentEntity();
+        final QueryMapper queryMapper = new QueryMapper(mongoOperations.getConverter());
+        final Document filter = queryMapper.getMappedObject(paged.getQueryObject(), entity);
+        final Document sort = queryMapper.getMappedSort(paged.getSortObject(), entity);
+
+        return mongoOperations.execute(this.entityInformation.getCollectionName(), collection -> {
+            FindIterable<RawBsonDocument> documents = collection.withDocumentClass(RawBsonDocument.class)
+                    .find(filter).projection(getRawProjection(paged, view)).sort(sort).skip((int) paged.getSkip());
+            if (paged.getLimit() > 0) {
+                documents = documents.limit(paged.getLimit());
+            }
+            if (paged.getCollation().isPresent()) {
+                documents = documents.collation(paged.getCollation().get().toMongoCollation());
+            }
+            final List<DataTablesRawRow> rows = new ArrayList<>();
+            for (final RawBsonDocument document : documents) {
+                rows.add(new DataTablesRawRow(document, view));
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public long export(DataTablesInput input, DataTablesExportFormat format, OutputStream out) throws IOException {
+        return export(input, null, null, format, out);
+    }
+
+    @Override
+    public long export(DataTablesInput input, Criteria additionalCrit, Criteria preFilteringCrit,
+            DataTablesExportFormat format, OutputStream out) throws IOException {
+        final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+        final Query query = getQuery(plan, input, additionalCrit, preFilteringCrit);
+        final Query paged = toPagedQuery(query, DataTablesUtils.getPageable(input, plan.getSort()))
+                .cursorBatchSize(options.getExportBatchSize());
+
+        try (CloseableIterator<T> rows = mongoOperations.stream(paged, this.entityInformation.getJavaType(),
+                this.entityInformation.getCollectionName())) {
+            return export(rows, input, format, out);
+        }
+    }
+
+    @Override
+    public <View> long export(Class<View> classOfView, DataTablesInput input, DataTablesExportFormat format,
+            OutputStream out, AggregationOperation... operations) throws IOException {
+        return export(classOfView, input, operations, null, format, out);
+    }
+
+    @Override
+    public <View> long export(Class<View> classOfView, DataTablesInput input,
+            Collection<? extends AggregationOperation> additionalOperations,
+            Collection<? extends AggregationOperation> preFilteringOperations, DataTablesExportFormat format,
+            OutputStream out) throws IOException {
+        AggregationOperation[] additionalOps = additionalOperations == null ? null
+                : additionalOperations.toArray(new AggregationOperation[0]);
+        AggregationOperation[] preFilteringOps = preFilteringOperations == null ? null
+                : preFilteringOperations.toArray(new AggregationOperation[0]);
+        return export(classOfView, input, additionalOps, preFilteringOps, format, out);
+    }
+
+    private <View> long export(Class<View> classOfView, DataTablesInput input,
+            AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps,
+            DataTablesExportFormat format, OutputStream out) throws IOException {
+        final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+        final Pageable pageable = DataTablesUtils.getPageable(input, plan.getSort());
+
+        // large exports may sort more than the in-memory limit of the aggregation
+        final TypedAggregation<T> aggregation = DataTablesUtils
+                .makeAggregation(plan, input, pageable, null, getProjection(plan, additionalOps), preFilteringOps,
+                        additionalOps)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).collation(plan.getCollation())
+                        .cursorBatchSize(options.getExportBatchSize()).build());
+
+        try (CloseableIterator<View> rows = mongoOperations.aggregateStream(aggregation, classOfView)) {
+            return export(rows, input, format, out);
+        }
+    }
+
+    private long export(CloseableIterator<?> rows, DataTablesInput input, DataTablesExportFormat format,
+            OutputStream out) throws IOException {
+        try (DataTablesExportWriter writer = new DataTablesExportWriter(getObjectMapper(), format,
+                input.getColumns(), options.isCsvFormulaEscaping(), out)) {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+            }
+            return writer.getCount();
+        }
+    }
+
+    /**
+     * Called before the repository is used, as the column names of the metamodel follow the mapper
+     *
+     * @param objectMapper the {@link ObjectMapper} of the rows unless the options set one, e.g. the bean of the
+     *        application, instead of a default one
+     */
+    void setDefaultObjectMapper(ObjectMapper objectMapper) {
+        this.defaultObjectMapper = objectMapper;
+        if (options.getObjectMapper() == null) {
+            this.metamodel = new DataTablesEntityMetamodel<>(entityInformation.getJavaType(),
+                    mongoOperations.getConverter().getMappingContext(), objectMapper);
+            queryPlans.clear();
+        }
+    }
+
+    private ObjectMapper getObjectMapper() {
+        if (options.getObjectMapper() != null) {
+            return options.getObjectMapper();
+        }
+        if (defaultObjectMapper == null) {
+            defaultObjectMapper = new ObjectMapper().findAndRegisterModules();
+        }
+        return defaultObjectMapper;
+    }
+
+    /**
+     * Creates the query of the input, with the projection of the columns if enabled
+     */
+    private Query getQuery(DataTablesQueryPlan<T> plan, DataTablesInput input, Criteria additionalCrit,
+            Criteria preFilteringCrit) {
+        final Query query = DataTablesUtils.getQuery(plan, input, additionalCrit, preFilteringCrit);
+        if (!options.isFieldProjection()) {
+            return query;
+        }
+        final Query projected = new BasicQuery(query.getQueryObject(), plan.getProjection());
+        query.getCollation().ifPresent(projected::collation);
+        return projected;
+    }
+
+    /**
+     * @return the projection of the columns if enabled, <code>null</code> otherwise, or if there are additional
+     *         operations (which may need other fields)
+     */
+    private Document getProjection(DataTablesQueryPlan<T> plan, AggregationOperation[] additionalOps) {
+        if (!options.isFieldProjection() || (additionalOps != null && additionalOps.length > 0)) {
+            return null;
+        }
+        return plan.getProjection();
+    }
+
+    private Sort getSort(DataTablesQueryPlan<T> plan) {
+        return options.isKeysetPagination() ? DataTablesCursor.withTieBreaker(metamodel, plan.getSort())
+                : plan.getSort();
+    }
+
+    /**
+     * Decodes the cursor of the input, if it points to the requested page
+     *
+     * @return the cursor, or <code>null</code> if the page has to be fetched with <code>skip</code>
+     */
+    private DataTablesCursor getCursor(DataTablesInput input, Pageable pageable, int filterHash) {
+        if (!options.isKeysetPagination() || !StringUtils.hasLength(input.getCursor())) {
+            return null;
+        }
+        final DataTablesCursor cursor = DataTablesCursor.decode(input.getCursor());
+        if (cursor != null && !cursor.matches(input.getStart(), pageable.getSort(), filterHash)) {
+            // e.g. a random page jump, or the filter was changed
+            log.debug("cursor does not match the requested page, falling back to skip");
+            return null;
+        }
+        return cursor;
+    }
+
+    /**
+     * Same as {@link #toPagedQuery(Query, Pageable)}, with the text score in the sort (and the projection, as
+     * required before MongoDB 4.4)
+     */
+    private static Query toPagedQueryByTextScore(Query q, Pageable p) {
+        final Document fields = new Document(q.getFieldsObject());
+        fields.put(DataTablesUtils.TEXT_SCORE_FIELD, DataTablesUtils.textScore());
+        BasicQuery paged = new BasicQuery(q.getQueryObject(), fields);
+        q.getCollation().ifPresent(paged::collation);
+        paged.setSortObject(DataTablesUtils.toSortObject(p.getSort(), UnaryOperator.identity()));
+        if (!p.isUnpaged()) {
+            paged.limit(p.getPageSize()).skip(p.getOffset());
+        }
+        return paged;
+    }
+
+    /**
+     * Fetches the page with the range predicate of the cursor, or with <code>skip</code> if there is no cursor
+     */
+    private List<T> find(Query q, Pageable p, DataTablesCursor cursor) {
+        return find(q, p, cursor, null);
+    }
+
+    /**
+     * @param maxTime server-side time limit of the fetch, <code>null</code> for none
+     */
+    private List<T> find(Query q, Pageable p, DataTablesCursor cursor, Duration maxTime) {
+        final Query paged = toPagedQuery(q, p, cursor);
+        if (maxTime != null) {
+            paged.maxTime(maxTime);
+        }
+        return reverseIfPrevious(mongoOperations.find(paged, this.entityInformation.getJavaType(),
+                this.entityInformation.getCollectionName()), cursor);
+    }
+
+    private static Query toPagedQuery(Query q, Pageable p, DataTablesCursor cursor) {
+        if (cursor == null) {
+            return toPagedQuery(q, p);
+        }
+        Query seek = new BasicQuery(DataTablesUtils.and(Arrays.asList(q.getQueryObject(), cursor.toPredicate())),
+                q.getFieldsObject());
+        q.getCollation().ifPresent(seek::collation);
+        return toPagedQuery(seek, DataTablesUtils.getPageable(p, cursor));
+    }
+
+    private static <R> List<R> reverseIfPrevious(List<R> rows, DataTablesCursor cursor) {
+        if (cursor == null || !cursor.isPrevious()) {
+            return rows;
+        }
+        final List<R> reversed = new ArrayList<>(rows);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    /**
+     * Sets the cursors of the pages before and after the fetched one
+     *
+     * @param output
+     * @param rows the fetched rows, either the mapped ones or the raw {@link Document}s
+     * @param recordsFiltered the (uncapped) filtered count
+     * @param start
+     * @param pageable
+     * @param filterHash
+     */
+    private void setCursors(DataTablesOutput<?> output, List<?> rows, long recordsFiltered, int start,
+            Pageable pageable, int filterHash) {
+        if (!options.isKeysetPagination() || rows == null || rows.isEmpty()) {
+            return;
+        }
+        final int length = pageable.getPageSize();
+        final MongoConverter converter = mongoOperations.getConverter();
+        if (start + rows.size() < recordsFiltered) {
+            final DataTablesCursor next = DataTablesCursor.of(converter, metamodel, rows.get(rows.size() - 1),
+                    pageable.getSort(), start + length, false, filterHash);
+            output.setNextCursor(next == null ? null : next.encode());
+        }
+        if (start >= length) {
+            final DataTablesCursor previous = DataTablesCursor.of(converter, metamodel, rows.get(0),
+                    pageable.getSort(), start - length, true, filterHash);
+            output.setPreviousCursor(previous == null ? null : previous.encode());
+        }
+    }
+
+    private int getFilterHash(DataTablesQueryPlan<T> plan, DataTablesInput input,
+            AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps) {
+        if (!options.isKeysetPagination()) {
+            return 0;
+        }
+        return Objects.hash(DataTablesUtils.toKey(plan.bind(input)), DataTablesUtils.toKey(preFilteringOps),
+                DataTablesUtils.toKey(additionalOps));
+    }
+
+    private static void cancel(CompletableFuture<?>[] futures) {
+        for (final CompletableFuture<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Waits for the given future, and rethrows the original failure of any of the related futures.
+     */
+    private static <R> R await(CompletableFuture<R> future, CompletableFuture<?>[] all) throws Exception {
+        try {
+            return future.join();
+        } catch (CancellationException | CompletionException e) {
+            for (final CompletableFuture<?> other : all) {
+                if (other.isCompletedExceptionally() && !other.isCancelled()) {
+                    try {
+                        other.join();
+                    } catch (CompletionException ce) {
+                        if (ce.getCause() instanceof Exception) {
+                            throw (Exception) ce.getCause();
+                        }
+                    }
+                }
+            }
+            throw e;
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -148,29 +1085,61 @@ public class DataTablesRepositoryImpl<T, ID extends Serializable> extends Simple
 
     private <View> DataTablesOutput<View> findAll(Class<View> classOfView, DataTablesInput input,
             AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps) {
+        return drawSharing.find(DataTablesMetrics.Path.AGGREGATION, input,
+                () -> toKey(classOfView, preFilteringOps, additionalOps),
+                (in, counted) -> doFindAll(classOfView, in, preFilteringOps, additionalOps, counted));
+    }
+
+    /**
+     * @param counted the output of the previous page, whose counts are reused, <code>null</code> to count
+     */
+    private <View> DataTablesOutput<View> doFindAll(Class<View> classOfView, DataTablesInput input,
+            AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps,
+            DataTablesOutput<?> counted) {
         DataTablesOutput<View> output = new DataTablesOutput<View>();
         output.setDraw(input.getDraw());
 
+        final DataTablesMetrics.Draw draw = counted == null ? startDraw(DataTablesMetrics.Path.AGGREGATION, input)
+                : DataTablesMetrics.Draw.NOOP;
         try {
-            // TODO here count() may not be accurate because Aggregation is not simply a filter
-            long recordsTotal = count();
+            draw.phase(DataTablesMetrics.Phase.PLAN);
+            // $text cannot be used in $facet
+            if (counted == null && options.isFacetAggregation() && input.getLength() != -1
+                    && !getQueryPlan(input).hasTextSearch()) {
+                DataTablesOutput<View> data = findPageWithFacet(classOfView, input, preFilteringOps, additionalOps,
+                        draw);
+
+                output.setData(data.getData());
+                output.setRecordsTotal(data.getRecordsTotal());
+                setRecordsFiltered(output, data.getRecordsFiltered());
+                output.setNextCursor(data.getNextCursor());
+                output.setPreviousCursor(data.getPreviousCursor());
+                return output;
+            }
+
+            draw.phase(DataTablesMetrics.Phase.COUNT_TOTAL);
+            long recordsTotal = counted == null ? countTotal(preFilteringOps) : counted.getRecordsTotal();
             if (recordsTotal == 0) {
                 return output;
             }
             output.setRecordsTotal(recordsTotal);
 
-            DataTablesOutput<View> data = findPage(this.entityInformation, classOfView, input, preFilteringOps,
-                    additionalOps);
+            DataTablesOutput<View> data = findPage(classOfView, input, preFilteringOps, additionalOps,
+                    counted == null ? null : counted.getRecordsFiltered(), draw);
 
             output.setData(data.getData());
-            output.setRecordsTotal(data.getRecordsTotal());
-            output.setRecordsFiltered(data.getRecordsFiltered());
+            setRecordsFiltered(output, data.getRecordsFiltered());
+            output.setNextCursor(data.getNextCursor());
+            output.setPreviousCursor(data.getPreviousCursor());
 
         } catch (Exception e) {
+            draw.error(e);
             output.setError(e.toString());
             output.setRecordsFiltered(0L);
             output.setRecordsTotal(0L);
             log.error("caught exception", e);
+        } finally {
+            draw.end(output);
         }
 
         return output;
@@ -200,36 +1169,385 @@ public class DataTablesRepositoryImpl<T, ID extends Serializable> extends Simple
         return findAll(classOfView, input, additionalOps, preFilteringOps);
     }
 
-    private <View> DataTablesOutput<View> findPage(MongoEntityInformation<T, ID> entityInformation,
-            Class<View> classOfView, DataTablesInput input, AggregationOperation[] preFilteringOps,
-            AggregationOperation[] additionalOps) {
-        final Pageable pageable = DataTablesUtils.getPageable(input);
-
-        long countTotal = DataTablesUtils.count(mongoOperations, entityInformation, input, null, null);
+    /**
+     * @param recordsFiltered the filtered count of the previous page, <code>null</code> to count
+     */
+    private <View> DataTablesOutput<View> findPage(Class<View> classOfView, DataTablesInput input,
+            AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps, Long recordsFiltered,
+            DataTablesMetrics.Draw draw) {
+        draw.phase(DataTablesMetrics.Phase.PLAN);
+        final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+        final boolean paged = input.getLength() != -1;
+        final Pageable pageable = DataTablesUtils.getPageable(input, getSort(plan));
+        final int filterHash = getFilterHash(plan, input, preFilteringOps, additionalOps);
+        final DataTablesCursor cursor = paged ? getCursor(input, pageable, filterHash) : null;
 
         DataTablesOutput<View> result = new DataTablesOutput<>();
 
-        if (countTotal == 0) {
-            result.setRecordsFiltered(0);
-            result.setRecordsTotal(0);
+        draw.phase(DataTablesMetrics.Phase.COUNT_FILTERED);
+        long countFiltered = recordsFiltered != null ? recordsFiltered
+                : DataTablesUtils.count(mongoOperations, plan, input, preFilteringOps, additionalOps,
+                        options.getMaxFilteredCount());
+        if (countFiltered == 0) {
             result.setData(Collections.emptyList());
             return result;
         }
 
-        long countFiltered = DataTablesUtils.count(mongoOperations, entityInformation, input, preFilteringOps,
+        draw.phase(DataTablesMetrics.Phase.PLAN);
+        final TypedAggregation<T> aggWithPage = makePageAggregation(plan, input, pageable, cursor, preFilteringOps,
                 additionalOps);
 
-        final TypedAggregation<T> aggWithPage = DataTablesUtils.makeAggregation(entityInformation, input,
-                pageable, preFilteringOps, additionalOps);
+        draw.phase(DataTablesMetrics.Phase.FETCH);
 
         AggregationResults<View> aggResult = mongoOperations.aggregate(aggWithPage, classOfView);
         if (aggResult != null) {
             result.setRecordsFiltered(countFiltered);
-            result.setRecordsTotal(countTotal);
-            result.setData(aggResult.getMappedResults());
+            result.setData(reverseIfPrevious(aggResult.getMappedResults(), cursor));
+            if (paged) {
+                setCursors(result, result.getData(), countFiltered, input.getStart(), pageable, filterHash);
+            }
         }
 
         return result;
     }
 
+    /**
+     * Same as {@link #findPage}, but in a single round-trip with <code>$facet</code>
+     */
+    private <View> DataTablesOutput<View> findPageWithFacet(Class<View> classOfView, DataTablesInput input,
+            AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps,
+            DataTablesMetrics.Draw draw) {
+        final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+        final Pageable pageable = DataTablesUtils.getPageable(input, getSort(plan));
+        final int filterHash = getFilterHash(plan, input, preFilteringOps, additionalOps);
+        final DataTablesCursor cursor = getCursor(input, pageable, filterHash);
+
+        final TypedAggregation<T> aggWithFacet = makeFacetAggregation(plan, input, pageable, cursor, preFilteringOps,
+                additionalOps);
+
+        DataTablesOutput<View> result = new DataTablesOutput<>();
+
+        draw.phase(DataTablesMetrics.Phase.FETCH);
+        final Document facets = mongoOperations.aggregate(aggWithFacet, Document.class).getUniqueMappedResult();
+        if (facets != null) {
+            result.setRecordsTotal(DataTablesUtils.getFacetCount(facets, DataTablesUtils.FACET_TOTAL));
+            result.setRecordsFiltered(DataTablesUtils.getFacetCount(facets, DataTablesUtils.FACET_FILTERED));
+
+            draw.phase(DataTablesMetrics.Phase.MAP);
+            final List<Document> page = reverseIfPrevious(
+                    facets.getList(DataTablesUtils.FACET_PAGE, Document.class), cursor);
+            final List<View> data = new ArrayList<>(page.size());
+            for (final Document row : page) {
+                data.add(mongoOperations.getConverter().read(classOfView, row));
+            }
+            result.setData(data);
+            setCursors(result, page, result.getRecordsFiltered(), input.getStart(), pageable, filterHash);
+        }
+
+        return result;
+    }
+
+    private TypedAggregation<T> makePageAggregation(DataTablesQueryPlan<T> plan, DataTablesInput input,
+            Pageable pageable, DataTablesCursor cursor, AggregationOperation[] preFilteringOps,
+            AggregationOperation[] additionalOps) {
+        return DataTablesUtils.makeAggregation(plan, input,
+                cursor == null ? pageable : DataTablesUtils.getPageable(pageable, cursor),
+                cursor == null ? null : cursor.toPredicate(), getProjection(plan, additionalOps), preFilteringOps,
+                additionalOps);
+    }
+
+    private TypedAggregation<T> makeFacetAggregation(DataTablesQueryPlan<T> plan, DataTablesInput input,
+            Pageable pageable, DataTablesCursor cursor, AggregationOperation[] preFilteringOps,
+            AggregationOperation[] additionalOps) {
+        return DataTablesUtils.makeFacetAggregation(plan, input,
+                cursor == null ? pageable : DataTablesUtils.getPageable(pageable, cursor),
+                cursor == null ? null : cursor.toPredicate(), getProjection(plan, additionalOps), preFilteringOps,
+                additionalOps, options.getMaxFilteredCount());
+    }
+
+    @Override
+    public List<DataTablesOutput<T>> findAllBatch(List<DataTablesBatchInput> inputs) {
+        for (final DataTablesBatchInput input : inputs) {
+            Assert.isTrue(!input.hasOperations(), "aggregation operations require findAllBatch(Class, List)");
+        }
+        final DataTablesBatch batch = new DataTablesBatch(DataTablesExecutor.callerRunsOnRejection(getExecutor()));
+        final List<CompletableFuture<DataTablesOutput<T>>> draws = new ArrayList<>(inputs.size());
+        for (final DataTablesBatchInput input : inputs) {
+            draws.add(findAll(batch, input.getInput(), input.getAdditionalCriteria(),
+                    input.getPreFilteringCriteria()));
+        }
+        return join(batch, draws);
+    }
+
+    @Override
+    public <View> List<DataTablesOutput<View>> findAllBatch(Class<View> classOfView,
+            List<DataTablesBatchInput> inputs) {
+        final DataTablesBatch batch = new DataTablesBatch(DataTablesExecutor.callerRunsOnRejection(getExecutor()));
+        final List<CompletableFuture<DataTablesOutput<View>>> draws = new ArrayList<>(inputs.size());
+        for (final DataTablesBatchInput input : inputs) {
+            final List<AggregationOperation> additionalOperations = new ArrayList<>(input.getAdditionalOperations());
+            final List<AggregationOperation> preFilteringOperations = new ArrayList<>(
+                    input.getPreFilteringOperations());
+            // a table has either criteria or operations: findAll(Class, DataTablesInput, Collection, Collection)
+            // counts the additional operations in recordsTotal, as findAll(DataTablesInput, Criteria, Criteria)
+            // does with the pre-filtering criteria
+            if (input.getPreFilteringCriteria() != null) {
+                additionalOperations.add(Aggregation.match(input.getPreFilteringCriteria()));
+            }
+            if (input.getAdditionalCriteria() != null) {
+                preFilteringOperations.add(Aggregation.match(input.getAdditionalCriteria()));
+            }
+            // same argument mapping as findAll(Class, DataTablesInput, Collection, Collection)
+            draws.add(findAll(batch, classOfView, input.getInput(),
+                    additionalOperations.toArray(new AggregationOperation[0]),
+                    preFilteringOperations.toArray(new AggregationOperation[0])));
+        }
+        return join(batch, draws);
+    }
+
+    /**
+     * Same as {@link #findAll(DataTablesInput, Criteria, Criteria)}, with the queries submitted to the batch
+     */
+    private CompletableFuture<DataTablesOutput<T>> findAll(DataTablesBatch batch, DataTablesInput input,
+            Criteria additionalCrit, Criteria preFilteringCrit) {
+        final DataTablesOutput<T> output = new DataTablesOutput<T>();
+        output.setDraw(input.getDraw());
+
+        final DataTablesMetrics.Draw draw = startDraw(DataTablesMetrics.Path.CRITERIA, input);
+        try {
+            draw.phase(DataTablesMetrics.Phase.PLAN);
+            final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+            final Query query = getQuery(plan, input, additionalCrit, preFilteringCrit);
+
+            final boolean paged = input.getLength() != -1;
+            final Pageable pageable = DataTablesUtils.getPageable(input, getSort(plan));
+            final String filterKey = DataTablesUtils.toKey(query.getQueryObject());
+            final int filterHash = options.isKeysetPagination() ? filterKey.hashCode() : 0;
+            final DataTablesCursor cursor = paged ? getCursor(input, pageable, filterHash) : null;
+            draw.phase(null);
+
+            final CompletableFuture<Long> total = batch.submit(
+                    getTotalCountKey(preFilteringCrit == null ? ""
+                            : DataTablesUtils.toKey(preFilteringCrit.getCriteriaObject())),
+                    draw.timed(DataTablesMetrics.Phase.COUNT_TOTAL, () -> countTotal(preFilteringCrit)));
+            final CompletableFuture<Long> filtered = batch.submit(
+                    "filtered:" + filterKey + query.getCollation().map(c -> DataTablesUtils.toKey(c.toDocument()))
+                            .orElse(""),
+                    draw.timed(DataTablesMetrics.Phase.COUNT_FILTERED, () -> countFiltered(query)));
+            final CompletableFuture<List<T>> data = batch.submit(null,
+                    draw.timed(DataTablesMetrics.Phase.FETCH, () -> find(query, pageable, cursor)));
+
+            // a failure is rethrown by the join of the failed query
+            return CompletableFuture.allOf(total, filtered, data)
+                    .handle((ignored, e) -> complete(output, draw, null, () -> {
+                        final long recordsTotal = total.join();
+                        if (recordsTotal == 0) {
+                            return;
+                        }
+                        output.setRecordsTotal(recordsTotal);
+                        final long recordsFiltered = filtered.join();
+                        setRecordsFiltered(output, recordsFiltered);
+                        if (recordsFiltered > 0) {
+                            output.setData(data.join());
+                            if (paged) {
+                                setCursors(output, output.getData(), recordsFiltered, input.getStart(), pageable,
+                                        filterHash);
+                            }
+                        }
+                    }, false));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(complete(output, draw, e, null, false));
+        }
+    }
+
+    /**
+     * Same as {@link #findPage}, with the queries submitted to the batch
+     */
+    private <View> CompletableFuture<DataTablesOutput<View>> findAll(DataTablesBatch batch, Class<View> classOfView,
+            DataTablesInput input, AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps) {
+        final DataTablesOutput<View> output = new DataTablesOutput<View>();
+        output.setDraw(input.getDraw());
+
+        final DataTablesMetrics.Draw draw = startDraw(DataTablesMetrics.Path.AGGREGATION, input);
+        try {
+            draw.phase(DataTablesMetrics.Phase.PLAN);
+            final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+            final boolean paged = input.getLength() != -1;
+            final Pageable pageable = DataTablesUtils.getPageable(input, getSort(plan));
+            final int filterHash = getFilterHash(plan, input, preFilteringOps, additionalOps);
+            final DataTablesCursor cursor = paged ? getCursor(input, pageable, filterHash) : null;
+            final TypedAggregation<T> aggCount = DataTablesUtils.makeAggregationCountOnly(plan, input,
+                    preFilteringOps, additionalOps, options.getMaxFilteredCount());
+            final TypedAggregation<T> aggWithPage = makePageAggregation(plan, input, pageable, cursor,
+                    preFilteringOps, additionalOps);
+            draw.phase(null);
+
+            final String countKey = DataTablesUtils.toKey(aggCount);
+            final CompletableFuture<Long> total = batch.submit(
+                    getTotalCountKey(preFilteringOps.length == 0 ? "" : DataTablesUtils.toKey(preFilteringOps)),
+                    draw.timed(DataTablesMetrics.Phase.COUNT_TOTAL, () -> countTotal(preFilteringOps)));
+            final CompletableFuture<Long> filtered = batch.submit(countKey == null ? null : "filtered:" + countKey,
+                    draw.timed(DataTablesMetrics.Phase.COUNT_FILTERED,
+                            () -> DataTablesUtils.count(mongoOperations, aggCount)));
+            final CompletableFuture<List<View>> data = batch.submit(null,
+                    draw.timed(DataTablesMetrics.Phase.FETCH, () -> reverseIfPrevious(
+                            mongoOperations.aggregate(aggWithPage, classOfView).getMappedResults(), cursor)));
+
+            // a failure is rethrown by the join of the failed query
+            return CompletableFuture.allOf(total, filtered, data)
+                    .handle((ignored, e) -> complete(output, draw, null, () -> {
+                        final long recordsTotal = total.join();
+                        if (recordsTotal == 0) {
+                            return;
+                        }
+                        output.setRecordsTotal(recordsTotal);
+                        final long recordsFiltered = filtered.join();
+                        setRecordsFiltered(output, recordsFiltered);
+                        if (recordsFiltered > 0) {
+                            output.setData(data.join());
+                            if (paged) {
+                                setCursors(output, output.getData(), recordsFiltered, input.getStart(), pageable,
+                                        filterHash);
+                            }
+                        }
+                    }, true));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(complete(output, draw, e, null, true));
+        }
+    }
+
+    /**
+     * @param preFilterKey key of the pre-filter, <code>null</code> if it cannot be shared
+     * @return key of the total count in a batch, the same for criteria and aggregations without pre-filter
+     */
+    private static String getTotalCountKey(String preFilterKey) {
+        return preFilterKey == null ? null : "total:" + preFilterKey;
+    }
+
+    /**
+     * Completes the output of a draw of a batch, with the same error output as the <code>findAll</code> of the draw
+     *
+     * @param output
+     * @param draw
+     * @param failure the failure of the draw before its queries were submitted, <code>null</code> if none
+     * @param result sets the results of the queries into the output in the order of <code>findAll</code>, so
+     *            that a failing query leaves the results set before it, <code>null</code> if there is a failure
+     * @param resetTotal whether <code>recordsTotal</code> is reset on failure, as the aggregation
+     *            <code>findAll</code> does
+     * @return the output
+     */
+    private static <R> DataTablesOutput<R> complete(DataTablesOutput<R> output, DataTablesMetrics.Draw draw,
+            Throwable failure, Runnable result, boolean resetTotal) {
+        try {
+            if (result == null) {
+                throw unwrap(failure);
+            }
+            result.run();
+        } catch (Exception e) {
+            final Exception cause = unwrap(e);
+            draw.error(cause);
+            output.setError(cause.toString());
+            output.setRecordsFiltered(0L);
+            if (resetTotal) {
+                output.setRecordsTotal(0L);
+            }
+            log.error("caught exception", cause);
+        } finally {
+            draw.end(output);
+        }
+        return output;
+    }
+
+    private static Exception unwrap(Throwable failure) {
+        final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return cause instanceof Exception ? (Exception) cause : new IllegalStateException(cause);
+    }
+
+    /**
+     * Waits for the outputs of the draws of a batch, in order
+     */
+    private static <R> List<DataTablesOutput<R>> join(DataTablesBatch batch,
+            List<CompletableFuture<DataTablesOutput<R>>> draws) {
+        final List<DataTablesOutput<R>> outputs = new ArrayList<>(draws.size());
+        for (final CompletableFuture<DataTablesOutput<R>> draw : draws) {
+            outputs.add(draw.join());
+        }
+        log.debug("batch of {} draws shared {} queries", draws.size(), batch.getSharedCount());
+        return outputs;
+    }
+
+    @Override
+    public List<DataTablesExplanation> explain(DataTablesInput input) {
+        return explain(input, null, null);
+    }
+
+    @Override
+    public List<DataTablesExplanation> explain(DataTablesInput input, Criteria additionalCrit,
+            Criteria preFilteringCrit) {
+        final DataTablesExplainer explainer = getExplainer();
+        final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+        final Query query = getQuery(plan, input, additionalCrit, preFilteringCrit);
+        final Pageable pageable = DataTablesUtils.getPageable(input, getSort(plan));
+        final int filterHash = options.isKeysetPagination()
+                ? DataTablesUtils.toKey(query.getQueryObject()).hashCode()
+                : 0;
+        final DataTablesCursor cursor = input.getLength() != -1 ? getCursor(input, pageable, filterHash) : null;
+
+        final List<DataTablesExplanation> explanations = new ArrayList<>(3);
+        explanations.add(explainer.explainCount(DataTablesExplanation.RECORDS_TOTAL,
+                preFilteringCrit == null ? new Query() : query(preFilteringCrit)));
+        explanations.add(explainer.explainCount(DataTablesExplanation.RECORDS_FILTERED, toFilteredCountQuery(query)));
+        explanations.add(explainer.explainFind(DataTablesExplanation.DATA, toPagedQuery(query, pageable, cursor)));
+        return explanations;
+    }
+
+    @Override
+    public List<DataTablesExplanation> explainAggregation(DataTablesInput input,
+            Collection<? extends AggregationOperation> additionalOperations,
+            Collection<? extends AggregationOperation> preFilteringOperations) {
+        AggregationOperation[] additionalOps = additionalOperations == null ? null
+                : additionalOperations.toArray(new AggregationOperation[0]);
+        AggregationOperation[] preFilteringOps = preFilteringOperations == null ? null
+                : preFilteringOperations.toArray(new AggregationOperation[0]);
+        // same order as findAll(Class, DataTablesInput, Collection, Collection)
+        return explainAggregation(input, additionalOps, preFilteringOps);
+    }
+
+    private List<DataTablesExplanation> explainAggregation(DataTablesInput input,
+            AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps) {
+        final DataTablesExplainer explainer = getExplainer();
+        final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+        final boolean paged = input.getLength() != -1;
+        final Pageable pageable = DataTablesUtils.getPageable(input, getSort(plan));
+        final int filterHash = getFilterHash(plan, input, preFilteringOps, additionalOps);
+        final DataTablesCursor cursor = paged ? getCursor(input, pageable, filterHash) : null;
+
+        if (options.isFacetAggregation() && paged && !plan.hasTextSearch()) {
+            return Collections.singletonList(explainer.explainAggregation(DataTablesExplanation.FACET,
+                    makeFacetAggregation(plan, input, pageable, cursor, preFilteringOps, additionalOps)));
+        }
+
+        final List<DataTablesExplanation> explanations = new ArrayList<>(3);
+        explanations.add(preFilteringOps == null || preFilteringOps.length == 0
+                ? explainer.explainCount(DataTablesExplanation.RECORDS_TOTAL, new Query())
+                : explainer.explainAggregation(DataTablesExplanation.RECORDS_TOTAL,
+                        DataTablesUtils.makeAggregationCountOnly(metamodel, preFilteringOps)));
+        explanations.add(explainer.explainAggregation(DataTablesExplanation.RECORDS_FILTERED,
+                DataTablesUtils.makeAggregationCountOnly(plan, input, preFilteringOps, additionalOps,
+                        options.getMaxFilteredCount())));
+        explanations.add(explainer.explainAggregation(DataTablesExplanation.DATA,
+                makePageAggregation(plan, input, pageable, cursor, preFilteringOps, additionalOps)));
+        return explanations;
+    }
+
+    private DataTablesExplainer getExplainer() {
+        return new DataTablesExplainer(mongoOperations, getPersistentEntity(),
+                this.entityInformation.getCollectionName());
+    }
+
 }
@@ -0,0 +1,181 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+
+/**
+ * Cache of the outputs of draws, keyed by the canonical key of the draw.
+ * <p>
+ * Bounded by a count of entries and a count of rows (the weight), the least recently used entries being evicted
+ * first, and by a time-to-live. Outputs with an error are not cached.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+class DataTablesResultCache {
+
+    private final long ttlNanos;
+
+    private final int maximumSize;
+
+    private final long maximumRows;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * incremented on each invalidation, so that a draw started before cannot put an outdated output back
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * count of rows of the entries, guarded by {@link #entries}
+     */
+    private long rows;
+
+    DataTablesResultCache(Duration ttl, int maximumSize, long maximumRows) {
+        this.ttlNanos = ttl == null ? 0L : ttl.toNanos();
+        this.maximumSize = maximumSize;
+        this.maximumRows = maximumRows;
+    }
+
+    boolean isEnabled() {
+        return ttlNanos > 0 && maximumSize > 0 && maximumRows > 0;
+    }
+
+    /**
+     * Returns the cached output, or <code>null</code> if absent or expired
+     *
+     * @param key
+     * @return
+     */
+    DataTablesOutput<?> get(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.loadedAt > ttlNanos) {
+                remove(key);
+                evictionCount.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.output;
+    }
+
+    /**
+     * Same as {@link #get(String)}, but removes the output, which is served once
+     *
+     * @param key
+     * @return
+     */
+    DataTablesOutput<?> take(String key) {
+        final DataTablesOutput<?> output = get(key);
+        if (output != null) {
+            synchronized (entries) {
+                remove(key);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * @param key
+     * @return whether an output which is not expired is cached, without counting a lookup
+     */
+    boolean contains(String key) {
+        synchronized (entries) {
+            final Entry entry = entries.get(key);
+            return entry != null && System.nanoTime() - entry.loadedAt <= ttlNanos;
+        }
+    }
+
+    /**
+     * @return the generation to pass to {@link #put(String, DataTablesOutput, long)}, taken before the draw
+     */
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches an output, unless the cache was invalidated since the draw started, or the output has an error or is
+     * heavier than the whole cache
+     *
+     * @param key
+     * @param output must not be modified afterwards
+     * @param startGeneration the generation when the draw started
+     */
+    void put(String key, DataTablesOutput<?> output, long startGeneration) {
+        final int weight = weigh(output);
+        if (output.getError() != null || weight > maximumRows) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation.get() != startGeneration) {
+                return;
+            }
+            remove(key);
+            entries.put(key, new Entry(output, weight));
+            rows += weight;
+            final Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maximumSize || rows > maximumRows) {
+                rows -= eldest.next().weight;
+                eldest.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        final Entry removed = entries.remove(key);
+        if (removed != null) {
+            rows -= removed.weight;
+        }
+    }
+
+    /**
+     * @return the count of rows of the output, at least <code>1</code> so that empty pages are bounded too
+     */
+    private static int weigh(DataTablesOutput<?> output) {
+        return output.getData() == null ? 1 : Math.max(1, output.getData().size());
+    }
+
+    void invalidate() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+            rows = 0L;
+        }
+    }
+
+    DataTablesCacheStats stats() {
+        final int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new DataTablesCacheStats(hitCount.get(), missCount.get(), evictionCount.get(), size);
+    }
+
+    private static final class Entry {
+        private final DataTablesOutput<?> output;
+        private final int weight;
+        private final long loadedAt = System.nanoTime();
+
+        Entry(DataTablesOutput<?> output, int weight) {
+            this.output = output;
+            this.weight = weight;
+        }
+    }
+}
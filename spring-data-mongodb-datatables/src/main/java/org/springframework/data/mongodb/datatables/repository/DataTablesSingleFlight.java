@@ -0,0 +1,81 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+
+/**
+ * Coalesces identical concurrent executions (single-flight): while an execution is in flight, callers with the
+ * same key wait for it and get a copy of its result instead of running their own.
+ * <p>
+ * Nothing is kept once an execution completes, so a result is never older than the wait of its caller.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+final class DataTablesSingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executionCount = new AtomicLong();
+    private final AtomicLong sharedCount = new AtomicLong();
+
+    /**
+     * Runs the execution, or waits for the identical one in flight
+     *
+     * @param key identifies the execution
+     * @param execution
+     * @param waiter called before a caller waits for the identical execution, returns the function creating the
+     *            result of the caller from the shared one
+     * @return the result of the execution, or the copy of the one of the identical execution
+     */
+    @SuppressWarnings("unchecked")
+    <R> R execute(String key, Supplier<R> execution, Supplier<UnaryOperator<R>> waiter) {
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            sharedCount.incrementAndGet();
+            final UnaryOperator<R> copier = waiter.get();
+            try {
+                return copier.apply((R) existing.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        executionCount.incrementAndGet();
+        try {
+            final R result = execution.get();
+            created.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * Lets the next callers start a new execution instead of waiting for the ones in flight, e.g. after a write
+     */
+    void invalidate() {
+        inFlight.clear();
+    }
+
+    /**
+     * @return the count of shared results as hits, of executions as misses, and of executions in flight as size
+     */
+    DataTablesCacheStats stats() {
+        return new DataTablesCacheStats(sharedCount.get(), executionCount.get(), 0L, inFlight.size());
+    }
+}
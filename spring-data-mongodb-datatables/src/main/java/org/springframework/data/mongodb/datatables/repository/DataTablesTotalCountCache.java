@@ -0,0 +1,104 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache of <code>recordsTotal</code>, keyed by the pre-filter.
+ * <p>
+ * Expired values are still served while they are reloaded in the background (stale-while-revalidate), so only the
+ * first request of each pre-filter waits for the count.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+@Slf4j
+class DataTablesTotalCountCache {
+
+    private final long ttlNanos;
+
+    private final Executor executor;
+
+    private final DataTablesCache<String, Entry> entries;
+
+    /**
+     * incremented on each invalidation, so that a reload started before cannot put an outdated count back
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    DataTablesTotalCountCache(Duration ttl, int maximumSize, Executor executor) {
+        this.ttlNanos = ttl == null ? 0L : ttl.toNanos();
+        this.executor = executor;
+        this.entries = new DataTablesCache<>(ttlNanos > 0 ? maximumSize : 0);
+    }
+
+    /**
+     * Returns the cached count of the given pre-filter.
+     *
+     * @param key key of the pre-filter, <code>null</code> if it cannot be cached
+     * @param loader computes the actual count
+     * @return
+     */
+    long get(String key, LongSupplier loader) {
+        if (ttlNanos <= 0 || key == null) {
+            return loader.getAsLong();
+        }
+
+        final Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return load(key, loader);
+        }
+
+        if (System.nanoTime() - entry.loadedAt > ttlNanos && entry.refreshing.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        load(key, loader);
+                    } catch (RuntimeException e) {
+                        log.warn("unable to refresh total count of '{}'", key, e);
+                        entry.refreshing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                entry.refreshing.set(false);
+            }
+        }
+        return entry.count;
+    }
+
+    private long load(String key, LongSupplier loader) {
+        final long currentGeneration = generation.get();
+        final long count = loader.getAsLong();
+        if (generation.get() == currentGeneration) {
+            entries.put(key, new Entry(count));
+        }
+        return count;
+    }
+
+    void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    DataTablesCacheStats stats() {
+        return entries.stats();
+    }
+
+    private static final class Entry {
+        private final long count;
+        private final long loadedAt = System.nanoTime();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(long count) {
+            this.count = count;
+        }
+    }
+}
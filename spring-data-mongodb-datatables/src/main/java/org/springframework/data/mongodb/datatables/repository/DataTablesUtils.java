@@ -1,5 +1,6 @@
 package org.springframework.data.mongodb.datatables.repository;
 
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.facet;
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.limit;
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
@@ -8,35 +9,32 @@ import static org.springframework.data.mongodb.core.aggregation.Aggregation.skip
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
 
 import java.io.Serializable;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.function.UnaryOperator;
 
-import org.reflections.ReflectionUtils;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecConfigurationException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.Sort.Direction;
-import org.springframework.data.domain.Sort.Order;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
-import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
 import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.data.mongodb.datatables.mapping.Column;
-import org.springframework.data.mongodb.datatables.mapping.ColumnType;
 import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
-import org.springframework.data.mongodb.datatables.mapping.Filter;
-import org.springframework.data.mongodb.datatables.mapping.Search;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesStreamingOutput;
 import org.springframework.data.mongodb.datatables.model.DataTablesCount;
 import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
-import org.springframework.util.StringUtils;
-
-import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.util.Assert;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -45,252 +43,107 @@ public class DataTablesUtils {
 
 	private static final String COMMA = ",";
 
+	private static final String COUNT_FIELD = "_count";
+
+	public static final String FACET_TOTAL = "total";
+
+	public static final String FACET_FILTERED = "filtered";
+
+	public static final String FACET_PAGE = "page";
+
 	/**
-	 * check jackson at startup
+	 * field of the text score, when sorted by {@link DataTablesQueryPlan#TEXT_SCORE}
 	 */
-	private static boolean IS_JACKSON_AVAILABLE = false;
-	static {
-		try {
-			Class.forName("com.fasterxml.jackson.annotation.JsonProperty");
-			IS_JACKSON_AVAILABLE = true;
-		} catch (ClassNotFoundException cnfe) {
-		}
+	static final String TEXT_SCORE_FIELD = "_textScore";
+
+	/**
+	 * Builds the metamodel of the deprecated methods, which have no mapping context. The metamodel is built on
+	 * every call with a default {@link MongoMappingContext}, so it ignores the custom conversions and the field
+	 * naming strategy of the application.
+	 */
+	private static <T> DataTablesEntityMetamodel<T> getDefaultMetamodel(
+			MongoEntityInformation<T, ? extends Serializable> entityInformation) {
+		return new DataTablesEntityMetamodel<>(entityInformation.getJavaType(), new MongoMappingContext());
 	}
 
+	/**
+	 * @deprecated use {@link #getQuery(DataTablesEntityMetamodel, DataTablesInput)}, whose metamodel follows the
+	 *             mapping context of the application, and is built once. This method builds a metamodel with a
+	 *             default mapping context on every call.
+	 */
+	@Deprecated
 	public static <T, ID extends Serializable> Query getQuery(MongoEntityInformation<T, ID> entityInformation,
 			final DataTablesInput input) {
-		Query q = new Query();
-		List<Criteria> criteriaList = getCriteria(input, entityInformation);
-		if (criteriaList != null) {
-			for (final Criteria c : criteriaList) {
-				q.addCriteria(c);
-			}
-		}
-		return q;
+		return getQuery(getDefaultMetamodel(entityInformation), input);
 	}
 
-	private static List<Object> convertArray(ColumnType type, String value) {
-		final String[] parts = value.split(COMMA);
-		final List<Object> convertedParts = new ArrayList<>(parts.length);
-		for (int i = 0; i < parts.length; i++) {
-			convertedParts.add(type.tryConvert(parts[i]));
-		}
-		return convertedParts;
+	public static <T> Query getQuery(DataTablesEntityMetamodel<T> metamodel, final DataTablesInput input) {
+		return getQuery(DataTablesQueryPlan.compile(metamodel, input), input);
 	}
 
 	/**
-	 * Recursively get field name
+	 * Creates a {@link Query} by binding the given input into a compiled plan, with optional additional
+	 * {@link CriteriaDefinition}s (with an "AND" clause)
 	 * 
-	 * @param javaType
-	 * @param fieldNameParts
-	 * @param currentIndex
+	 * @param plan a plan compiled from an input of the same shape
+	 * @param input
+	 * @param criteria additional criteria, <code>null</code> elements are ignored
 	 * @return
 	 */
-	private static String getFieldName(Class<?> javaType, String[] fieldNameParts, int currentIndex) {
-		if (javaType == null) {
-			return null;
-		}
-		Objects.requireNonNull(fieldNameParts);
-
-		if (currentIndex <= fieldNameParts.length - 1) {
-			final String currentLevelName = fieldNameParts[currentIndex];
-			String decidedName = null;
-			Class<?> currentLevelFieldType = null;
-
-			// do logic and append more
-			@SuppressWarnings("unchecked")
-			Set<Field> possibleFields = ReflectionUtils.getAllFields(javaType, input -> {
-				if (input != null) {
-					if (currentLevelName.equals(input.getName())) {
-						return true;
-					} else if (IS_JACKSON_AVAILABLE) {
-						// direct matching with @JsonProperty
-						final JsonProperty jsonProperty = input.getAnnotation(JsonProperty.class);
-						if (jsonProperty != null && StringUtils.hasLength(jsonProperty.value())) {
-							if (currentLevelName.equals(jsonProperty.value())) {
-								return true;
-							}
-						}
-
-						// TODO: Jackson PropertyNamingStrategy should also be considered
-					}
-				}
-				return false;
-			});
-
-			if (possibleFields != null && !possibleFields.isEmpty()) {
-				for (final Field field : possibleFields) {
-					decidedName = field.getName();
-					currentLevelFieldType = field.getType();
-					break;
-				}
-			}
-
-			if (StringUtils.isEmpty(decidedName)) {
-				return null;
-			}
-
-			if (currentIndex < fieldNameParts.length - 1) {
-				String childrenFieldName = getFieldName(currentLevelFieldType, fieldNameParts, currentIndex + 1);
-				if (childrenFieldName == null) {
-					return null;
-				} else {
-					return decidedName + "." + childrenFieldName;
-				}
-			} else {
-				return decidedName;
+	public static <T> Query getQuery(DataTablesQueryPlan<T> plan, final DataTablesInput input,
+			CriteriaDefinition... criteria) {
+		final List<Document> parts = new ArrayList<>(1 + criteria.length);
+		parts.add(plan.bind(input));
+		for (final CriteriaDefinition c : criteria) {
+			if (c != null) {
+				parts.add(c.getCriteriaObject());
 			}
 		}
-		return null;
+		final Query query = new BasicQuery(and(parts));
+		if (plan.getCollation() != null) {
+			query.collation(plan.getCollation());
+		}
+		return query;
 	}
 
 	/**
-	 * Determine actual MongoDB field name from input
-	 * (including jackson-databind, etc.)
-	 * 
-	 * @param javaType actual java type
-	 * @param fieldName frontend provided field name
-	 * @return
+	 * Applies the collation of the plan, if any
 	 */
-	private static String getFieldName(Class<?> javaType, String fieldName) {
-		if (javaType == null || StringUtils.isEmpty(fieldName)) {
-			return null;
+	private static <T> TypedAggregation<T> withCollation(DataTablesQueryPlan<T> plan,
+			TypedAggregation<T> aggregation) {
+		if (plan.getCollation() == null) {
+			return aggregation;
 		}
-
-		String result = null;
-		if (fieldName.contains(".")) {
-			final String[] parts = fieldName.split("\\.");
-			result = getFieldName(javaType, parts, 0);
-		} else {
-			result = getFieldName(javaType, new String[]{fieldName}, 0);
-		}
-		log.trace("getFieldName({}, '{}') returns : '{}'", javaType.getSimpleName(), fieldName, result);
-		return result;
+		return aggregation.withOptions(AggregationOptions.builder().collation(plan.getCollation()).build());
 	}
 
 	/**
-	 * Convert a {@link DataTablesInput} to Criteia
+	 * Combine several filters with an "AND" clause. The filters are merged into one document if they have no key
+	 * in common, otherwise they are put into an <code>$and</code>.
 	 * 
-	 * @param input
+	 * @param filters
 	 * @return
 	 */
-	private static <T, ID extends Serializable> List<Criteria> getCriteria(final DataTablesInput input,
-			MongoEntityInformation<T, ID> entityInformation) {
-		List<Criteria> result = new LinkedList<>();
-		// check for each searchable column whether a filter value exists
-		List<Column> columns = input.getColumns();
-
-		for (final Column column : columns) {
-			final Search search = column.getSearch();
-			final ColumnType type = ColumnType.parse(column.getType());
-			final Filter filter = column.getFilter();
-			if (column.hasValidSearch()) {
-				// search != null && issearchable == true && search.value.length > 0
-				final String searchValue = search.getValue();
-				Criteria c = Criteria.where(getFieldName(entityInformation.getJavaType(), column.getData()));
-				if (search.isRegex()) {
-					// is regex, so treat directly as regular expression
-					c.regex(searchValue);
-				} else {
-					final Object parsedSearchValue = type.tryConvert(searchValue);
-					if (parsedSearchValue instanceof String) {
-						c.regex(getLikeFilterPattern(search.getValue()));
-					} else {
-						// numeric values , treat as $eq
-						c.is(parsedSearchValue);
-					}
-				}
-				result.add(c);
-			} else {
-				// handle column.filter
-				if (filter != null) {
-					boolean hasValidCrit = false;
-					Criteria c = Criteria.where(getFieldName(entityInformation.getJavaType(), column.getData()));
-					if (StringUtils.hasLength(filter.getEq())) {
-						// $eq takes first place
-						c.is(type.tryConvert(filter.getEq()));
-						hasValidCrit = true;
-					} else if (StringUtils.hasLength(filter.getNe())) {
-						// $ne
-						c.ne(type.tryConvert(filter.getNe()));
-						hasValidCrit = true;
-					} else {
-						if (StringUtils.hasLength(filter.getIn())) {
-							// $in takes second place
-							c.in(convertArray(type, filter.getIn()));
-							hasValidCrit = true;
-						}
-
-						if (StringUtils.hasLength(filter.getNin())) {
-							c.nin(convertArray(type, filter.getNin()));
-							hasValidCrit = true;
-						}
-
-						if (StringUtils.hasLength(filter.getRegex())) {
-							// $regex also works here
-							c.regex(filter.getRegex());
-							hasValidCrit = true;
-						}
-
-						if (filter.getIsNull() != null && filter.getIsNull().booleanValue()) {
-							c.is(null);
-							hasValidCrit = true;
-						}
-
-						if (filter.getIsEmpty() != null && filter.getIsEmpty().booleanValue()) {
-							c.is("");
-							hasValidCrit = true;
-						}
-
-						if (filter.getExists() != null) {
-							c.exists(filter.getExists().booleanValue());
-							hasValidCrit = true;
-						}
-
-						if (type.isComparable()) {
-							// $gt, $lt, etc. only works if type is comparable
-							if (StringUtils.hasLength(filter.getGt())) {
-								c.gt(type.tryConvert(filter.getGt()));
-								hasValidCrit = true;
-							}
-							if (StringUtils.hasLength(filter.getGte())) {
-								c.gte(type.tryConvert(filter.getGte()));
-								hasValidCrit = true;
-							}
-							if (StringUtils.hasLength(filter.getLt())) {
-								c.lt(type.tryConvert(filter.getLt()));
-								hasValidCrit = true;
-							}
-							if (StringUtils.hasLength(filter.getLte())) {
-								c.lte(type.tryConvert(filter.getLte()));
-								hasValidCrit = true;
-							}
-						}
-					}
-					if (hasValidCrit) {
-						result.add(c);
-					}
+	public static Document and(List<Document> filters) {
+		final List<Document> nonEmptyFilters = new ArrayList<>(filters.size());
+		final Document merged = new Document();
+		boolean conflicting = false;
+		for (final Document filter : filters) {
+			if (filter == null || filter.isEmpty()) {
+				continue;
+			}
+			nonEmptyFilters.add(filter);
+			for (final String key : filter.keySet()) {
+				if (merged.containsKey(key)) {
+					conflicting = true;
 				}
 			}
+			merged.putAll(filter);
 		}
-
-		// check whether a global filter value exists
-		// TODO <pre>due to limitations of the BasicDBObject, you can't add a second "$or" expression</pre>
-		// this conflicts with additionalCriteria and preFilteringCriteria
-		/*
-		 * String globalFilterValue = input.getSearch().getValue(); if (StringUtils.hasText(globalFilterValue)) {
-		 * 
-		 * Criteria crit = new Criteria();
-		 * 
-		 * // add a 'WHERE .. LIKE' clause on each searchable column for (ColumnParameter column : input.getColumns()) {
-		 * if (column.getSearchable()) {
-		 * 
-		 * Criteria c = Criteria.where(column.getData()); c.regex(getLikeFilterPattern(globalFilterValue));
-		 * 
-		 * crit.orOperator(c); } } q.addCriteria(crit); }
-		 */
-
-		return result;
+		if (conflicting) {
+			return new Document("$and", nonEmptyFilters);
+		}
+		return merged;
 	}
 
 	/**
@@ -300,39 +153,17 @@ public class DataTablesUtils {
 	 * @return a {@link Pageable}, must not be {@literal null}.
 	 */
 	public static Pageable getPageable(DataTablesInput input) {
-		List<Order> orders = new ArrayList<Order>();
-		for (org.springframework.data.mongodb.datatables.mapping.Order order : input.getOrder()) {
-			Column column = null;
-			if (StringUtils.hasLength(order.getData())) {
-				column = input.getColumn(order.getData());
-			} else if (order.getColumn() != null && input.getColumns().size() > order.getColumn()) {
-				if (order.getColumn() != null && input.getColumns() != null
-						&& input.getColumns().size() > order.getColumn()) {
-					column = input.getColumns().get(order.getColumn());
-				} else {
-					column = input.getColumn(order.getData());
-				}
-			}
-
-			if (column == null) {
-				if (StringUtils.hasLength(order.getData())) {
-					// in case if input has no columns defined
-					Direction sortDirection = Direction.fromString(order.getDir());
-					orders.add(new Order(sortDirection, order.getData()));
-				} else {
-					log.debug("Warning: unable to find column by specified order {}", order);
-				}
-			} else if (!column.isOrderable()) {
-				log.debug("Warning: column {} is not orderable, order is ignored", column);
-			} else {
-				String sortColumn = column.getData();
-				Direction sortDirection = Direction.fromString(order.getDir());
-				orders.add(new Order(sortDirection, sortColumn));
-			}
-		}
-
-		Sort sort = orders.isEmpty() ? null : Sort.by(orders);
+		return getPageable(input, DataTablesQueryPlan.getSort(null, input));
+	}
 
+	/**
+	 * Creates a {@link Pageable} for the given {@link DataTablesInput} and a pre-computed sort.
+	 * 
+	 * @param input the {@link DataTablesInput} mapped from the Ajax request
+	 * @param sort the sort, may be {@literal null}
+	 * @return a {@link Pageable}, must not be {@literal null}.
+	 */
+	public static Pageable getPageable(DataTablesInput input, Sort sort) {
 		if (input.getLength() == -1) {
 			input.setStart(0);
 			input.setLength(Integer.MAX_VALUE);
@@ -341,13 +172,16 @@ public class DataTablesUtils {
 	}
 
 	/**
-	 * "LIKE" search is converted to $regex
+	 * Creates the {@link Pageable} of a page fetched with a keyset cursor, i.e. without offset, and in reversed
+	 * order if the cursor points to the previous page.
 	 * 
-	 * @param filterValue
+	 * @param pageable the {@link Pageable} of the input, with the tie-breaker in its sort
+	 * @param cursor
 	 * @return
 	 */
-	private static Pattern getLikeFilterPattern(String filterValue) {
-		return Pattern.compile(filterValue, Pattern.CASE_INSENSITIVE);
+	static Pageable getPageable(Pageable pageable, DataTablesCursor cursor) {
+		final Sort sort = cursor.isPrevious() ? DataTablesCursor.reverse(pageable.getSort()) : pageable.getSort();
+		return new DataTablesPageRequest(0, pageable.getPageSize(), sort);
 	}
 
 	private static class DataTablesPageRequest implements Pageable {
@@ -409,18 +243,36 @@ public class DataTablesUtils {
 	 * @param input
 	 * @return
 	 */
-	private static <T, ID extends Serializable> List<AggregationOperation> toAggregationOperation(
-			MongoEntityInformation<T, ID> entityInformation, DataTablesInput input) {
+	private static <T> List<AggregationOperation> toAggregationOperation(DataTablesQueryPlan<T> plan,
+			DataTablesInput input) {
 		List<AggregationOperation> result = new LinkedList<>();
-		List<Criteria> criteriaList = getCriteria(input, entityInformation);
-		if (criteriaList != null) {
-			for (final Criteria c : criteriaList) {
-				result.add(match(c));
-			}
+		final Document filter = plan.bindFilters(input);
+		if (!filter.isEmpty()) {
+			result.add(match(new DocumentCriteria(filter)));
 		}
 		return result;
 	}
 
+	/**
+	 * Creates a key from a whole aggregation, including its collation, to be used in caches
+	 * 
+	 * @param aggregation
+	 * @return the key, or <code>null</code> if the pipeline cannot be rendered without type information
+	 */
+	static String toKey(Aggregation aggregation) {
+		final StringBuilder sb = new StringBuilder();
+		try {
+			for (final Document stage : aggregation.toPipeline(Aggregation.DEFAULT_CONTEXT)) {
+				sb.append(toKey(stage)).append(COMMA);
+			}
+		} catch (RuntimeException e) {
+			log.debug("unable to create a key from {}", aggregation, e);
+			return null;
+		}
+		aggregation.getOptions().getCollation().ifPresent(collation -> sb.append(toKey(collation.toDocument())));
+		return sb.toString();
+	}
+
 	/**
 	 * Create an {@link TypedAggregation} with specified {@link DataTablesInput} as filter, plus specified
 	 * {@link AggregationOperation}[], but only act as <code>$count</code>
@@ -429,7 +281,9 @@ public class DataTablesUtils {
 	 * <pre>
 	 * <code>
 	 * [
+	 *      {$match: {$text: ...}}, // only if the global search is a text search
 	 *      ...operations,
+	 *      {$limit: maxCount + 1}, // only if maxCount > 0
 	 *      {$group: {"_id": null, "_count": {$sum: 1}}}
 	 * ]
 	 * </code>
@@ -438,19 +292,21 @@ public class DataTablesUtils {
 	 * @param classOfT
 	 * @param input
 	 * @param operations
+	 * @param maxCount stop counting after <code>maxCount + 1</code> documents, <code>0</code> for no limit
 	 * @return
 	 */
-	private static <T, ID extends Serializable> TypedAggregation<T> makeAggregationCountOnly(
-			MongoEntityInformation<T, ID> entityInformation, DataTablesInput input,
-			AggregationOperation[] operationsBefore, AggregationOperation[] operationsAfter) {
+	static <T> TypedAggregation<T> makeAggregationCountOnly(DataTablesQueryPlan<T> plan,
+			DataTablesInput input,
+			AggregationOperation[] operationsBefore, AggregationOperation[] operationsAfter, long maxCount) {
 		List<AggregationOperation> opList = new LinkedList<>();
+		addTextSearch(opList, plan, input);
 		if (operationsBefore != null) {
 			for (int i = 0; i < operationsBefore.length; i++) {
 				opList.add(operationsBefore[i]);
 			}
 		}
 
-		opList.addAll(toAggregationOperation(entityInformation, input));
+		opList.addAll(toAggregationOperation(plan, input));
 
 		if (operationsAfter != null) {
 			for (int i = 0; i < operationsAfter.length; i++) {
@@ -458,15 +314,65 @@ public class DataTablesUtils {
 			}
 		}
 
-		opList.add(group().count().as("_count"));
-		return newAggregation(entityInformation.getJavaType(), opList);
+		if (maxCount > 0) {
+			opList.add(limit(maxCount + 1));
+		}
+		opList.add(group().count().as(COUNT_FIELD));
+		return withCollation(plan, newAggregation(plan.getMetamodel().getJavaType(), opList));
 	}
 
+	/**
+	 * @deprecated use the overload with a {@link DataTablesQueryPlan}, compiled from a metamodel which is built
+	 *             once. This method builds a metamodel with the mapping context of the given operations on every
+	 *             call.
+	 */
+	@Deprecated
 	public static <T, ID extends Serializable> long count(MongoOperations mongoOperations,
 			MongoEntityInformation<T, ID> entityInformation, DataTablesInput input,
 			AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps) {
-		final TypedAggregation<T> aggCount = makeAggregationCountOnly(entityInformation, input, preFilteringOps,
-				additionalOps);
+		final DataTablesEntityMetamodel<T> metamodel = new DataTablesEntityMetamodel<>(
+				entityInformation.getJavaType(), mongoOperations.getConverter().getMappingContext());
+		return count(mongoOperations, DataTablesQueryPlan.compile(metamodel, input), input, preFilteringOps,
+				additionalOps, 0L);
+	}
+
+	public static <T> long count(MongoOperations mongoOperations, DataTablesQueryPlan<T> plan,
+			DataTablesInput input, AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps,
+			long maxCount) {
+		final TypedAggregation<T> aggCount = makeAggregationCountOnly(plan, input, preFilteringOps,
+				additionalOps, maxCount);
+		return count(mongoOperations, aggCount);
+	}
+
+	/**
+	 * Count the results of the given {@link AggregationOperation}s only, i.e. before any filtering of the
+	 * {@link DataTablesInput}
+	 * 
+	 * @param mongoOperations
+	 * @param metamodel
+	 * @param operations
+	 * @return
+	 */
+	public static <T> long count(MongoOperations mongoOperations, DataTablesEntityMetamodel<T> metamodel,
+			AggregationOperation[] operations) {
+		return count(mongoOperations, makeAggregationCountOnly(metamodel, operations));
+	}
+
+	/**
+	 * Create an {@link TypedAggregation} counting the results of the given {@link AggregationOperation}s only
+	 * 
+	 * @param metamodel
+	 * @param operations
+	 * @return
+	 */
+	static <T> TypedAggregation<T> makeAggregationCountOnly(DataTablesEntityMetamodel<T> metamodel,
+			AggregationOperation[] operations) {
+		List<AggregationOperation> opList = new LinkedList<>(Arrays.asList(operations));
+		opList.add(group().count().as(COUNT_FIELD));
+		return newAggregation(metamodel.getJavaType(), opList);
+	}
+
+	static <T> long count(MongoOperations mongoOperations, TypedAggregation<T> aggCount) {
 		AggregationResults<DataTablesCount> countResult = mongoOperations.aggregate(aggCount, DataTablesCount.class);
 		if (countResult != null && countResult.getUniqueMappedResult() != null) {
 			return countResult.getUniqueMappedResult().getCount();
@@ -475,36 +381,185 @@ public class DataTablesUtils {
 		}
 	}
 
+	/**
+	 * Sets <code>recordsFiltered</code> of the output, capped at <code>maxFilteredCount</code>
+	 * 
+	 * @param output
+	 * @param recordsFiltered
+	 * @param maxFilteredCount <code>0</code> for no limit
+	 */
+	static void setRecordsFiltered(DataTablesOutput<?> output, long recordsFiltered, long maxFilteredCount) {
+		if (maxFilteredCount > 0 && recordsFiltered > maxFilteredCount) {
+			output.setRecordsFiltered(maxFilteredCount);
+			output.setRecordsFilteredCapped(true);
+		} else {
+			output.setRecordsFiltered(recordsFiltered);
+		}
+	}
+
+	/**
+	 * Copies an output for another draw of the same input. The rows are shared, not copied.
+	 * 
+	 * @param output
+	 * @param draw the draw counter of the copy
+	 * @return the copy
+	 */
+	static <T> DataTablesOutput<T> copyOf(DataTablesOutput<T> output, int draw) {
+		final DataTablesOutput<T> copy = new DataTablesOutput<>();
+		copy.setDraw(draw);
+		copy.setRecordsTotal(output.getRecordsTotal());
+		copy.setRecordsFiltered(output.getRecordsFiltered());
+		copy.setRecordsFilteredCapped(output.isRecordsFilteredCapped());
+		copy.setData(output.getData());
+		copy.setError(output.getError());
+		copy.setNextCursor(output.getNextCursor());
+		copy.setPreviousCursor(output.getPreviousCursor());
+		return copy;
+	}
+
+	/**
+	 * Copies an input for its next page, as requested by a "next" click. The columns and orders are shared, not
+	 * copied.
+	 *
+	 * @param input
+	 * @param output the output of the input, whose <code>nextCursor</code> the next click sends back
+	 * @return the input of the next page
+	 */
+	static DataTablesInput nextPageOf(DataTablesInput input, DataTablesOutput<?> output) {
+		final DataTablesInput next = new DataTablesInput();
+		next.setDraw(input.getDraw() + 1);
+		next.setStart(input.getStart() + input.getLength());
+		next.setLength(input.getLength());
+		next.setCursor(output.getNextCursor());
+		next.setSearch(input.getSearch());
+		next.setOrder(input.getOrder());
+		next.setColumns(input.getColumns());
+		return next;
+	}
+
+	/**
+	 * Same as {@link #setRecordsFiltered(DataTablesOutput, long, long)}
+	 * 
+	 * @param output
+	 * @param recordsFiltered
+	 * @param maxFilteredCount <code>0</code> for no limit
+	 */
+	static void setRecordsFiltered(DataTablesStreamingOutput<?> output, long recordsFiltered,
+			long maxFilteredCount) {
+		if (maxFilteredCount > 0 && recordsFiltered > maxFilteredCount) {
+			output.setRecordsFiltered(maxFilteredCount);
+			output.setRecordsFilteredCapped(true);
+		} else {
+			output.setRecordsFiltered(recordsFiltered);
+		}
+	}
+
+	/**
+	 * Creates a key from a filter, to be used in caches
+	 * 
+	 * @param filter
+	 * @return
+	 */
+	public static String toKey(Document filter) {
+		try {
+			return filter.toJson();
+		} catch (CodecConfigurationException e) {
+			// some values have no default codec, fall back to toString()
+			return filter.toString();
+		}
+	}
+
+	/**
+	 * Creates a key from a pipeline, to be used in caches
+	 * 
+	 * @param operations
+	 * @return the key, or <code>null</code> if the pipeline cannot be rendered without type information
+	 */
+	public static String toKey(AggregationOperation[] operations) {
+		final StringBuilder sb = new StringBuilder();
+		if (operations == null) {
+			return sb.toString();
+		}
+		try {
+			for (final Document stage : newAggregation(operations).toPipeline(Aggregation.DEFAULT_CONTEXT)) {
+				sb.append(toKey(stage)).append(COMMA);
+			}
+		} catch (RuntimeException e) {
+			log.debug("unable to create a key from {}", Arrays.toString(operations), e);
+			return null;
+		}
+		return sb.toString();
+	}
+
 	/**
 	 * Create an {@link TypedAggregation} with specified {@link DataTablesInput} as filter, plus specified
 	 * {@link AggregationOperation}[]
 	 * 
-	 * @param entityInformation
+	 * @param plan
 	 * @param input
 	 * @param pageable
 	 * @param operations
 	 * @return
 	 */
+	public static <T> TypedAggregation<T> makeAggregation(DataTablesQueryPlan<T> plan, DataTablesInput input,
+			Pageable pageable, AggregationOperation[] operationsBefore, AggregationOperation[] operationsAfter) {
+		return makeAggregation(plan, input, pageable, null, null, operationsBefore, operationsAfter);
+	}
+
+	/**
+	 * @deprecated use the overload with a {@link DataTablesQueryPlan}, compiled from a metamodel following the
+	 *             mapping context of the application, and built once. This method builds a metamodel with a
+	 *             default mapping context on every call.
+	 */
+	@Deprecated
 	public static <T> TypedAggregation<T> makeAggregation(
 			MongoEntityInformation<T, ? extends Serializable> entityInformation, DataTablesInput input,
 			Pageable pageable, AggregationOperation[] operationsBefore, AggregationOperation[] operationsAfter) {
+		return makeAggregation(DataTablesQueryPlan.compile(getDefaultMetamodel(entityInformation), input), input,
+				pageable, operationsBefore, operationsAfter);
+	}
+
+	/**
+	 * Same as the <code>makeAggregation</code> of a {@link DataTablesQueryPlan} above, with an additional range
+	 * predicate of a keyset cursor, and a projection of the page
+	 * 
+	 * @param plan
+	 * @param input
+	 * @param pageable
+	 * @param seek the range predicate, applied after the filter of the input, may be <code>null</code>
+	 * @param projection a <code>$project</code> (of stored field names) applied after <code>$limit</code>, may be
+	 *            <code>null</code>
+	 * @param operationsBefore
+	 * @param operationsAfter
+	 * @return
+	 */
+	public static <T> TypedAggregation<T> makeAggregation(DataTablesQueryPlan<T> plan, DataTablesInput input,
+			Pageable pageable, Document seek, Document projection, AggregationOperation[] operationsBefore,
+			AggregationOperation[] operationsAfter) {
 		List<AggregationOperation> opList = new LinkedList<>();
+		addTextSearch(opList, plan, input);
 		if (operationsBefore != null) {
 			for (int i = 0; i < operationsBefore.length; i++) {
 				opList.add(operationsBefore[i]);
 			}
 		}
 
-		opList.addAll(toAggregationOperation(entityInformation, input));
+		opList.addAll(toAggregationOperation(plan, input));
+		if (seek != null) {
+			opList.add(match(new DocumentCriteria(seek)));
+		}
 
 		if (pageable != null) {
 			final Sort s = pageable.getSort();
 			if (s != null) {
-				opList.add(sort(s));
+				opList.add(sortOf(s));
 			}
 			opList.add(skip((long) pageable.getOffset()));
 			opList.add(limit(pageable.getPageSize()));
 		}
+		if (projection != null) {
+			opList.add(project(projection));
+		}
 
 		if (operationsAfter != null) {
 			for (int i = 0; i < operationsAfter.length; i++) {
@@ -512,7 +567,188 @@ public class DataTablesUtils {
 			}
 		}
 
-		return newAggregation(entityInformation.getJavaType(), opList);
+		return withCollation(plan, newAggregation(plan.getMetamodel().getJavaType(), opList));
+	}
+
+	/**
+	 * Create an {@link TypedAggregation} which computes the total count, the filtered count and the page in one
+	 * pipeline:
+	 * 
+	 * <pre>
+	 * <code>
+	 * [
+	 *      ...operationsBefore,
+	 *      {$facet: {
+	 *          "total": [{$count: "_count"}],
+	 *          "filtered": [{$match: ...}, ...operationsAfter, {$count: "_count"}],
+	 *          "page": [{$match: ...}, {$sort: ...}, {$skip: ...}, {$limit: ...}, ...operationsAfter]
+	 *      }}
+	 * ]
+	 * </code>
+	 * </pre>
+	 * 
+	 * Note that the whole page must fit into the single result document (16MB), and that it cannot be used with a
+	 * text search.
+	 * 
+	 * @param plan
+	 * @param input
+	 * @param pageable
+	 * @param operationsBefore
+	 * @param operationsAfter
+	 * @param seek the range predicate of a keyset cursor, only applied to the page, may be <code>null</code>
+	 * @param projection a <code>$project</code> (of stored field names) of the page, may be <code>null</code>
+	 * @param maxFilteredCount stop counting the filtered documents after <code>maxFilteredCount + 1</code>,
+	 *            <code>0</code> for no limit
+	 * @return
+	 */
+	public static <T> TypedAggregation<T> makeFacetAggregation(DataTablesQueryPlan<T> plan, DataTablesInput input,
+			Pageable pageable, Document seek, Document projection, AggregationOperation[] operationsBefore,
+			AggregationOperation[] operationsAfter, long maxFilteredCount) {
+		List<AggregationOperation> opList = new LinkedList<>();
+		if (operationsBefore != null) {
+			for (int i = 0; i < operationsBefore.length; i++) {
+				opList.add(operationsBefore[i]);
+			}
+		}
+
+		// $text is not allowed in $facet, and would also filter the total count before it
+		Assert.isTrue(!plan.hasTextSearch(), "a text search cannot be combined with $facet");
+		final List<AggregationOperation> matchOps = toAggregationOperation(plan, input);
+
+		final List<AggregationOperation> filteredOps = new LinkedList<>(matchOps);
+		if (operationsAfter != null) {
+			filteredOps.addAll(Arrays.asList(operationsAfter));
+		}
+		if (maxFilteredCount > 0) {
+			filteredOps.add(limit(maxFilteredCount + 1));
+		}
+		filteredOps.add(Aggregation.count().as(COUNT_FIELD));
+
+		final List<AggregationOperation> pageOps = new LinkedList<>(matchOps);
+		if (seek != null) {
+			pageOps.add(match(new DocumentCriteria(seek)));
+		}
+		final Sort s = pageable.getSort();
+		if (s != null) {
+			pageOps.add(sortOf(s));
+		}
+		pageOps.add(skip((long) pageable.getOffset()));
+		pageOps.add(limit(pageable.getPageSize()));
+		if (projection != null) {
+			pageOps.add(project(projection));
+		}
+		if (operationsAfter != null) {
+			pageOps.addAll(Arrays.asList(operationsAfter));
+		}
+
+		opList.add(facet(Aggregation.count().as(COUNT_FIELD)).as(FACET_TOTAL)
+				.and(filteredOps.toArray(new AggregationOperation[0])).as(FACET_FILTERED)
+				.and(pageOps.toArray(new AggregationOperation[0])).as(FACET_PAGE));
+
+		return withCollation(plan, newAggregation(plan.getMetamodel().getJavaType(), opList));
+	}
+
+	/**
+	 * Read a count from the result of {@link #makeFacetAggregation}
+	 * 
+	 * @param facets the result document
+	 * @param facetName {@link #FACET_TOTAL} or {@link #FACET_FILTERED}
+	 * @return the count, <code>0</code> if nothing matches
+	 */
+	public static long getFacetCount(Document facets, String facetName) {
+		final List<Document> counts = facets.getList(facetName, Document.class);
+		if (counts == null || counts.isEmpty()) {
+			return 0L;
+		}
+		return ((Number) counts.get(0).get(COUNT_FIELD)).longValue();
+	}
+
+	/**
+	 * Adds the <code>$match</code> of a text search, which must be the first stage of the pipeline
+	 */
+	private static void addTextSearch(List<AggregationOperation> opList, DataTablesQueryPlan<?> plan,
+			DataTablesInput input) {
+		final Document textSearch = plan.bindTextSearch(input);
+		if (textSearch != null) {
+			opList.add(match(new DocumentCriteria(textSearch)));
+		}
+	}
+
+	/**
+	 * @param sort may be <code>null</code>
+	 * @return whether the given sort contains the text score
+	 */
+	static boolean isSortedByTextScore(Sort sort) {
+		return sort != null && sort.getOrderFor(DataTablesQueryPlan.TEXT_SCORE) != null;
+	}
+
+	/**
+	 * Creates the sort document of the given sort, with the text score as <code>{$meta: "textScore"}</code>
+	 * 
+	 * @param sort
+	 * @param fieldNames maps the properties to the field names
+	 * @return
+	 */
+	static Document toSortObject(Sort sort, UnaryOperator<String> fieldNames) {
+		final Document sortObject = new Document();
+		for (final Sort.Order order : sort) {
+			if (DataTablesQueryPlan.TEXT_SCORE.equals(order.getProperty())) {
+				sortObject.put(TEXT_SCORE_FIELD, textScore());
+			} else {
+				sortObject.put(fieldNames.apply(order.getProperty()), order.isAscending() ? 1 : -1);
+			}
+		}
+		return sortObject;
+	}
+
+	/**
+	 * @return the projection (and sort) expression of the text score
+	 */
+	static Document textScore() {
+		return new Document("$meta", "textScore");
+	}
+
+	/**
+	 * Creates a <code>$sort</code> stage, which may contain the text score
+	 */
+	private static AggregationOperation sortOf(Sort s) {
+		if (!isSortedByTextScore(s)) {
+			return sort(s);
+		}
+		return context -> new Document("$sort",
+				toSortObject(s, property -> context.getReference(property).getRaw()));
+	}
+
+	/**
+	 * Creates a <code>$project</code> stage of stored field names, which is not mapped against the entity
+	 * 
+	 * @param projection
+	 * @return
+	 */
+	private static AggregationOperation project(Document projection) {
+		return context -> new Document("$project", projection);
+	}
+
+	/**
+	 * A {@link CriteriaDefinition} of an already built filter document
+	 */
+	static final class DocumentCriteria implements CriteriaDefinition {
+
+		private final Document criteriaObject;
+
+		DocumentCriteria(Document criteriaObject) {
+			this.criteriaObject = criteriaObject;
+		}
+
+		@Override
+		public Document getCriteriaObject() {
+			return criteriaObject;
+		}
+
+		@Override
+		public String getKey() {
+			return null;
+		}
 	}
 
 }
@@ -1,38 +1,200 @@
 package org.springframework.data.mongodb.datatables.repository;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
 import java.util.Date;
 
-public class DateParser {
-
-    private static String[] FORMATS = {
-            // ISO 8601 date-time
-            "yyyy-MM-dd'T'HH:mm:ssXXX",
-            // ISO 8601 date-time
-            "yyyy-MM-dd'T'HH:mm:ssZ",
-            // ISO 8601 date-time with time-secfrac
-            "yyyy-MM-dd'T'HH:mm:ss.SSSXXX",
-            // ISO 8601 date-time with time-secfrac
-            "yyyy-MM-dd'T'HH:mm:ss.SSSZ",
-            // ISO 8601 date-time without timezone
-            "yyyy-MM-dd'T'HH:mm:ss",
-            // Another commonly used pattern
-            "yyyy-MM-dd HH:mm:ss",
-            // ISO 8601 full-date
-            "yyyy-MM-dd"
-    };
+/**
+ * Parses the dates sent as search and filter values of <code>date</code> columns:
+ * <ul>
+ * <li><code>yyyy-MM-dd'T'HH:mm[:ss[.S]]XXX</code> and <code>yyyy-MM-dd'T'HH:mm[:ss[.S]]Z</code> (ISO 8601
+ * date-time with offset)</li>
+ * <li><code>yyyy-MM-dd'T'HH:mm[:ss[.S]]</code> (ISO 8601 date-time without offset)</li>
+ * <li><code>yyyy-MM-dd HH:mm[:ss[.S]]</code></li>
+ * <li><code>yyyy-MM-dd</code> (ISO 8601 full-date, at the start of the day)</li>
+ * </ul>
+ * The seconds are optional, and so is the fraction of second (1 to 9 digits) after them.
+ * <p>
+ * The format is chosen from the length and the separators of the text, then parsed with a precompiled (immutable,
+ * thread-safe) {@link DateTimeFormatter}, so no exception is thrown unless the text looks like a date but is not a
+ * valid one. Dates without offset are in the zone of the parser. Unlike the former lenient
+ * {@link java.text.SimpleDateFormat}, the whole text is parsed: a date followed by anything else than one of the
+ * above is not a date.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+public final class DateParser {
 
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private static final DateTimeFormatter DATE_TIME = dateTime('T').toFormatter()
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private static final DateTimeFormatter DATE_SPACE_TIME = dateTime(' ').toFormatter()
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    /**
+     * offset as <code>+08:00</code> or <code>Z</code>
+     */
+    private static final DateTimeFormatter DATE_TIME_OFFSET = dateTimeWithOffset("+HH:MM");
+
+    /**
+     * offset as <code>+0800</code> or <code>Z</code>
+     */
+    private static final DateTimeFormatter DATE_TIME_COMPACT_OFFSET = dateTimeWithOffset("+HHMM");
+
+    /**
+     * position of the separator of date and time
+     */
+    private static final int TIME_SEPARATOR = 10;
+
+    /**
+     * length of <code>yyyy-MM-dd'T'HH:mm</code>
+     */
+    private static final int DATE_TIME_LENGTH = 16;
+
+    private static final DateParser SYSTEM_DEFAULT = new DateParser(null);
+
+    /**
+     * <code>null</code> for the default zone of the JVM, resolved for each date
+     */
+    private final ZoneId zone;
+
+    private DateParser(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * @return <code>yyyy-MM-dd</code>, the separator, <code>HH:mm</code> and the optional seconds and fraction
+     */
+    private static DateTimeFormatterBuilder dateTime(char separator) {
+        return new DateTimeFormatterBuilder().append(DATE).appendLiteral(separator)
+                .appendValue(ChronoField.HOUR_OF_DAY, 2).appendLiteral(':')
+                .appendValue(ChronoField.MINUTE_OF_HOUR, 2).optionalStart().appendLiteral(':')
+                .appendValue(ChronoField.SECOND_OF_MINUTE, 2).optionalStart()
+                .appendFraction(ChronoField.NANO_OF_SECOND, 1, 9, true).optionalEnd().optionalEnd();
+    }
+
+    private static DateTimeFormatter dateTimeWithOffset(String offsetPattern) {
+        return dateTime('T').appendOffset(offsetPattern, "Z").toFormatter().withResolverStyle(ResolverStyle.STRICT);
+    }
+
+    /**
+     * @return a parser of dates without offset in the default zone of the JVM
+     */
+    public static DateParser getDefault() {
+        return SYSTEM_DEFAULT;
+    }
+
+    /**
+     * @param zone zone of dates without offset, <code>null</code> for the default zone of the JVM
+     * @return a parser of dates without offset in the given zone
+     */
+    public static DateParser of(ZoneId zone) {
+        return zone == null ? SYSTEM_DEFAULT : new DateParser(zone);
+    }
+
+    /**
+     * Parses the text with the default parser
+     *
+     * @param text
+     * @return the parsed date
+     * @throws ParseException if the text is not a date in one of the supported formats
+     * @see #tryParse(String)
+     */
     public static Date parse(String text) throws ParseException {
-        for (final String format : FORMATS) {
-            final SimpleDateFormat sdf = new SimpleDateFormat(format);
-            try {
-                return sdf.parse(text);
-            } catch (ParseException pe) {
-                // continue to next format
+        final Date date = SYSTEM_DEFAULT.tryParse(text);
+        if (date == null) {
+            throw new ParseException("Unable to parse date from '" + text + '\'', 0);
+        }
+        return date;
+    }
+
+    /**
+     * @return the zone of dates without offset, <code>null</code> for the default zone of the JVM
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * @param text
+     * @return the parsed date, or <code>null</code> if the text is not a date in one of the supported formats
+     */
+    public Date tryParse(String text) {
+        if (text == null || text.length() < TIME_SEPARATOR || !isDate(text)) {
+            return null;
+        }
+        final int length = text.length();
+        try {
+            if (length == TIME_SEPARATOR) {
+                return toDate(LocalDate.parse(text, DATE).atStartOfDay());
             }
+            if (length < DATE_TIME_LENGTH || !isTime(text)) {
+                return null;
+            }
+            final char separator = text.charAt(TIME_SEPARATOR);
+            if (separator == ' ') {
+                return toDate(LocalDateTime.parse(text, DATE_SPACE_TIME));
+            }
+            if (separator != 'T') {
+                return null;
+            }
+            if (!hasOffset(text)) {
+                return toDate(LocalDateTime.parse(text, DATE_TIME));
+            }
+            final DateTimeFormatter formatter = text.charAt(length - 3) == ':' ? DATE_TIME_OFFSET
+                    : DATE_TIME_COMPACT_OFFSET;
+            return Date.from(OffsetDateTime.parse(text, formatter).toInstant());
+        } catch (DateTimeException e) {
+            // looks like a date but is not one, e.g. 2020-02-30
+            return null;
         }
-        throw new ParseException("Unable to parse date from '" + text + '"', 0);
     }
 
+    private Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(zone == null ? ZoneId.systemDefault() : zone).toInstant());
+    }
+
+    /**
+     * @return whether the text starts with <code>dddd-dd-dd</code>
+     */
+    private static boolean isDate(String text) {
+        return isDigits(text, 0, 4) && text.charAt(4) == '-' && isDigits(text, 5, 7) && text.charAt(7) == '-'
+                && isDigits(text, 8, 10);
+    }
+
+    /**
+     * @return whether the text has <code>dd:dd</code> after the separator of date and time
+     */
+    private static boolean isTime(String text) {
+        return isDigits(text, 11, 13) && text.charAt(13) == ':' && isDigits(text, 14, 16);
+    }
+
+    /**
+     * @return whether the text has an offset after <code>HH:mm</code>
+     */
+    private static boolean hasOffset(String text) {
+        return text.charAt(text.length() - 1) == 'Z' || text.indexOf('+', DATE_TIME_LENGTH) >= 0
+                || text.indexOf('-', DATE_TIME_LENGTH) >= 0;
+    }
+
+    private static boolean isDigits(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
 }
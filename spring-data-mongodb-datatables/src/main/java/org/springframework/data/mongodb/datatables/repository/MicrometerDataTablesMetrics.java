@@ -0,0 +1,208 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link DataTablesMetrics} publishing to a Micrometer {@link MeterRegistry}.
+ * <p>
+ * All meters are tagged with <code>collection</code>, <code>path</code> (<code>criteria</code>,
+ * <code>aggregation</code> or <code>raw</code>) and <code>source</code> (<code>query</code>, or <code>cache</code>,
+ * <code>prefetch</code> and <code>coalesced</code> for the draws served without querying the collection):
+ * </p>
+ * <ul>
+ * <li><code>datatables.draw</code>: timer of the whole draw</li>
+ * <li><code>datatables.draw.phase</code>: timer of each phase of the draws querying the collection, tagged with
+ * <code>phase</code> (<code>plan</code>, <code>count_total</code>, <code>count_filtered</code>,
+ * <code>fetch</code>, <code>map</code>)</li>
+ * <li><code>datatables.draw.rows</code>: distribution summary of the count of returned rows</li>
+ * <li><code>datatables.draw.records.filtered</code>: distribution summary of <code>recordsFiltered</code></li>
+ * <li><code>datatables.draw.errors</code>: counter of failed draws, tagged with <code>exception</code></li>
+ * <li><code>datatables.draw.empty</code>: counter of draws without any row</li>
+ * <li><code>datatables.draw.unpaged</code>: counter of draws with <code>length = -1</code></li>
+ * </ul>
+ * <p>
+ * Percentiles and histograms are configured on the registry, e.g. with
+ * <code>management.metrics.distribution.percentiles-histogram.datatables=true</code> in Spring Boot.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+public class MicrometerDataTablesMetrics implements DataTablesMetrics {
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Clock clock;
+
+    /**
+     * meters per collection, path and source
+     */
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public MicrometerDataTablesMetrics(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * @param registry
+     * @param tags added to all meters, e.g. the name of the application
+     */
+    public MicrometerDataTablesMetrics(MeterRegistry registry, Tags tags) {
+        this.registry = registry;
+        this.tags = tags;
+        this.clock = registry.config().clock();
+    }
+
+    @Override
+    public Draw start(String collectionName, Path path, DataTablesInput input) {
+        return start(collectionName, path, Source.QUERY, input);
+    }
+
+    @Override
+    public Draw start(String collectionName, Path path, Source source, DataTablesInput input) {
+        final Meters drawMeters = meters.computeIfAbsent(collectionName + '/' + path + '/' + source,
+                key -> new Meters(collectionName, path, source));
+        if (input.getLength() == -1) {
+            drawMeters.unpaged.increment();
+        }
+        return new MicrometerDraw(drawMeters);
+    }
+
+    private static String toTagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private final class Meters {
+
+        private final Tags tags;
+        private final Timer draw;
+        private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+        private final DistributionSummary rows;
+        private final DistributionSummary recordsFiltered;
+        private final Counter empty;
+        private final Counter unpaged;
+        private final ConcurrentMap<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+
+        Meters(String collectionName, Path path, Source source) {
+            this.tags = MicrometerDataTablesMetrics.this.tags.and("collection", collectionName, "path",
+                    toTagValue(path), "source", toTagValue(source));
+            this.draw = Timer.builder("datatables.draw").description("Duration of DataTables draws").tags(tags)
+                    .register(registry);
+            // the other sources have no phases
+            if (source == Source.QUERY) {
+                for (final Phase phase : Phase.values()) {
+                    phases.put(phase, Timer.builder("datatables.draw.phase")
+                            .description("Duration of the phases of DataTables draws").tags(tags)
+                            .tag("phase", toTagValue(phase)).register(registry));
+                }
+            }
+            this.rows = DistributionSummary.builder("datatables.draw.rows")
+                    .description("Count of rows returned by DataTables draws").baseUnit("rows").tags(tags)
+                    .register(registry);
+            this.recordsFiltered = DistributionSummary.builder("datatables.draw.records.filtered")
+                    .description("recordsFiltered of DataTables draws").baseUnit("records").tags(tags)
+                    .register(registry);
+            this.empty = Counter.builder("datatables.draw.empty").description("DataTables draws without any row")
+                    .tags(tags).register(registry);
+            this.unpaged = Counter.builder("datatables.draw.unpaged")
+                    .description("DataTables draws with length = -1").tags(tags).register(registry);
+        }
+
+        Counter getErrors(Exception e) {
+            return errors.computeIfAbsent(e.getClass(),
+                    type -> Counter.builder("datatables.draw.errors").description("Failed DataTables draws")
+                            .tags(tags).tag("exception", type.getSimpleName()).register(registry));
+        }
+    }
+
+    private final class MicrometerDraw implements Draw {
+
+        private final Meters meters;
+        private final long start;
+
+        /**
+         * accumulated duration of each phase, as a phase may be entered several times in a draw (-1 if never)
+         */
+        private final long[] phaseNanos = new long[Phase.values().length];
+        private Phase phase;
+        private long phaseStart;
+        private boolean failed;
+
+        MicrometerDraw(Meters meters) {
+            this.meters = meters;
+            this.start = clock.monotonicTime();
+            Arrays.fill(phaseNanos, -1L);
+        }
+
+        @Override
+        public void phase(Phase next) {
+            final long now = clock.monotonicTime();
+            endPhase(now);
+            phase = next;
+            phaseStart = now;
+        }
+
+        private void endPhase(long now) {
+            if (phase != null) {
+                phaseNanos[phase.ordinal()] = Math.max(phaseNanos[phase.ordinal()], 0L) + now - phaseStart;
+                phase = null;
+            }
+        }
+
+        @Override
+        public <R> Supplier<R> timed(Phase timedPhase, Supplier<R> supplier) {
+            final Timer timer = meters.phases.get(timedPhase);
+            return () -> {
+                final long timedStart = clock.monotonicTime();
+                try {
+                    return supplier.get();
+                } finally {
+                    timer.record(clock.monotonicTime() - timedStart, TimeUnit.NANOSECONDS);
+                }
+            };
+        }
+
+        @Override
+        public void error(Exception e) {
+            failed = true;
+            meters.getErrors(e).increment();
+        }
+
+        @Override
+        public void end(DataTablesOutput<?> output) {
+            final long now = clock.monotonicTime();
+            endPhase(now);
+            for (final Phase recorded : Phase.values()) {
+                if (phaseNanos[recorded.ordinal()] >= 0) {
+                    meters.phases.get(recorded).record(phaseNanos[recorded.ordinal()], TimeUnit.NANOSECONDS);
+                }
+            }
+            meters.draw.record(now - start, TimeUnit.NANOSECONDS);
+            if (failed) {
+                return;
+            }
+            final int rowCount = output.getData() == null ? 0 : output.getData().size();
+            meters.rows.record(rowCount);
+            meters.recordsFiltered.record(output.getRecordsFiltered());
+            if (rowCount == 0) {
+                meters.empty.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link DataTablesRepository}, to be used with
+ * {@link ReactiveDataTablesRepositoryFactoryBean}.
+ */
+@NoRepositoryBean
+public interface ReactiveDataTablesRepository<T, ID extends Serializable>
+        extends ReactiveSortingRepository<T, ID> {
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput}.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @return a {@link DataTablesOutput}
+     */
+    Mono<DataTablesOutput<T>> findAll(DataTablesInput input);
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput}.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @param additionalCriteria an additional {@link Criteria} to apply to the query (with an "AND" clause)
+     * @return a {@link DataTablesOutput}
+     */
+    Mono<DataTablesOutput<T>> findAll(DataTablesInput input, Criteria additionalCriteria);
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput}.
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @param additionalCriteria an additional {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param preFilteringCriteria a pre-filtering {@link Criteria} to apply to the query (with an "AND" clause)
+     * @return a {@link DataTablesOutput}
+     */
+    Mono<DataTablesOutput<T>> findAll(DataTablesInput input, Criteria additionalCriteria,
+            Criteria preFilteringCriteria);
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput} using the given {@link TypedAggregation}
+     *
+     * @param classOfView
+     * @param input
+     * @param operations
+     * @return
+     */
+    <View> Mono<DataTablesOutput<View>> findAll(Class<View> classOfView, DataTablesInput input,
+            AggregationOperation... operations);
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput} after the given {@link TypedAggregation}
+     *
+     * @param classOfView
+     * @param input
+     * @param preFilteringOptions
+     * @return
+     */
+    <View> Mono<DataTablesOutput<View>> findAll(Class<View> classOfView, DataTablesInput input,
+            Collection<? extends AggregationOperation> preFilteringOptions);
+
+    /**
+     * Returns the filtered list with aggregation in the following order:
+     * <ol>
+     *  <li>firstly, in {@link preFilteringOperations}</li>
+     *  <li>then, in {@link DataTablesInput}</li>
+     *  <li>then, in {@link additionalOperations}</li>
+     * </ol>
+     *
+     * @param classOfView
+     * @param input
+     * @param additionalOperations,
+     * @param preFilteringOperations
+     * @return
+     */
+    <View> Mono<DataTablesOutput<View>> findAll(Class<View> classOfView, DataTablesInput input,
+            Collection<? extends AggregationOperation> additionalOperations,
+            Collection<? extends AggregationOperation> preFilteringOperations);
+
+    /**
+     * Returns the statistics of the compiled query plan cache of this repository.
+     *
+     * @return a {@link DataTablesCacheStats}
+     */
+    DataTablesCacheStats getQueryPlanCacheStats();
+
+}
@@ -0,0 +1,81 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import java.io.Serializable;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactoryBean;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+/**
+ * {@link FactoryBean} creating ReactiveDataTablesRepositoryFactory instances, to be declared as the
+ * <code>repositoryFactoryBeanClass</code> of <code>@EnableReactiveMongoRepositories</code>.
+ * <p>
+ * If a {@link DataTablesOptions} bean is declared, it is applied to all created repositories.
+ * </p>
+ */
+public class ReactiveDataTablesRepositoryFactoryBean<R extends ReactiveMongoRepository<T, ID>, T,
+		ID extends Serializable> extends ReactiveMongoRepositoryFactoryBean<R, T, ID> {
+
+	private BeanFactory beanFactory;
+
+	public ReactiveDataTablesRepositoryFactoryBean(Class<? extends R> repositoryInterface) {
+		super(repositoryInterface);
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		super.setBeanFactory(beanFactory);
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	protected RepositoryFactorySupport getFactoryInstance(ReactiveMongoOperations operations) {
+		DataTablesOptions options = beanFactory == null ? null
+				: beanFactory.getBeanProvider(DataTablesOptions.class).getIfAvailable();
+		return new ReactiveDataTablesRepositoryFactory(operations,
+				options == null ? new DataTablesOptions() : options);
+	}
+
+	private static class ReactiveDataTablesRepositoryFactory extends ReactiveMongoRepositoryFactory {
+
+		private final ReactiveMongoOperations mongoOperations;
+		private final DataTablesOptions options;
+
+		public ReactiveDataTablesRepositoryFactory(ReactiveMongoOperations mongoOperations,
+				DataTablesOptions options) {
+			super(mongoOperations);
+			this.mongoOperations = mongoOperations;
+			this.options = options;
+		}
+
+		@Override
+		protected Class<?> getRepositoryBaseClass(RepositoryMetadata metadata) {
+			Class<?> repoClass = metadata.getRepositoryInterface();
+			if (ReactiveDataTablesRepository.class.isAssignableFrom(repoClass)) {
+				return ReactiveDataTablesRepositoryImpl.class;
+			} else {
+				return super.getRepositoryBaseClass(metadata);
+			}
+		}
+
+		@Override
+		protected Object getTargetRepository(RepositoryInformation information) {
+			if (ReactiveDataTablesRepository.class.isAssignableFrom(information.getRepositoryInterface())) {
+				MongoEntityInformation<?, Serializable> entityInformation = getEntityInformation(
+						information.getDomainType());
+				return getTargetRepositoryViaReflection(information, entityInformation, mongoOperations, options);
+			} else {
+				return super.getTargetRepository(information);
+			}
+		}
+	}
+
+}
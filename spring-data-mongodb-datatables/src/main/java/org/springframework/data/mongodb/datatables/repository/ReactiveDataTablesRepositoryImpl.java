@@ -0,0 +1,222 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+import org.springframework.data.mongodb.datatables.model.DataTablesCount;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+import org.springframework.data.mongodb.repository.support.SimpleReactiveMongoRepository;
+
+import com.mongodb.reactivestreams.client.MongoCollection;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive repository implementation.
+ * <p>
+ * The total count, the filtered count and the page are subscribed to at the same time with {@link Mono#zip}, so
+ * that a draw costs one round-trip of latency without blocking any thread. The query plan cache, the search mode
+ * options, <code>maxFilteredCount</code>, <code>estimatedTotalCount</code> and <code>fieldProjection</code> of
+ * {@link DataTablesOptions} apply; the other options are specific to {@link DataTablesRepositoryImpl}.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+public class ReactiveDataTablesRepositoryImpl<T, ID extends Serializable> extends SimpleReactiveMongoRepository<T, ID>
+        implements ReactiveDataTablesRepository<T, ID> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveDataTablesRepositoryImpl.class);
+
+    private final MongoEntityInformation<T, ID> entityInformation;
+    private final ReactiveMongoOperations mongoOperations;
+    private final DataTablesOptions options;
+    private final DataTablesEntityMetamodel<T> metamodel;
+    private final DataTablesCache<String, DataTablesQueryPlan<T>> queryPlans;
+
+    public ReactiveDataTablesRepositoryImpl(MongoEntityInformation<T, ID> metadata,
+            ReactiveMongoOperations mongoOperations) {
+        this(metadata, mongoOperations, new DataTablesOptions());
+    }
+
+    public ReactiveDataTablesRepositoryImpl(MongoEntityInformation<T, ID> metadata,
+            ReactiveMongoOperations mongoOperations, DataTablesOptions options) {
+        super(metadata, mongoOperations);
+        this.entityInformation = metadata;
+        this.mongoOperations = mongoOperations;
+        this.options = options;
+        this.metamodel = new DataTablesEntityMetamodel<>(metadata.getJavaType(),
+                mongoOperations.getConverter().getMappingContext(), options.getObjectMapper());
+        this.queryPlans = new DataTablesCache<>(options.getQueryPlanCacheSize());
+    }
+
+    private DataTablesQueryPlan<T> getQueryPlan(DataTablesInput input) {
+        return queryPlans.get(DataTablesQueryPlan.shapeOf(input),
+                shape -> DataTablesQueryPlan.compile(this.metamodel, input, Collections.emptySet(), options));
+    }
+
+    @Override
+    public DataTablesCacheStats getQueryPlanCacheStats() {
+        return queryPlans.stats();
+    }
+
+    @Override
+    public Mono<DataTablesOutput<T>> findAll(DataTablesInput input) {
+        return findAll(input, null, null);
+    }
+
+    @Override
+    public Mono<DataTablesOutput<T>> findAll(DataTablesInput input, Criteria additionalCriteria) {
+        return findAll(input, additionalCriteria, null);
+    }
+
+    @Override
+    public Mono<DataTablesOutput<T>> findAll(DataTablesInput input, Criteria additionalCrit,
+            Criteria preFilteringCrit) {
+        return Mono.defer(() -> {
+            DataTablesQueryPlan<T> plan = getQueryPlan(input);
+            Query query = DataTablesUtils.getQuery(plan, input, additionalCrit, preFilteringCrit);
+            if (options.isFieldProjection()) {
+                final Query projected = new BasicQuery(query.getQueryObject(), plan.getProjection());
+                query.getCollation().ifPresent(projected::collation);
+                query = projected;
+            }
+            Pageable pageable = DataTablesUtils.getPageable(input, plan.getSort());
+
+            Mono<Long> total = preFilteringCrit == null ? countAll()
+                    : mongoOperations.count(query(preFilteringCrit), this.entityInformation.getCollectionName());
+
+            return Mono.zip(total, countFiltered(query), find(query, pageable).collectList())
+                    .map(result -> toOutput(input, result.getT1(), result.getT2(), result.getT3()));
+        }).onErrorResume(e -> Mono.just(toErrorOutput(input, e)));
+    }
+
+    private Mono<Long> countAll() {
+        if (options.isEstimatedTotalCount()) {
+            return mongoOperations
+                    .execute(this.entityInformation.getCollectionName(), MongoCollection::estimatedDocumentCount)
+                    .next();
+        }
+        return count();
+    }
+
+    private Mono<Long> countFiltered(Query q) {
+        final long maxFilteredCount = options.getMaxFilteredCount();
+        if (maxFilteredCount <= 0) {
+            return mongoOperations.count(q, this.entityInformation.getCollectionName());
+        }
+        // count honors limit, so stop after the first document beyond the ceiling
+        Query limited = new BasicQuery(q.getQueryObject());
+        q.getCollation().ifPresent(limited::collation);
+        limited.limit((int) Math.min(maxFilteredCount + 1, Integer.MAX_VALUE));
+        return mongoOperations.count(limited, this.entityInformation.getCollectionName());
+    }
+
+    private Flux<T> find(Query q, Pageable p) {
+        // page on a copy, so that q can still be counted (count honors limit and skip)
+        Query paged = new BasicQuery(q.getQueryObject(), q.getFieldsObject());
+        q.getCollation().ifPresent(paged::collation);
+        if (p.getSort() == null) {
+            if (!p.isUnpaged()) {
+                paged.limit(p.getPageSize()).skip(p.getOffset());
+            }
+        } else {
+            paged.with(p);
+        }
+
+        return mongoOperations.find(paged, this.entityInformation.getJavaType(),
+                this.entityInformation.getCollectionName());
+    }
+
+    @Override
+    public <View> Mono<DataTablesOutput<View>> findAll(Class<View> classOfView, DataTablesInput input,
+            AggregationOperation... operations) {
+        return findAll(classOfView, input, operations, null);
+    }
+
+    @Override
+    public <View> Mono<DataTablesOutput<View>> findAll(Class<View> classOfView, DataTablesInput input,
+            Collection<? extends AggregationOperation> preFilteringOptions) {
+        AggregationOperation[] preFilteringOps = preFilteringOptions.toArray(new AggregationOperation[0]);
+        return findAll(classOfView, input, null, preFilteringOps);
+    }
+
+    @Override
+    public <View> Mono<DataTablesOutput<View>> findAll(Class<View> classOfView, DataTablesInput input,
+            Collection<? extends AggregationOperation> additionalOperations,
+            Collection<? extends AggregationOperation> preFilteringOperations) {
+        AggregationOperation[] additionalOps = additionalOperations == null ? null
+                : additionalOperations.toArray(new AggregationOperation[0]);
+        AggregationOperation[] preFilteringOps = preFilteringOperations == null ? null
+                : preFilteringOperations.toArray(new AggregationOperation[0]);
+        return findAll(classOfView, input, additionalOps, preFilteringOps);
+    }
+
+    private <View> Mono<DataTablesOutput<View>> findAll(Class<View> classOfView, DataTablesInput input,
+            AggregationOperation[] preFilteringOps, AggregationOperation[] additionalOps) {
+        return Mono.defer(() -> {
+            final DataTablesQueryPlan<T> plan = getQueryPlan(input);
+            final Pageable pageable = DataTablesUtils.getPageable(input, plan.getSort());
+
+            final Mono<Long> total = preFilteringOps == null || preFilteringOps.length == 0 ? countAll()
+                    : count(mongoOperations.aggregate(
+                            DataTablesUtils.makeAggregationCountOnly(metamodel, preFilteringOps),
+                            DataTablesCount.class));
+            final Mono<Long> filtered = count(mongoOperations.aggregate(
+                    DataTablesUtils.makeAggregationCountOnly(plan, input, preFilteringOps, additionalOps,
+                            options.getMaxFilteredCount()),
+                    DataTablesCount.class));
+            final Mono<List<View>> data = mongoOperations
+                    .aggregate(DataTablesUtils.makeAggregation(plan, input, pageable, null,
+                            options.isFieldProjection() && (additionalOps == null || additionalOps.length == 0)
+                                    ? plan.getProjection()
+                                    : null,
+                            preFilteringOps, additionalOps), classOfView)
+                    .collectList();
+
+            return Mono.zip(total, filtered, data)
+                    .map(result -> toOutput(input, result.getT1(), result.getT2(), result.getT3()));
+        }).onErrorResume(e -> Mono.just(toErrorOutput(input, e)));
+    }
+
+    private static Mono<Long> count(Flux<DataTablesCount> countResult) {
+        return countResult.next().map(DataTablesCount::getCount).defaultIfEmpty(0L);
+    }
+
+    private <R> DataTablesOutput<R> toOutput(DataTablesInput input, long recordsTotal, long recordsFiltered,
+            List<R> data) {
+        DataTablesOutput<R> output = new DataTablesOutput<R>();
+        output.setDraw(input.getDraw());
+        if (recordsTotal == 0) {
+            return output;
+        }
+        output.setRecordsTotal(recordsTotal);
+        DataTablesUtils.setRecordsFiltered(output, recordsFiltered, options.getMaxFilteredCount());
+        output.setData(data);
+        return output;
+    }
+
+    private static <R> DataTablesOutput<R> toErrorOutput(DataTablesInput input, Throwable e) {
+        log.error("caught exception", e);
+        DataTablesOutput<R> output = new DataTablesOutput<R>();
+        output.setDraw(input.getDraw());
+        output.setError(e.toString());
+        return output;
+    }
+
+}
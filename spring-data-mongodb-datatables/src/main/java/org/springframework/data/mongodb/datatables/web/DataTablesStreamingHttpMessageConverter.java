@@ -0,0 +1,80 @@
+package org.springframework.data.mongodb.datatables.web;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.data.mongodb.datatables.mapping.DataTablesStreamingOutput;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * {@link org.springframework.http.converter.HttpMessageConverter} writing {@link DataTablesStreamingOutput}s row
+ * by row, while the rows are read from the database cursor.
+ * <p>
+ * It only handles {@link DataTablesStreamingOutput}, so it can be registered in front of the other converters,
+ * e.g. by declaring it as a bean in Spring Boot. <code>@JsonView</code> on the handler method is honored.
+ * </p>
+ *
+ * @author Xiaoyu Guo
+ */
+public class DataTablesStreamingHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+	public DataTablesStreamingHttpMessageConverter() {
+		this(Jackson2ObjectMapperBuilder.json().build());
+	}
+
+	public DataTablesStreamingHttpMessageConverter(ObjectMapper objectMapper) {
+		super(objectMapper);
+	}
+
+	@Override
+	public boolean canRead(Class<?> clazz, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+		return DataTablesStreamingOutput.class.isAssignableFrom(clazz) && super.canWrite(clazz, mediaType);
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		return canWrite(clazz, mediaType);
+	}
+
+	@Override
+	protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		Object value = object;
+		Class<?> serializationView = null;
+		if (object instanceof MappingJacksonValue) {
+			value = ((MappingJacksonValue) object).getValue();
+			serializationView = ((MappingJacksonValue) object).getSerializationView();
+		}
+		if (!(value instanceof DataTablesStreamingOutput)) {
+			super.writeInternal(object, type, outputMessage);
+			return;
+		}
+
+		final ObjectMapper objectMapper = getObjectMapper();
+		final ObjectWriter rowWriter = serializationView == null ? objectMapper.writer()
+				: objectMapper.writerWithView(serializationView);
+		final JsonGenerator generator = objectMapper.getFactory().createGenerator(outputMessage.getBody(),
+				getJsonEncoding(outputMessage.getHeaders().getContentType()));
+		((DataTablesStreamingOutput<?>) value).writeTo(generator, rowWriter);
+	}
+
+}
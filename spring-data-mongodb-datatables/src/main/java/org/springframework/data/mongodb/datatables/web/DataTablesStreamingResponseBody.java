@@ -0,0 +1,47 @@
+package org.springframework.data.mongodb.datatables.web;
+
+import org.springframework.data.mongodb.datatables.mapping.DataTablesStreamingOutput;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Creates {@link StreamingResponseBody}s of {@link DataTablesStreamingOutput}s, so that the rows are written on
+ * the async task executor of Spring MVC instead of the request thread.
+ *
+ * @author Xiaoyu Guo
+ */
+public final class DataTablesStreamingResponseBody {
+
+	private DataTablesStreamingResponseBody() {
+	}
+
+	/**
+	 * @param output
+	 * @param objectMapper
+	 * @return a {@link StreamingResponseBody} writing the output as JSON
+	 */
+	public static StreamingResponseBody of(DataTablesStreamingOutput<?> output, ObjectMapper objectMapper) {
+		return of(output, objectMapper, null);
+	}
+
+	/**
+	 * @param output
+	 * @param objectMapper
+	 * @param serializationView the jackson view of the rows, e.g.
+	 *            {@link org.springframework.data.mongodb.datatables.mapping.DataTablesOutput.View}, may be
+	 *            <code>null</code>
+	 * @return a {@link StreamingResponseBody} writing the output as JSON
+	 */
+	public static StreamingResponseBody of(DataTablesStreamingOutput<?> output, ObjectMapper objectMapper,
+			Class<?> serializationView) {
+		return out -> {
+			final JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+			output.writeTo(generator, serializationView == null ? objectMapper.writer()
+					: objectMapper.writerWithView(serializationView));
+		};
+	}
+
+}
@@ -0,0 +1,151 @@
+package org.springframework.data.mongodb.datatables.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Date;
+
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+public class ColumnTypeTest {
+
+    @Test
+    public void parseLongAcceptsTheWholeRange() {
+        assertEquals(Long.valueOf(Long.MAX_VALUE), ColumnType.parseLong("9223372036854775807", Long.MIN_VALUE,
+                Long.MAX_VALUE));
+        assertEquals(Long.valueOf(Long.MIN_VALUE), ColumnType.parseLong("-9223372036854775808", Long.MIN_VALUE,
+                Long.MAX_VALUE));
+        assertEquals(Long.valueOf(42L), ColumnType.parseLong("+42", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(Long.valueOf(0L), ColumnType.parseLong("-0", Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void parseLongRejectsOverflowsAndInvalidText() {
+        assertNull(ColumnType.parseLong("9223372036854775808", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertNull(ColumnType.parseLong("-9223372036854775809", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertNull(ColumnType.parseLong("92233720368547758070", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertNull(ColumnType.parseLong("2147483648", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(Long.valueOf(Integer.MIN_VALUE),
+                ColumnType.parseLong("-2147483648", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertNull(ColumnType.parseLong("-2147483649", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        for (final String text : new String[] { null, "", "-", "+", "1.0", "1e3", " 1", "1 ", "0x1", "--1" }) {
+            assertNull(text, ColumnType.parseLong(text, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void isDecimalRequiresADigitAndAShortExponent() {
+        for (final String text : new String[] { "0", "-1", "+1", ".5", "5.", "-.5", "1.5e10", "1E-9999", "1e+12" }) {
+            assertTrue(text, ColumnType.isDecimal(text));
+        }
+        for (final String text : new String[] { null, "", "-", "+", ".", "e5", "1e", "1e+", "1e10000", "1.5.2",
+                "NaN", "Infinity", "0x10", " 1" }) {
+            assertFalse(text, ColumnType.isDecimal(text));
+        }
+    }
+
+    @Test
+    public void convertsNumbers() {
+        assertEquals(5, ColumnType.INTEGER.tryConvert("5"));
+        assertEquals("5000000000", ColumnType.INTEGER.tryConvert("5000000000"));
+        assertEquals(5000000000L, ColumnType.LONG.tryConvert("5000000000"));
+        assertEquals(0.5, ColumnType.DOUBLE.tryConvert(".5"));
+        assertEquals(5.0, ColumnType.DOUBLE.tryConvert("5."));
+        assertEquals("-", ColumnType.DOUBLE.tryConvert("-"));
+        assertEquals("1e10000", ColumnType.DOUBLE.tryConvert("1e10000"));
+    }
+
+    @Test
+    public void convertsDecimal128UpTo34SignificantDigits() {
+        assertEquals(new Decimal128(new BigDecimal("0.5")), ColumnType.DECIMAL128.tryConvert(".5"));
+        assertEquals(new Decimal128(new BigDecimal("5")), ColumnType.DECIMAL128.tryConvert("5."));
+        final String digits34 = "1234567890123456789012345678901234";
+        assertEquals(new Decimal128(new BigDecimal(digits34)), ColumnType.DECIMAL128.tryConvert(digits34));
+        // trailing zeros are not significant
+        assertEquals(new Decimal128(new BigDecimal(digits34 + "0").stripTrailingZeros()),
+                ColumnType.DECIMAL128.tryConvert(digits34 + "0"));
+        assertEquals(digits34 + "5", ColumnType.DECIMAL128.tryConvert(digits34 + "5"));
+        assertEquals("0." + digits34 + "5", ColumnType.DECIMAL128.tryConvert("0." + digits34 + "5"));
+        // out of the range of the exponent
+        assertEquals(new Decimal128(new BigDecimal("1e6111")), ColumnType.DECIMAL128.tryConvert("1e6111"));
+        assertEquals("1e6112", ColumnType.DECIMAL128.tryConvert("1e6112"));
+        assertEquals("1e-6177", ColumnType.DECIMAL128.tryConvert("1e-6177"));
+        assertEquals("1e10000", ColumnType.DECIMAL128.tryConvert("1e10000"));
+        assertEquals("abc", ColumnType.DECIMAL128.tryConvert("abc"));
+    }
+
+    @Test
+    public void keepsInvalidBooleansAndObjectIdsAsStrings() {
+        assertEquals(Boolean.TRUE, ColumnType.BOOLEAN.tryConvert("TRUE"));
+        assertEquals(Boolean.FALSE, ColumnType.BOOLEAN.tryConvert("false"));
+        assertEquals("yes", ColumnType.BOOLEAN.tryConvert("yes"));
+        assertNull(ColumnType.BOOLEAN.tryConvert(null));
+
+        final ObjectId id = new ObjectId();
+        assertEquals(id, ColumnType.OBJECT_ID.tryConvert(id.toHexString()));
+        assertEquals("abc", ColumnType.OBJECT_ID.tryConvert("abc"));
+    }
+
+    @Test
+    public void parsesCodesCaseInsensitively() {
+        assertSame(ColumnType.DECIMAL128, ColumnType.parse("Decimal128"));
+        assertSame(ColumnType.STRING, ColumnType.parse("unknown"));
+        assertSame(ColumnType.STRING, ColumnType.parse(null));
+    }
+
+    @Test
+    public void infersTheTypeOfJavaTypes() {
+        assertSame(ColumnType.INTEGER, ColumnType.of(int.class));
+        assertSame(ColumnType.LONG, ColumnType.of(Long.class));
+        assertSame(ColumnType.DATE, ColumnType.of(LocalDate.class));
+        assertSame(ColumnType.DECIMAL128, ColumnType.of(Decimal128.class));
+        assertSame(ColumnType.OBJECT_ID, ColumnType.of(ObjectId.class));
+        // BigDecimal is stored as a string by default
+        assertSame(ColumnType.STRING, ColumnType.of(BigDecimal.class));
+        assertSame(ColumnType.STRING, ColumnType.of(null));
+        // the closest registered superclass
+        assertSame(ColumnType.DATE, ColumnType.of(Timestamp.class));
+    }
+
+    static class Money implements Serializable, Comparable<Money> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int compareTo(Money o) {
+            return 0;
+        }
+    }
+
+    static class Cents extends Money {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @Test
+    public void infersRegisteredSuperclassesBeforeInterfaces() {
+        final ColumnType serializable = new ColumnType("test-serializable", false) {
+            @Override
+            public Object tryConvert(String text) {
+                return text;
+            }
+        };
+        ColumnType.register(serializable, Serializable.class);
+        try {
+            // Date, Timestamp and Long are serializable too, but their own class or superclass comes first
+            assertSame(serializable, ColumnType.of(Cents.class));
+            assertSame(ColumnType.DATE, ColumnType.of(Date.class));
+            assertSame(ColumnType.DATE, ColumnType.of(Timestamp.class));
+            assertSame(ColumnType.LONG, ColumnType.of(Long.class));
+        } finally {
+            ColumnType.register(ColumnType.STRING, Serializable.class);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class DataTablesBatchTest {
+
+    private final Executor direct = Runnable::run;
+
+    @Test
+    public void identicalQueriesRunOnce() {
+        final DataTablesBatch batch = new DataTablesBatch(direct);
+        final AtomicInteger runs = new AtomicInteger();
+
+        final CompletableFuture<Integer> first = batch.submit("count:a", runs::incrementAndGet);
+        final CompletableFuture<Integer> second = batch.submit("count:a", runs::incrementAndGet);
+        final CompletableFuture<Integer> other = batch.submit("count:b", runs::incrementAndGet);
+
+        assertSame(first, second);
+        assertEquals(Integer.valueOf(1), second.join());
+        assertEquals(Integer.valueOf(2), other.join());
+        assertEquals(2, runs.get());
+        assertEquals(1, batch.getSharedCount());
+    }
+
+    @Test
+    public void queriesWithoutKeyAreNeverShared() {
+        final DataTablesBatch batch = new DataTablesBatch(direct);
+
+        assertNotSame(batch.submit(null, () -> 1), batch.submit(null, () -> 1));
+        assertEquals(0, batch.getSharedCount());
+    }
+
+    @Test
+    public void failuresAreSharedToo() {
+        final DataTablesBatch batch = new DataTablesBatch(direct);
+        final CompletableFuture<Object> failed = batch.submit("data:a", () -> {
+            throw new IllegalStateException();
+        });
+
+        assertSame(failed, batch.submit("data:a", () -> 1));
+        assertTrue(failed.isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,145 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+public class DataTablesCursorTest {
+
+    static class Order {
+        @Id
+        String id;
+
+        @Field("number")
+        String orderNumber;
+
+        Date date;
+    }
+
+    private final MongoMappingContext mappingContext = new MongoMappingContext();
+
+    private final MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+            mappingContext);
+
+    private final DataTablesEntityMetamodel<Order> metamodel = new DataTablesEntityMetamodel<>(Order.class,
+            mappingContext);
+
+    private final Sort sort = DataTablesCursor.withTieBreaker(metamodel,
+            Sort.by(Direction.ASC, "orderNumber").and(Sort.by(Direction.DESC, "date")));
+
+    private static Order order(String id, String orderNumber, Date date) {
+        final Order order = new Order();
+        order.id = id;
+        order.orderNumber = orderNumber;
+        order.date = date;
+        return order;
+    }
+
+    private DataTablesCursor cursor(boolean previous) {
+        return DataTablesCursor.of(converter, metamodel, order("o1", "A-1", new Date(1000L)), sort, 10, previous, 42);
+    }
+
+    @Test
+    public void withTieBreakerAppendsTheIdentifier() {
+        assertEquals(Sort.by(Direction.ASC, "orderNumber").and(Sort.by(Direction.DESC, "date"))
+                .and(Sort.by(Direction.ASC, "id")), sort);
+        assertEquals(Sort.by(Direction.ASC, "id"), DataTablesCursor.withTieBreaker(metamodel, null));
+        final Sort byId = Sort.by(Direction.DESC, "id");
+        assertEquals(byId, DataTablesCursor.withTieBreaker(metamodel, byId));
+    }
+
+    @Test
+    public void reverseFlipsAllDirections() {
+        assertEquals(Sort.by(Direction.DESC, "orderNumber").and(Sort.by(Direction.ASC, "date"))
+                .and(Sort.by(Direction.DESC, "id")), DataTablesCursor.reverse(sort));
+    }
+
+    @Test
+    public void roundTrip() {
+        final DataTablesCursor cursor = cursor(false);
+        final DataTablesCursor decoded = DataTablesCursor.decode(cursor.encode());
+
+        assertNotNull(decoded);
+        assertEquals(cursor.encode(), decoded.encode());
+        assertEquals(cursor.toPredicate(), decoded.toPredicate());
+        assertFalse(decoded.isPrevious());
+        assertTrue(decoded.matches(10, sort, 42));
+        assertTrue(DataTablesCursor.decode(cursor(true).encode()).isPrevious());
+    }
+
+    @Test
+    public void toPredicateSeeksAfterTheRowOfTheCursor() {
+        final Document expected = new Document("$or", Arrays.asList(
+                new Document("orderNumber", new Document("$gt", "A-1")),
+                new Document("orderNumber", new Document("$eq", "A-1")).append("date",
+                        new Document("$lt", new Date(1000L))),
+                new Document("orderNumber", new Document("$eq", "A-1"))
+                        .append("date", new Document("$eq", new Date(1000L)))
+                        .append("id", new Document("$gt", "o1"))));
+        assertEquals(expected, cursor(false).toPredicate());
+    }
+
+    @Test
+    public void toPredicateOfPreviousCursorSeeksBeforeTheRow() {
+        final Document predicate = cursor(true).toPredicate();
+        final Document first = (Document) predicate.getList("$or", Document.class).get(0);
+        assertEquals(new Document("orderNumber", new Document("$lt", "A-1")), first);
+    }
+
+    @Test
+    public void matchesOnlyTheRequestedPage() {
+        final DataTablesCursor cursor = DataTablesCursor.decode(cursor(false).encode());
+
+        assertTrue(cursor.matches(10, sort, 42));
+        assertFalse(cursor.matches(20, sort, 42));
+        assertFalse(cursor.matches(10, sort, 43));
+        assertFalse(cursor.matches(10, DataTablesCursor.reverse(sort), 42));
+        assertFalse(cursor.matches(10, Sort.by(Direction.ASC, "orderNumber").and(Sort.by(Direction.ASC, "id")),
+                42));
+        assertFalse(cursor.matches(10, sort.and(Sort.by(Direction.ASC, "other")), 42));
+    }
+
+    @Test
+    public void ofReadsStoredFieldNamesOfDocuments() {
+        final Document row = new Document("_id", "o1").append("number", "A-1").append("date", new Date(1000L));
+        final DataTablesCursor cursor = DataTablesCursor.of(converter, metamodel, row, sort, 10, false, 42);
+
+        assertNotNull(cursor);
+        assertEquals(cursor(false).toPredicate(), cursor.toPredicate());
+    }
+
+    @Test
+    public void ofReturnsNullIfASortValueIsMissing() {
+        assertNull(DataTablesCursor.of(converter, metamodel, order("o1", null, new Date(1000L)), sort, 10, false,
+                42));
+    }
+
+    @Test
+    public void decodeIgnoresMalformedCursors() {
+        assertNull(DataTablesCursor.decode("not base64 !"));
+        assertNull(DataTablesCursor.decode(encode("not json")));
+        assertNull(DataTablesCursor.decode(encode("{}")));
+        assertNull(DataTablesCursor.decode(encode("{s: 10, p: false, f: 42, k: ['a', 'b'], d: [1], v: [1, 2]}")));
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,215 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+
+import org.junit.Test;
+import org.springframework.data.mongodb.datatables.mapping.Column;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.model.DataTablesPrefetchStats;
+
+public class DataTablesDrawSharingTest {
+
+    private static final List<String> ROWS = Arrays.asList("a", "b", "c", "d", "e");
+
+    /**
+     * the inputs of the draws which ran, with whether they reused the counts of a previous page
+     */
+    private final List<String> draws = new CopyOnWriteArrayList<>();
+
+    /**
+     * the sources of the draws which were served without running
+     */
+    private final List<DataTablesMetrics.Source> served = new CopyOnWriteArrayList<>();
+
+    private final DataTablesMetrics metrics = new DataTablesMetrics() {
+        @Override
+        public Draw start(String collectionName, Path path, DataTablesInput input) {
+            return Draw.NOOP;
+        }
+
+        @Override
+        public Draw start(String collectionName, Path path, Source source, DataTablesInput input) {
+            served.add(source);
+            return Draw.NOOP;
+        }
+    };
+
+    private final BiFunction<DataTablesInput, DataTablesOutput<?>, DataTablesOutput<String>> draw = (input,
+            counted) -> {
+        draws.add(input.getStart() + (counted == null ? "" : " counted"));
+        final DataTablesOutput<String> output = new DataTablesOutput<>();
+        output.setDraw(input.getDraw());
+        output.setRecordsTotal(ROWS.size());
+        output.setRecordsFiltered(counted == null ? ROWS.size() : counted.getRecordsFiltered());
+        output.setData(new ArrayList<>(ROWS.subList(Math.min(input.getStart(), ROWS.size()),
+                Math.min(input.getStart() + input.getLength(), ROWS.size()))));
+        return output;
+    };
+
+    private DataTablesDrawSharing sharing(DataTablesOptions options) {
+        // the prefetches run on the calling thread
+        return new DataTablesDrawSharing(options, "collection", metrics, Runnable::run);
+    }
+
+    private static DataTablesInput input(int draw, int start) {
+        final DataTablesInput input = new DataTablesInput();
+        input.setDraw(draw);
+        input.setStart(start);
+        input.setLength(2);
+        final Column column = new Column();
+        column.setData("name");
+        input.getColumns().add(column);
+        return input;
+    }
+
+    private DataTablesOutput<String> find(DataTablesDrawSharing sharing, DataTablesInput input) {
+        return sharing.find(DataTablesMetrics.Path.CRITERIA, input, () -> "parameters", draw);
+    }
+
+    @Test
+    public void runsEveryDrawWhenNothingIsShared() {
+        final DataTablesDrawSharing sharing = sharing(new DataTablesOptions());
+
+        find(sharing, input(1, 0));
+        find(sharing, input(2, 0));
+
+        assertEquals(Arrays.asList("0", "0"), draws);
+        assertEquals(Collections.emptyList(), served);
+        assertEquals(0L, sharing.getResultCacheStats().getSize());
+    }
+
+    @Test
+    public void servesCachedOutputsWithTheDrawCounterOfTheInput() {
+        final DataTablesOptions options = new DataTablesOptions();
+        options.setResultCacheTtl(Duration.ofMinutes(1));
+        final DataTablesDrawSharing sharing = sharing(options);
+
+        assertEquals(1, find(sharing, input(1, 0)).getDraw());
+        final DataTablesOutput<String> cached = find(sharing, input(2, 0));
+
+        assertEquals(2, cached.getDraw());
+        assertEquals(Arrays.asList("a", "b"), cached.getData());
+        assertEquals(Collections.singletonList("0"), draws);
+        assertEquals(Collections.singletonList(DataTablesMetrics.Source.CACHE), served);
+        assertEquals(1L, sharing.getResultCacheStats().getHitCount());
+    }
+
+    @Test
+    public void changesOfTheReturnedOutputsDoNotReachTheCache() {
+        final DataTablesOptions options = new DataTablesOptions();
+        options.setResultCacheTtl(Duration.ofMinutes(1));
+        final DataTablesDrawSharing sharing = sharing(options);
+
+        final DataTablesOutput<String> first = find(sharing, input(1, 0));
+        first.getData().set(0, "changed");
+        first.setRecordsFiltered(0L);
+
+        final DataTablesOutput<String> cached = find(sharing, input(2, 0));
+        assertEquals(Arrays.asList("a", "b"), cached.getData());
+        assertEquals(5L, cached.getRecordsFiltered());
+        try {
+            cached.getData().set(0, "changed");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // the rows of the cached output are shared by the callers
+        }
+        cached.setRecordsFiltered(0L);
+        assertEquals(5L, find(sharing, input(3, 0)).getRecordsFiltered());
+    }
+
+    @Test
+    public void drawsWithoutComparableParametersAreNotShared() {
+        final DataTablesOptions options = new DataTablesOptions();
+        options.setResultCacheTtl(Duration.ofMinutes(1));
+        final DataTablesDrawSharing sharing = sharing(options);
+
+        sharing.find(DataTablesMetrics.Path.CRITERIA, input(1, 0), () -> null, draw);
+        sharing.find(DataTablesMetrics.Path.CRITERIA, input(2, 0), () -> null, draw);
+
+        assertEquals(Arrays.asList("0", "0"), draws);
+        assertEquals(0L, sharing.getResultCacheStats().getSize());
+    }
+
+    @Test
+    public void invalidateDiscardsTheSharedOutputs() {
+        final DataTablesOptions options = new DataTablesOptions();
+        options.setResultCacheTtl(Duration.ofMinutes(1));
+        options.setPrefetchTtl(Duration.ofMinutes(1));
+        final DataTablesDrawSharing sharing = sharing(options);
+
+        find(sharing, input(1, 0));
+        sharing.invalidate();
+        find(sharing, input(2, 0));
+        find(sharing, input(3, 2));
+
+        // the prefetch of the first draw is discarded too
+        assertEquals(Arrays.asList("0", "2 counted", "0", "2 counted", "4 counted"), draws);
+        assertEquals(Collections.singletonList(DataTablesMetrics.Source.PREFETCH), served);
+    }
+
+    @Test
+    public void prefetchesTheNextPageWithTheCountsOfTheDraw() {
+        final DataTablesOptions options = new DataTablesOptions();
+        options.setPrefetchTtl(Duration.ofMinutes(1));
+        final DataTablesDrawSharing sharing = sharing(options);
+
+        find(sharing, input(1, 0));
+        assertEquals(Arrays.asList("0", "2 counted"), draws);
+
+        final DataTablesOutput<String> next = find(sharing, input(2, 2));
+        assertEquals(2, next.getDraw());
+        assertEquals(Arrays.asList("c", "d"), next.getData());
+        assertEquals(5L, next.getRecordsFiltered());
+        assertEquals(Collections.singletonList(DataTablesMetrics.Source.PREFETCH), served);
+        // the last page is prefetched from the prefetched one
+        assertEquals(Arrays.asList("0", "2 counted", "4 counted"), draws);
+
+        final DataTablesOutput<String> last = find(sharing, input(3, 4));
+        assertEquals(Collections.singletonList("e"), last.getData());
+        assertEquals(3, draws.size());
+
+        final DataTablesPrefetchStats stats = sharing.getPrefetchStats();
+        assertEquals(2L, stats.getPrefetchCount());
+        assertEquals(2L, stats.getHitCount());
+        assertEquals(0L, stats.getMissCount());
+        assertEquals(0L, stats.getSize());
+    }
+
+    @Test
+    public void skipsThePrefetchBeyondItsConcurrency() {
+        final DataTablesOptions options = new DataTablesOptions();
+        options.setPrefetchTtl(Duration.ofMinutes(1));
+        options.setPrefetchConcurrency(0);
+        final DataTablesDrawSharing sharing = sharing(options);
+
+        find(sharing, input(1, 0));
+
+        assertEquals(Collections.singletonList("0"), draws);
+        assertEquals(1L, sharing.getPrefetchStats().getSkippedCount());
+    }
+
+    @Test
+    public void coalescesWithoutKeepingTheOutput() {
+        final DataTablesOptions options = new DataTablesOptions();
+        options.setCoalescing(true);
+        final DataTablesDrawSharing sharing = sharing(options);
+
+        find(sharing, input(1, 0));
+        find(sharing, input(2, 0));
+
+        // sequential draws are not in flight at the same time
+        assertEquals(Arrays.asList("0", "0"), draws);
+        assertEquals(2L, sharing.getCoalescingStats().getMissCount());
+        assertEquals(0L, sharing.getPrefetchStats().getPrefetchCount());
+    }
+}
@@ -0,0 +1,62 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+
+public class DataTablesEntityMetamodelTest {
+
+    static class Address {
+        public String zipCode;
+    }
+
+    static class Customer {
+        @Id
+        public String id;
+
+        @Field("name")
+        public String fullName;
+
+        @JsonProperty("mail")
+        public String emailAddress;
+
+        public Address homeAddress;
+    }
+
+    private final MongoMappingContext mappingContext = new MongoMappingContext();
+
+    @Test
+    public void acceptsThePropertyAndJsonPropertyNames() {
+        final DataTablesEntityMetamodel<Customer> metamodel = new DataTablesEntityMetamodel<>(Customer.class,
+                mappingContext);
+
+        assertEquals("fullName", metamodel.getPath("fullName"));
+        assertEquals("emailAddress", metamodel.getPath("mail"));
+        assertEquals("homeAddress.zipCode", metamodel.getPath("homeAddress.zipCode"));
+        assertNull(metamodel.getPath("full_name"));
+    }
+
+    @Test
+    public void acceptsTheNamesOfTheNamingStrategyOfTheMapper() {
+        final ObjectMapper objectMapper = new ObjectMapper()
+                .setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE);
+        final DataTablesEntityMetamodel<Customer> metamodel = new DataTablesEntityMetamodel<>(Customer.class,
+                mappingContext, objectMapper);
+
+        assertEquals("fullName", metamodel.getPath("full_name"));
+        assertEquals("fullName", metamodel.getPath("fullName"));
+        assertEquals("homeAddress.zipCode", metamodel.getPath("home_address.zip_code"));
+        assertEquals("homeAddress.zipCode", metamodel.getPath("homeAddress.zipCode"));
+        // an explicit name is not renamed
+        assertEquals("emailAddress", metamodel.getPath("mail"));
+        assertNull(metamodel.getPath("email_address"));
+    }
+}
@@ -0,0 +1,46 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class DataTablesExecutorTest {
+
+    @Test
+    public void defaultExecutorIsSharedAndRunsOnDaemonThreads() {
+        assertSame(DataTablesExecutor.getDefault(), DataTablesExecutor.getDefault());
+
+        final Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, DataTablesExecutor.getDefault())
+                .join();
+        assertTrue(thread.isDaemon());
+        assertTrue(thread.getName().startsWith("datatables-"));
+    }
+
+    @Test
+    public void rejectedTasksRunOnTheSubmittingThread() {
+        final Executor rejecting = task -> {
+            throw new RejectedExecutionException();
+        };
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+
+        DataTablesExecutor.callerRunsOnRejection(rejecting).execute(() -> thread.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    public void acceptedTasksRunOnTheExecutor() {
+        final AtomicReference<Runnable> submitted = new AtomicReference<>();
+        final Runnable task = () -> {
+        };
+
+        DataTablesExecutor.callerRunsOnRejection(submitted::set).execute(task);
+        assertEquals(task, submitted.get());
+    }
+}
@@ -0,0 +1,91 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.mongodb.datatables.model.DataTablesExplanation;
+
+public class DataTablesExplainerTest {
+
+    private static final Document COMMAND = new Document("find", "invoices");
+
+    private static DataTablesExplanation summarize(String explain) {
+        return DataTablesExplainer.summarize(DataTablesExplanation.DATA, COMMAND, Document.parse(explain));
+    }
+
+    @Test
+    public void summarizesAnIndexScan() {
+        final DataTablesExplanation explanation = summarize("{queryPlanner: {winningPlan: {stage: 'LIMIT', "
+                + "inputStage: {stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'status_1'}}}}, "
+                + "executionStats: {nReturned: 10, totalKeysExamined: 12, totalDocsExamined: 11, "
+                + "executionTimeMillis: 3}}");
+
+        assertEquals(DataTablesExplanation.DATA, explanation.getQuery());
+        assertEquals(COMMAND, explanation.getCommand());
+        assertEquals("LIMIT > FETCH > IXSCAN", explanation.getWinningPlan());
+        assertEquals(Collections.singletonList("status_1"), explanation.getIndexNames());
+        assertEquals(12L, explanation.getKeysExamined());
+        assertEquals(11L, explanation.getDocsExamined());
+        assertEquals(10L, explanation.getReturned());
+        assertEquals(3L, explanation.getExecutionTimeMillis());
+        assertFalse(explanation.isInMemorySort());
+        assertFalse(explanation.isCollectionScan());
+    }
+
+    @Test
+    public void summarizesTheQueryPlanOfTheSlotBasedEngine() {
+        final DataTablesExplanation explanation = summarize("{queryPlanner: {winningPlan: {queryPlan: "
+                + "{stage: 'SORT', inputStage: {stage: 'COLLSCAN'}}, slotBasedPlan: {stages: '[1] sort'}}}, "
+                + "executionStats: {nReturned: 10, totalKeysExamined: 0, totalDocsExamined: 500}}");
+
+        assertEquals("SORT > COLLSCAN", explanation.getWinningPlan());
+        assertTrue(explanation.isInMemorySort());
+        assertTrue(explanation.isCollectionScan());
+        assertEquals(500L, explanation.getDocsExamined());
+        assertEquals(Collections.emptyList(), explanation.getIndexNames());
+    }
+
+    @Test
+    public void summarizesTheWinningPlansOfTheShards() {
+        final DataTablesExplanation explanation = summarize("{queryPlanner: {winningPlan: {stage: 'SHARD_MERGE', "
+                + "shards: [{shardName: 's0', winningPlan: {stage: 'FETCH', inputStage: {stage: 'IXSCAN', "
+                + "indexName: 'status_1'}}}, {shardName: 's1', winningPlan: {stage: 'COLLSCAN'}}]}}, "
+                + "executionStats: {nReturned: 5, totalKeysExamined: 3, totalDocsExamined: 8, "
+                + "executionTimeMillis: 4, executionStages: {stage: 'SHARD_MERGE'}}}");
+
+        assertEquals("SHARD_MERGE [FETCH > IXSCAN, COLLSCAN]", explanation.getWinningPlan());
+        assertEquals(Collections.singletonList("status_1"), explanation.getIndexNames());
+        assertTrue(explanation.isCollectionScan());
+        assertEquals(8L, explanation.getDocsExamined());
+    }
+
+    @Test
+    public void summarizesTheStagesOfAnAggregationLastOneFirst() {
+        final DataTablesExplanation explanation = summarize("{stages: [{$cursor: {queryPlanner: {winningPlan: "
+                + "{stage: 'OR', inputStages: [{stage: 'IXSCAN', indexName: 'a_1'}, {stage: 'IXSCAN', "
+                + "indexName: 'b_1'}]}}, executionStats: {nReturned: 2, totalKeysExamined: 2, "
+                + "totalDocsExamined: 2}}}, {$sort: {amount: 1}}, {$skip: 10}]}");
+
+        assertEquals("$skip > $sort > OR [IXSCAN, IXSCAN]", explanation.getWinningPlan());
+        assertEquals(Arrays.asList("a_1", "b_1"), explanation.getIndexNames());
+        assertTrue(explanation.isInMemorySort());
+        assertFalse(explanation.isCollectionScan());
+        assertEquals(2L, explanation.getReturned());
+    }
+
+    @Test
+    public void defaultsMissingStatistics() {
+        final DataTablesExplanation explanation = summarize("{queryPlanner: {}}");
+
+        assertEquals("", explanation.getWinningPlan());
+        assertEquals(0L, explanation.getKeysExamined());
+        assertEquals(-1L, explanation.getExecutionTimeMillis());
+        assertFalse(explanation.isInMemorySort());
+    }
+}
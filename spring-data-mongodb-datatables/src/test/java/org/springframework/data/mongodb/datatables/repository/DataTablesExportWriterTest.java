@@ -0,0 +1,84 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.data.mongodb.datatables.mapping.Column;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesExportFormat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class DataTablesExportWriterTest {
+
+    static class Invoice {
+        public String number;
+
+        public int amount;
+
+        public String note;
+
+        Invoice(String number, int amount, String note) {
+            this.number = number;
+            this.amount = amount;
+            this.note = note;
+        }
+    }
+
+    private static List<Column> columns(String... data) {
+        final List<Column> columns = new ArrayList<>();
+        for (final String value : data) {
+            final Column column = new Column();
+            column.setData(value);
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    private static String export(DataTablesExportFormat format, boolean formulaEscaping, List<Column> columns,
+            Invoice... rows) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DataTablesExportWriter writer = new DataTablesExportWriter(new ObjectMapper(), format, columns,
+                formulaEscaping, out)) {
+            for (final Invoice row : rows) {
+                writer.write(row);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void writesCsvColumnsAndQuotesSeparators() throws IOException {
+        assertEquals("number,amount,note\r\nA-1,5,\"a, \"\"b\"\"\"\r\nA-2,7,\r\n",
+                export(DataTablesExportFormat.CSV, true, columns("number", "amount", "note"),
+                        new Invoice("A-1", 5, "a, \"b\""), new Invoice("A-2", 7, null)));
+    }
+
+    @Test
+    public void escapesTextCellsStartingLikeAFormula() throws IOException {
+        assertEquals("number,note\r\n'=1+1,'+1\r\n'-1,'@SUM(A1)\r\n'\t,\"'\rx\"\r\n",
+                export(DataTablesExportFormat.CSV, true, columns("number", "note"),
+                        new Invoice("=1+1", 0, "+1"), new Invoice("-1", 0, "@SUM(A1)"),
+                        new Invoice("\t", 0, "\rx")));
+        // the columns come from the request too
+        assertEquals("'=cmd\r\n\r\n", export(DataTablesExportFormat.CSV, true, columns("=cmd"),
+                new Invoice("A-1", 0, null)));
+        // numbers are not evaluated as formulas
+        assertEquals("amount\r\n-5\r\n", export(DataTablesExportFormat.CSV, true, columns("amount"),
+                new Invoice("A-1", -5, null)));
+    }
+
+    @Test
+    public void writesCellsAsIsWithoutEscaping() throws IOException {
+        assertEquals("number\r\n=1+1\r\n",
+                export(DataTablesExportFormat.CSV, false, columns("number"), new Invoice("=1+1", 0, null)));
+        // NDJSON is never evaluated by spreadsheets
+        assertEquals("{\"number\":\"=1+1\",\"amount\":0,\"note\":null}\n",
+                export(DataTablesExportFormat.NDJSON, true, columns("number"), new Invoice("=1+1", 0, null)));
+    }
+}
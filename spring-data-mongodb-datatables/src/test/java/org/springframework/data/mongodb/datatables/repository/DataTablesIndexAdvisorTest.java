@@ -0,0 +1,115 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesColumn;
+import org.springframework.data.mongodb.datatables.mapping.SearchMode;
+
+public class DataTablesIndexAdvisorTest {
+
+    static class Invoice {
+        @Id
+        String id;
+
+        @DataTablesColumn(searchable = true, searchMode = SearchMode.EXACT)
+        String status;
+
+        @Field("created")
+        @DataTablesColumn(orderable = true)
+        Date createdAt;
+
+        @DataTablesColumn(rangeFilterable = true)
+        int amount;
+    }
+
+    static class Customer {
+        @Id
+        String id;
+
+        @DataTablesColumn(searchable = true, searchMode = SearchMode.CASE_INSENSITIVE)
+        String name;
+    }
+
+    private final MongoMappingContext mappingContext = new MongoMappingContext();
+
+    private List<Document> advise(Class<?> javaType, IndexInfo... indexes) {
+        final DataTablesIndexAdvisor advisor = new DataTablesIndexAdvisor(null,
+                new DataTablesEntityMetamodel<>(javaType, mappingContext), "collection", new DataTablesOptions());
+        final List<Document> keys = new ArrayList<>();
+        for (final Index index : advisor.advise(Arrays.asList(indexes))) {
+            keys.add(index.getIndexKeys());
+        }
+        return keys;
+    }
+
+    private static IndexInfo index(Document keys) {
+        return IndexInfo.indexInfoOf(new Document("key", keys).append("name", "index"));
+    }
+
+    private static IndexInfo index(Document keys, String option, Document value) {
+        return IndexInfo.indexInfoOf(new Document("key", keys).append("name", "index").append(option, value));
+    }
+
+    @Test
+    public void recommendsEqualityThenSortThenRange() {
+        assertEquals(Arrays.asList(new Document("amount", 1),
+                new Document("status", 1).append("created", 1),
+                new Document("created", 1).append("amount", 1)), advise(Invoice.class));
+    }
+
+    @Test
+    public void leavesOutThePrefixesOfExistingIndexes() {
+        final IndexInfo statusAndDate = index(new Document("status", 1).append("created", 1));
+        assertEquals(Arrays.asList(new Document("amount", 1), new Document("created", 1).append("amount", 1)),
+                advise(Invoice.class, statusAndDate));
+
+        final IndexInfo dateAndAmount = index(new Document("created", -1).append("amount", 1));
+        final IndexInfo amount = index(new Document("amount", 1));
+        assertEquals(Collections.emptyList(), advise(Invoice.class, statusAndDate, dateAndAmount, amount));
+    }
+
+    @Test
+    public void ignoresPartialIndexes() {
+        final IndexInfo partial = index(new Document("status", 1).append("created", 1), "partialFilterExpression",
+                new Document("status", "OPEN"));
+        assertTrue(advise(Invoice.class, partial).contains(new Document("status", 1).append("created", 1)));
+    }
+
+    @Test
+    public void matchesTheCollationOfTheQuery() {
+        final Document name = new Document("name", 1);
+        final Document searchCollation = new DataTablesOptions().getSearchCollation().toDocument();
+        // the server lists all the options of the collation of an index
+        final Document indexCollation = new Document(searchCollation).append("caseLevel", false)
+                .append("alternate", "non-ignorable");
+
+        assertEquals(Collections.singletonList(name), advise(Customer.class, index(name)));
+        assertEquals(Collections.emptyList(), advise(Customer.class, index(name, "collation", indexCollation)));
+        assertEquals(Collections.singletonList(name),
+                advise(Customer.class, index(name, "collation", new Document("locale", "fr").append("strength", 2))));
+
+        // an exact search does not use a collated index
+        final IndexInfo collatedStatus = index(new Document("status", 1).append("created", 1), "collation",
+                indexCollation);
+        assertTrue(advise(Invoice.class, collatedStatus).contains(new Document("status", 1).append("created", 1)));
+        assertEquals(advise(Invoice.class),
+                advise(Invoice.class, index(new Document("status", 1), "collation", new Document("locale", "en"))));
+        assertEquals(advise(Invoice.class, index(new Document("status", 1))),
+                advise(Invoice.class, index(new Document("status", 1), "collation",
+                        new Document("locale", "simple"))));
+    }
+}
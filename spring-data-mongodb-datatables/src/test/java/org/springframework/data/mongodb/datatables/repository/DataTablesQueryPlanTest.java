@@ -0,0 +1,270 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.datatables.mapping.Column;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.Filter;
+import org.springframework.data.mongodb.datatables.mapping.Order;
+import org.springframework.data.mongodb.datatables.mapping.Search;
+import org.springframework.data.mongodb.datatables.mapping.SearchMode;
+
+public class DataTablesQueryPlanTest {
+
+    static class Invoice {
+        @Id
+        String id;
+
+        @Field("number")
+        String orderNumber;
+
+        int amount;
+
+        boolean valid;
+    }
+
+    private final DataTablesEntityMetamodel<Invoice> metamodel = new DataTablesEntityMetamodel<>(Invoice.class,
+            new MongoMappingContext());
+
+    private static Column column(String data, String type) {
+        final Column column = new Column();
+        column.setData(data);
+        column.setType(type);
+        column.setSearchable(true);
+        return column;
+    }
+
+    private static DataTablesInput input() {
+        final DataTablesInput input = new DataTablesInput();
+        input.setDraw(1);
+        input.setLength(10);
+        input.getColumns().add(column("orderNumber", "string"));
+        input.getColumns().add(column("amount", "integer"));
+        input.getColumns().add(column("valid", "boolean"));
+        final Order order = new Order();
+        order.setColumn(0);
+        order.setDir("asc");
+        input.getOrder().add(order);
+        return input;
+    }
+
+    private static DataTablesInput search(String orderNumber) {
+        final DataTablesInput input = input();
+        input.getColumns().get(0).setSearch(new Search(orderNumber, false));
+        return input;
+    }
+
+    private static DataTablesInput filter(int column, Filter filter) {
+        final DataTablesInput input = input();
+        input.getColumns().get(column).setFilter(filter);
+        return input;
+    }
+
+    private Document bind(DataTablesInput input) {
+        return DataTablesQueryPlan.compile(metamodel, input).bind(input);
+    }
+
+    /**
+     * compares the JSON, as {@link Pattern} has no equality
+     */
+    private static void assertBound(Document expected, Document actual) {
+        assertEquals(expected.toJson(), actual.toJson());
+    }
+
+    @Test
+    public void bindsNothingWithoutSearchOrFilter() {
+        assertEquals(new Document(), bind(input()));
+    }
+
+    @Test
+    public void bindsColumnSearchBySearchMode() {
+        assertBound(new Document("orderNumber", Pattern.compile(Pattern.quote("A-1"), Pattern.CASE_INSENSITIVE)),
+                bind(search("A-1")));
+
+        final DataTablesInput prefix = search("A-1");
+        prefix.getColumns().get(0).setSearchMode(SearchMode.PREFIX);
+        assertBound(new Document("orderNumber", Pattern.compile("^" + Pattern.quote("A-1"))), bind(prefix));
+
+        final DataTablesInput exact = search("A-1");
+        exact.getColumns().get(0).setSearchMode(SearchMode.EXACT);
+        assertBound(new Document("orderNumber", "A-1"), bind(exact));
+
+        final DataTablesInput regex = input();
+        regex.getColumns().get(0).setSearch(new Search("^A.*", true));
+        assertBound(new Document("orderNumber", Pattern.compile("^A.*")), bind(regex));
+    }
+
+    @Test
+    public void bindsTheValuesOfAnotherInputOfTheSameShape() {
+        final DataTablesQueryPlan<Invoice> plan = DataTablesQueryPlan.compile(metamodel, search("A-1"));
+        final DataTablesInput other = search("B-2");
+        assertEquals(DataTablesQueryPlan.shapeOf(search("A-1")), DataTablesQueryPlan.shapeOf(other));
+
+        assertBound(new Document("orderNumber", Pattern.compile(Pattern.quote("B-2"), Pattern.CASE_INSENSITIVE)),
+                plan.bind(other));
+    }
+
+    @Test
+    public void bindsFilterWithTypedValues() {
+        final Filter range = new Filter();
+        range.setGte("5");
+        range.setLt("7");
+        assertEquals(new Document("amount", new Document("$gte", 5).append("$lt", 7)), bind(filter(1, range)));
+
+        final Filter in = new Filter();
+        in.setIn("1,2");
+        assertEquals(new Document("amount", new Document("$in", Arrays.asList(1, 2))), bind(filter(1, in)));
+    }
+
+    @Test
+    public void equalityTakesPrecedenceOverOtherOperators() {
+        final Filter filter = new Filter();
+        filter.setEq("5");
+        filter.setGt("1");
+        filter.setNin("3,4");
+        assertEquals(new Document("amount", 5), bind(filter(1, filter)));
+    }
+
+    @Test
+    public void ignoresComparisonsOfTypesWhichAreNotComparable() {
+        final Filter filter = new Filter();
+        filter.setGt("true");
+        assertEquals(new Document(), bind(filter(2, filter)));
+    }
+
+    @Test
+    public void bindsIsNullAndIsEmpty() {
+        final Filter isNull = new Filter();
+        isNull.setIsNull(true);
+        assertEquals(new Document("orderNumber", null), bind(filter(0, isNull)));
+
+        final Filter isEmpty = new Filter();
+        isEmpty.setIsEmpty(true);
+        assertEquals(new Document("orderNumber", ""), bind(filter(0, isEmpty)));
+
+        final Filter both = new Filter();
+        both.setIsNull(true);
+        both.setIsEmpty(true);
+        assertEquals(new Document("orderNumber", new Document("$in", Arrays.asList(null, ""))),
+                bind(filter(0, both)));
+
+        both.setIn("A,B");
+        assertEquals(new Document("$and", Arrays.asList(
+                new Document("orderNumber", new Document("$in", Arrays.asList("A", "B"))),
+                new Document("orderNumber", new Document("$in", Arrays.asList(null, ""))))), bind(filter(0, both)));
+    }
+
+    @Test
+    public void bindsGlobalSearchOverSearchableColumns() {
+        final DataTablesInput input = input();
+        input.getColumns().get(2).setSearchable(false);
+        input.setSearch(new Search("12", false));
+        assertBound(new Document("$or", Arrays.asList(
+                new Document("orderNumber", Pattern.compile(Pattern.quote("12"), Pattern.CASE_INSENSITIVE)),
+                new Document("amount", 12))), bind(input));
+    }
+
+    @Test
+    public void globalSearchMatchesNothingIfNoColumnCanHoldTheValue() {
+        final DataTablesInput input = input();
+        input.getColumns().get(0).setSearchable(false);
+        input.getColumns().get(2).setSearchable(false);
+        input.setSearch(new Search("abc", false));
+        assertEquals(new Document("_id", new Document("$in", Collections.emptyList())), bind(input));
+    }
+
+    @Test
+    public void combinesColumnsAndGlobalSearch() {
+        final Filter filter = new Filter();
+        filter.setGte("5");
+        final DataTablesInput input = filter(1, filter);
+        input.getColumns().get(0).setSearch(new Search("A", false));
+        input.getColumns().get(0).setSearchMode(SearchMode.EXACT);
+        input.getColumns().get(1).setSearchable(false);
+        input.getColumns().get(2).setSearchable(false);
+        input.setSearch(new Search("B", false));
+        assertBound(new Document("orderNumber", "A").append("amount", new Document("$gte", 5))
+                .append("$or", Collections.singletonList(new Document("orderNumber",
+                        Pattern.compile(Pattern.quote("B"), Pattern.CASE_INSENSITIVE)))), bind(input));
+    }
+
+    @Test
+    public void compilesSortAndCollation() {
+        final DataTablesInput input = search("A");
+        input.getColumns().get(0).setSearchMode(SearchMode.CASE_INSENSITIVE);
+        final DataTablesQueryPlan<Invoice> plan = DataTablesQueryPlan.compile(metamodel, input);
+        assertEquals(Sort.by(Direction.ASC, "orderNumber"), plan.getSort());
+        assertEquals(new DataTablesOptions().getSearchCollation().toDocument(), plan.getCollation().toDocument());
+        assertNull(DataTablesQueryPlan.compile(metamodel, search("A")).getCollation());
+    }
+
+    @Test
+    public void shapeDependsOnTheOperatorsButNotOnTheValues() {
+        final Filter gte = new Filter();
+        gte.setGte("5");
+        final Filter otherGte = new Filter();
+        otherGte.setGte("6");
+        final Filter lte = new Filter();
+        lte.setLte("5");
+        assertEquals(DataTablesQueryPlan.shapeOf(filter(1, gte)), DataTablesQueryPlan.shapeOf(filter(1, otherGte)));
+        assertNotEquals(DataTablesQueryPlan.shapeOf(filter(1, gte)), DataTablesQueryPlan.shapeOf(filter(1, lte)));
+    }
+
+    @Test
+    public void keyIgnoresTheDrawTheOrderOfColumnsAndColumnsWithoutFilter() {
+        final DataTablesInput input = search("A");
+        final DataTablesInput equivalent = search("A");
+        equivalent.setDraw(7);
+        // same columns in another order, the order refers to the same column
+        Collections.reverse(equivalent.getColumns());
+        equivalent.getOrder().get(0).setColumn(2);
+        equivalent.getColumns().add(column("other", "string"));
+        equivalent.getColumns().get(3).setSearchable(false);
+
+        assertEquals(DataTablesQueryPlan.keyOf(input, false), DataTablesQueryPlan.keyOf(equivalent, false));
+        // unless all columns are fetched
+        assertNotEquals(DataTablesQueryPlan.keyOf(input, true), DataTablesQueryPlan.keyOf(equivalent, true));
+    }
+
+    @Test
+    public void keyDependsOnTheValuesThePageAndTheOrder() {
+        final String key = DataTablesQueryPlan.keyOf(search("A"), false);
+        assertNotEquals(key, DataTablesQueryPlan.keyOf(search("B"), false));
+
+        final DataTablesInput page = search("A");
+        page.setStart(10);
+        assertNotEquals(key, DataTablesQueryPlan.keyOf(page, false));
+
+        final DataTablesInput desc = search("A");
+        desc.getOrder().get(0).setDir("desc");
+        assertNotEquals(key, DataTablesQueryPlan.keyOf(desc, false));
+
+        final DataTablesInput global = search("A");
+        global.setSearch(new Search("A", false));
+        assertNotEquals(key, DataTablesQueryPlan.keyOf(global, false));
+    }
+
+    @Test
+    public void keyOfPageIgnoresTheCursor() {
+        final DataTablesInput input = search("A");
+        final DataTablesInput withCursor = search("A");
+        withCursor.setCursor("abc");
+
+        assertNotEquals(DataTablesQueryPlan.keyOf(input, false), DataTablesQueryPlan.keyOf(withCursor, false));
+        assertEquals(DataTablesQueryPlan.keyOf(input, false, false),
+                DataTablesQueryPlan.keyOf(withCursor, false, false));
+    }
+}
@@ -0,0 +1,83 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class DataTablesRawViewTest {
+
+    static class Address {
+        @Field("c")
+        @JsonProperty("town")
+        public String city;
+
+        @JsonIgnore
+        public String zipCode;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class Customer {
+        @Id
+        public String id;
+
+        public String name;
+
+        public Address address;
+
+        public List<Address> previousAddresses;
+
+        public Document extra;
+
+        public Customer referrer;
+    }
+
+    private final MongoMappingContext mappingContext = new MongoMappingContext();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String write(String json) throws IOException {
+        final DataTablesRawView view = DataTablesRawView.of(objectMapper, mappingContext,
+                mappingContext.getRequiredPersistentEntity(Customer.class), null);
+        final StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            view.write(new RawBsonDocument(BsonDocument.parse(json), new BsonDocumentCodec()), generator);
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void writesTheFieldsOfTheEntity() throws IOException {
+        assertEquals("{\"id\":\"1\",\"name\":\"Ann\"}", write("{_id: '1', _class: 'Customer', name: 'Ann'}"));
+    }
+
+    @Test
+    public void writesNestedEntitiesWithTheirJsonNames() throws IOException {
+        assertEquals("{\"id\":\"1\",\"address\":{\"town\":\"Paris\"},"
+                + "\"previousAddresses\":[{\"town\":\"Lyon\"},{\"town\":\"Nice\"}]}",
+                write("{_id: '1', address: {c: 'Paris', zipCode: '75001', _class: 'Address'}, "
+                        + "previousAddresses: [{c: 'Lyon'}, {c: 'Nice', zipCode: '06000'}]}"));
+    }
+
+    @Test
+    public void writesOtherDocumentsAndEntitiesNestedInThemselvesAsStored() throws IOException {
+        assertEquals("{\"id\":\"1\",\"extra\":{\"a\":1},\"referrer\":{\"_id\":\"2\",\"_class\":\"Customer\"}}",
+                write("{_id: '1', extra: {a: 1}, referrer: {_id: '2', _class: 'Customer'}}"));
+    }
+}
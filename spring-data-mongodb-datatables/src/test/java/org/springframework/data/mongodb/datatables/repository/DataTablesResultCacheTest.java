@@ -0,0 +1,143 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesOutput;
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+
+public class DataTablesResultCacheTest {
+
+    private static DataTablesOutput<String> output(String... rows) {
+        final DataTablesOutput<String> output = new DataTablesOutput<>();
+        output.setData(Arrays.asList(rows));
+        return output;
+    }
+
+    @Test
+    public void disabledWithoutTtl() {
+        assertFalse(new DataTablesResultCache(null, 10, 100L).isEnabled());
+        assertFalse(new DataTablesResultCache(Duration.ofMinutes(1), 0, 100L).isEnabled());
+        assertTrue(new DataTablesResultCache(Duration.ofMinutes(1), 10, 100L).isEnabled());
+    }
+
+    @Test
+    public void getCountsHitsAndMisses() {
+        final DataTablesResultCache cache = new DataTablesResultCache(Duration.ofMinutes(1), 10, 100L);
+        final DataTablesOutput<String> output = output("a", "b");
+        cache.put("k", output, cache.getGeneration());
+
+        assertSame(output, cache.get("k"));
+        assertNull(cache.get("other"));
+        final DataTablesCacheStats stats = cache.stats();
+        assertEquals(1L, stats.getHitCount());
+        assertEquals(1L, stats.getMissCount());
+        assertEquals(1L, stats.getSize());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondMaximumSize() {
+        final DataTablesResultCache cache = new DataTablesResultCache(Duration.ofMinutes(1), 2, 100L);
+        cache.put("a", output("1"), cache.getGeneration());
+        cache.put("b", output("2"), cache.getGeneration());
+        // "a" becomes the most recently used
+        cache.get("a");
+        cache.put("c", output("3"), cache.getGeneration());
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertEquals(1L, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    public void evictsBeyondMaximumRows() {
+        final DataTablesResultCache cache = new DataTablesResultCache(Duration.ofMinutes(1), 10, 3L);
+        cache.put("a", output("1", "2"), cache.getGeneration());
+        cache.put("b", output("3", "4"), cache.getGeneration());
+
+        assertFalse(cache.contains("a"));
+        assertTrue(cache.contains("b"));
+    }
+
+    @Test
+    public void emptyOutputsWeighOneRow() {
+        final DataTablesResultCache cache = new DataTablesResultCache(Duration.ofMinutes(1), 10, 1L);
+        cache.put("a", output(), cache.getGeneration());
+        cache.put("b", output(), cache.getGeneration());
+
+        assertFalse(cache.contains("a"));
+        assertTrue(cache.contains("b"));
+    }
+
+    @Test
+    public void skipsOutputsWithErrorOrHeavierThanTheCache() {
+        final DataTablesResultCache cache = new DataTablesResultCache(Duration.ofMinutes(1), 10, 2L);
+        final DataTablesOutput<String> failed = output();
+        failed.setError("failure");
+        cache.put("failed", failed, cache.getGeneration());
+        cache.put("heavy", output("1", "2", "3"), cache.getGeneration());
+        cache.put("light", output("1"), cache.getGeneration());
+
+        assertFalse(cache.contains("failed"));
+        assertFalse(cache.contains("heavy"));
+        // the heavy output did not evict the others
+        assertTrue(cache.contains("light"));
+    }
+
+    @Test
+    public void expiresAfterTtl() throws InterruptedException {
+        final DataTablesResultCache cache = new DataTablesResultCache(Duration.ofMillis(1), 10, 100L);
+        cache.put("k", output("1"), cache.getGeneration());
+        Thread.sleep(5L);
+
+        assertFalse(cache.contains("k"));
+        assertNull(cache.get("k"));
+        assertEquals(1L, cache.stats().getEvictionCount());
+        assertEquals(0L, cache.stats().getSize());
+    }
+
+    @Test
+    public void takeServesOnce() {
+        final DataTablesResultCache cache = new DataTablesResultCache(Duration.ofMinutes(1), 10, 100L);
+        final DataTablesOutput<String> output = output("1");
+        cache.put("k", output, cache.getGeneration());
+
+        assertSame(output, cache.take("k"));
+        assertNull(cache.take("k"));
+        assertFalse(cache.contains("k"));
+    }
+
+    @Test
+    public void invalidateClearsEntries() {
+        final DataTablesResultCache cache = new DataTablesResultCache(Duration.ofMinutes(1), 10, 100L);
+        cache.put("k", output("1"), cache.getGeneration());
+        cache.invalidate();
+
+        assertFalse(cache.contains("k"));
+        assertEquals(0L, cache.stats().getSize());
+        // the rows of the cleared entries are released
+        cache.put("a", output(Collections.nCopies(100, "x").toArray(new String[0])), cache.getGeneration());
+        assertTrue(cache.contains("a"));
+    }
+
+    @Test
+    public void invalidateRejectsOutputsOfDrawsStartedBefore() {
+        final DataTablesResultCache cache = new DataTablesResultCache(Duration.ofMinutes(1), 10, 100L);
+        final long generation = cache.getGeneration();
+        cache.invalidate();
+        cache.put("k", output("1"), generation);
+
+        assertFalse(cache.contains("k"));
+        cache.put("k", output("1"), cache.getGeneration());
+        assertTrue(cache.contains("k"));
+    }
+}
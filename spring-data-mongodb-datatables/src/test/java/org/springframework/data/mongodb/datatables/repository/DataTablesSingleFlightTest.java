@@ -0,0 +1,145 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.junit.Test;
+import org.springframework.data.mongodb.datatables.model.DataTablesCacheStats;
+
+public class DataTablesSingleFlightTest {
+
+    private final DataTablesSingleFlight singleFlight = new DataTablesSingleFlight();
+
+    private static Supplier<UnaryOperator<String>> copier(String suffix) {
+        return () -> result -> result + suffix;
+    }
+
+    /**
+     * Starts an execution of the key on another thread, which blocks until <code>release</code> is counted down
+     */
+    private CompletableFuture<String> startBlocked(String key, String result, CountDownLatch started,
+            CountDownLatch release) {
+        return CompletableFuture.supplyAsync(() -> singleFlight.execute(key, () -> {
+            started.countDown();
+            await(release);
+            return result;
+        }, copier(" (copy)")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Waits until the given count of callers share an execution
+     */
+    private void awaitShared(long count) throws InterruptedException {
+        for (int i = 0; i < 500 && singleFlight.stats().getHitCount() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, singleFlight.stats().getHitCount());
+    }
+
+    @Test
+    public void runsSequentialExecutions() {
+        final AtomicInteger runs = new AtomicInteger();
+
+        assertEquals(Integer.valueOf(1), singleFlight.execute("a", runs::incrementAndGet, () -> result -> -1));
+        assertEquals(Integer.valueOf(2), singleFlight.execute("a", runs::incrementAndGet, () -> result -> -1));
+
+        final DataTablesCacheStats stats = singleFlight.stats();
+        assertEquals(0L, stats.getHitCount());
+        assertEquals(2L, stats.getMissCount());
+        assertEquals(0L, stats.getSize());
+    }
+
+    @Test
+    public void identicalConcurrentCallersWaitForTheExecutionInFlight() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> first = startBlocked("a", "result", started, release);
+        await(started);
+
+        final CompletableFuture<String> second = CompletableFuture
+                .supplyAsync(() -> singleFlight.execute("a", () -> "second", copier(" (copy)")));
+        awaitShared(1);
+        assertEquals(1L, singleFlight.stats().getSize());
+        release.countDown();
+
+        assertEquals("result", first.get(5, TimeUnit.SECONDS));
+        assertEquals("result (copy)", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, singleFlight.stats().getMissCount());
+        assertEquals(0L, singleFlight.stats().getSize());
+    }
+
+    @Test
+    public void otherKeysAreNotCoalesced() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> first = startBlocked("a", "a", started, release);
+        await(started);
+
+        assertEquals("b", singleFlight.execute("b", () -> "b", copier(" (copy)")));
+        release.countDown();
+        assertEquals("a", first.get(5, TimeUnit.SECONDS));
+        assertEquals(0L, singleFlight.stats().getHitCount());
+    }
+
+    @Test
+    public void waitingCallersGetTheFailureOfTheExecution() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final IllegalStateException failure = new IllegalStateException();
+        final CompletableFuture<String> first = CompletableFuture
+                .supplyAsync(() -> singleFlight.execute("a", () -> {
+                    started.countDown();
+                    await(release);
+                    throw failure;
+                }, copier(" (copy)")));
+        await(started);
+
+        final CompletableFuture<String> second = CompletableFuture
+                .supplyAsync(() -> singleFlight.execute("a", () -> "second", copier(" (copy)")));
+        awaitShared(1);
+        release.countDown();
+
+        for (final CompletableFuture<String> caller : Arrays.asList(first, second)) {
+            try {
+                caller.join();
+                fail();
+            } catch (RuntimeException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+        // a failed execution is not kept either
+        assertEquals("third", singleFlight.execute("a", () -> "third", copier(" (copy)")));
+    }
+
+    @Test
+    public void invalidateLetsTheNextCallersRunTheirOwnExecution() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> first = startBlocked("a", "first", started, release);
+        await(started);
+
+        singleFlight.invalidate();
+        assertEquals("second", singleFlight.execute("a", () -> "second", copier(" (copy)")));
+        release.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals(0L, singleFlight.stats().getHitCount());
+    }
+}
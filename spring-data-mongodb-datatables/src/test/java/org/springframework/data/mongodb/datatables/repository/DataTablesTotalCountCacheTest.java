@@ -0,0 +1,117 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class DataTablesTotalCountCacheTest {
+
+    /**
+     * runs the submitted tasks on demand
+     */
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private final Executor executor = tasks::add;
+
+    private final AtomicLong count = new AtomicLong(10L);
+
+    private final AtomicLong loads = new AtomicLong();
+
+    private long load() {
+        loads.incrementAndGet();
+        return count.get();
+    }
+
+    private void runTasks() {
+        final List<Runnable> submitted = new ArrayList<>(tasks);
+        tasks.clear();
+        submitted.forEach(Runnable::run);
+    }
+
+    @Test
+    public void disabledWithoutTtl() {
+        final DataTablesTotalCountCache cache = new DataTablesTotalCountCache(null, 10, executor);
+        cache.get("", this::load);
+        cache.get("", this::load);
+
+        assertEquals(2L, loads.get());
+    }
+
+    @Test
+    public void keysWhichCannotBeCachedAreAlwaysLoaded() {
+        final DataTablesTotalCountCache cache = new DataTablesTotalCountCache(Duration.ofMinutes(1), 10, executor);
+        cache.get(null, this::load);
+        cache.get(null, this::load);
+
+        assertEquals(2L, loads.get());
+    }
+
+    @Test
+    public void loadsMissingCountsOnce() {
+        final DataTablesTotalCountCache cache = new DataTablesTotalCountCache(Duration.ofMinutes(1), 10, executor);
+
+        assertEquals(10L, cache.get("", this::load));
+        count.set(20L);
+        assertEquals(10L, cache.get("", this::load));
+        assertEquals(1L, loads.get());
+        assertEquals(1L, cache.stats().getHitCount());
+    }
+
+    @Test
+    public void servesExpiredCountsWhileRefreshingInTheBackground() throws InterruptedException {
+        final DataTablesTotalCountCache cache = new DataTablesTotalCountCache(Duration.ofMillis(1), 10, executor);
+        cache.get("", this::load);
+        count.set(20L);
+        Thread.sleep(5L);
+
+        assertEquals(10L, cache.get("", this::load));
+        // a single refresh at a time
+        assertEquals(10L, cache.get("", this::load));
+        assertEquals(1, tasks.size());
+
+        runTasks();
+        assertEquals(20L, cache.get("", this::load));
+        assertEquals(2L, loads.get());
+    }
+
+    @Test
+    public void skipsTheRefreshWhenRejected() throws InterruptedException {
+        final DataTablesTotalCountCache cache = new DataTablesTotalCountCache(Duration.ofMillis(1), 10, task -> {
+            throw new RejectedExecutionException();
+        });
+        cache.get("", this::load);
+        Thread.sleep(5L);
+
+        assertEquals(10L, cache.get("", this::load));
+        assertEquals(1L, loads.get());
+    }
+
+    @Test
+    public void invalidateDropsCounts() {
+        final DataTablesTotalCountCache cache = new DataTablesTotalCountCache(Duration.ofMinutes(1), 10, executor);
+        cache.get("", this::load);
+        cache.invalidate();
+        count.set(20L);
+
+        assertEquals(20L, cache.get("", this::load));
+    }
+
+    @Test
+    public void countsLoadedDuringAnInvalidationAreNotCached() {
+        final DataTablesTotalCountCache cache = new DataTablesTotalCountCache(Duration.ofMinutes(1), 10, executor);
+        // a write while counting
+        assertEquals(10L, cache.get("", () -> {
+            cache.invalidate();
+            return load();
+        }));
+
+        assertEquals(0L, cache.stats().getSize());
+    }
+}
@@ -0,0 +1,125 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.datatables.mapping.Column;
+import org.springframework.data.mongodb.datatables.mapping.DataTablesInput;
+import org.springframework.data.mongodb.datatables.mapping.Search;
+
+public class DataTablesUtilsTest {
+
+    static class Invoice {
+        String id;
+
+        String number;
+    }
+
+    private final MongoMappingContext mappingContext = new MongoMappingContext();
+
+    private final DataTablesEntityMetamodel<Invoice> metamodel = new DataTablesEntityMetamodel<>(Invoice.class,
+            mappingContext);
+
+    private static DataTablesInput input() {
+        final DataTablesInput input = new DataTablesInput();
+        input.setStart(20);
+        input.setLength(10);
+        final Column column = new Column();
+        column.setData("number");
+        column.setSearchable(true);
+        column.setSearch(new Search("A", true));
+        input.getColumns().add(column);
+        return input;
+    }
+
+    private List<Document> toPipeline(Aggregation aggregation) {
+        final QueryMapper mapper = new QueryMapper(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+                mappingContext));
+        return aggregation.toPipeline(new TypeBasedAggregationOperationContext(Invoice.class, mappingContext,
+                mapper));
+    }
+
+    private List<Document> makeFacetAggregation(long maxFilteredCount) {
+        return makeFacetAggregation(null, maxFilteredCount);
+    }
+
+    private List<Document> makeFacetAggregation(Document projection, long maxFilteredCount) {
+        final DataTablesInput input = input();
+        return toPipeline(DataTablesUtils.makeFacetAggregation(DataTablesQueryPlan.compile(metamodel, input), input,
+                DataTablesUtils.getPageable(input, Sort.by(Direction.ASC, "number")), null, projection,
+                new AggregationOperation[] { Aggregation.match(new DataTablesUtils.DocumentCriteria(
+                        new Document("id", new Document("$ne", null)))) },
+                new AggregationOperation[] { Aggregation.project("number") }, maxFilteredCount));
+    }
+
+    @Test
+    public void facetAggregationComputesTheCountsAndThePageInOneStage() {
+        final List<Document> pipeline = makeFacetAggregation(0L);
+
+        assertEquals(2, pipeline.size());
+        final Document facet = pipeline.get(1).get("$facet", Document.class);
+        assertEquals(Arrays.asList("total", "filtered", "page"), Arrays.asList(facet.keySet().toArray()));
+        assertEquals(Collections.singletonList(new Document("$count", "_count")), facet.get("total"));
+
+        final List<Document> filtered = facet.getList("filtered", Document.class);
+        assertEquals(Arrays.asList("$match", "$project", "$count"), stages(filtered));
+        final List<Document> page = facet.getList("page", Document.class);
+        assertEquals(Arrays.asList("$match", "$sort", "$skip", "$limit", "$project"), stages(page));
+        assertEquals(20L, ((Number) page.get(2).get("$skip")).longValue());
+        assertEquals(10L, ((Number) page.get(3).get("$limit")).longValue());
+    }
+
+    @Test
+    public void facetAggregationStopsCountingAfterTheCeiling() {
+        final Document facet = makeFacetAggregation(100L).get(1).get("$facet", Document.class);
+        final List<Document> filtered = facet.getList("filtered", Document.class);
+
+        // the operations after the filter may drop documents, so the limit comes after them
+        assertEquals(Arrays.asList("$match", "$project", "$limit", "$count"), stages(filtered));
+        assertEquals(101L, ((Number) filtered.get(2).get("$limit")).longValue());
+    }
+
+    @Test
+    public void facetAggregationProjectsThePageOnly() {
+        final Document projection = new Document("number", 1);
+        final Document facet = makeFacetAggregation(projection, 0L).get(1).get("$facet", Document.class);
+
+        assertEquals(Arrays.asList("$match", "$project", "$count"), stages(facet.getList("filtered", Document.class)));
+        final List<Document> page = facet.getList("page", Document.class);
+        assertEquals(Arrays.asList("$match", "$sort", "$skip", "$limit", "$project", "$project"), stages(page));
+        assertEquals(projection, page.get(4).get("$project"));
+    }
+
+    private static List<String> stages(List<Document> pipeline) {
+        final String[] stages = new String[pipeline.size()];
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = pipeline.get(i).keySet().iterator().next();
+        }
+        return Arrays.asList(stages);
+    }
+
+    @Test
+    public void getFacetCountReadsTheCountOrZero() {
+        final Document facets = new Document(DataTablesUtils.FACET_TOTAL,
+                Collections.singletonList(new Document("_count", 42)))
+                        .append(DataTablesUtils.FACET_FILTERED, Collections.emptyList());
+
+        assertEquals(42L, DataTablesUtils.getFacetCount(facets, DataTablesUtils.FACET_TOTAL));
+        assertEquals(0L, DataTablesUtils.getFacetCount(facets, DataTablesUtils.FACET_FILTERED));
+        assertEquals(0L, DataTablesUtils.getFacetCount(facets, DataTablesUtils.FACET_PAGE));
+    }
+}
@@ -0,0 +1,92 @@
+package org.springframework.data.mongodb.datatables.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import org.junit.Test;
+
+public class DateParserTest {
+
+    private final DateParser utc = DateParser.of(ZoneOffset.UTC);
+
+    private static Date date(String instant) {
+        return Date.from(Instant.parse(instant));
+    }
+
+    @Test
+    public void parsesDateAtStartOfDay() {
+        assertEquals(date("2020-01-15T00:00:00Z"), utc.tryParse("2020-01-15"));
+    }
+
+    @Test
+    public void parsesDateTimeWithoutOffsetInTheZoneOfTheParser() {
+        assertEquals(date("2020-01-15T10:20:30Z"), utc.tryParse("2020-01-15T10:20:30"));
+        assertEquals(date("2020-01-15T10:20:30Z"), utc.tryParse("2020-01-15 10:20:30"));
+        assertEquals(date("2020-01-15T02:20:30Z"), DateParser.of(ZoneId.of("Asia/Shanghai"))
+                .tryParse("2020-01-15T10:20:30"));
+    }
+
+    @Test
+    public void parsesDateTimeWithoutSecondsOrWithFraction() {
+        assertEquals(date("2020-01-15T08:30:00.123Z"), utc.tryParse("2020-01-15T08:30:00.123"));
+        assertEquals(date("2020-01-15T08:30:00.500Z"), utc.tryParse("2020-01-15 08:30:00.5"));
+        assertEquals(date("2020-01-15T08:30:00.123Z"), utc.tryParse("2020-01-15T08:30:00.123456789"));
+        assertEquals(date("2020-01-15T08:30:00Z"), utc.tryParse("2020-01-15T08:30"));
+        assertEquals(date("2020-01-15T08:30:00Z"), utc.tryParse("2020-01-15 08:30"));
+        assertEquals(date("2020-01-15T00:30:00Z"), utc.tryParse("2020-01-15T08:30+08:00"));
+        assertEquals(date("2020-01-15T08:30:00.5Z"), utc.tryParse("2020-01-15T08:30:00.5Z"));
+    }
+
+    @Test
+    public void parsesDateTimeWithOffset() {
+        assertEquals(date("2020-01-15T10:20:30Z"), utc.tryParse("2020-01-15T10:20:30Z"));
+        assertEquals(date("2020-01-15T02:20:30Z"), utc.tryParse("2020-01-15T10:20:30+08:00"));
+        assertEquals(date("2020-01-15T02:20:30Z"), utc.tryParse("2020-01-15T10:20:30+0800"));
+        assertEquals(date("2020-01-15T02:20:30.123Z"), utc.tryParse("2020-01-15T10:20:30.123+08:00"));
+    }
+
+    @Test
+    public void returnsNullForTextsWhichAreNotDates() {
+        assertNull(utc.tryParse(null));
+        assertNull(utc.tryParse(""));
+        assertNull(utc.tryParse("abc"));
+        assertNull(utc.tryParse("12345"));
+        assertNull(utc.tryParse("2020/01/15"));
+        assertNull(utc.tryParse("2020-01-15T10"));
+        assertNull(utc.tryParse("2020-01-15T10:20:3"));
+        assertNull(utc.tryParse("2020-01-15T10:20:30."));
+        assertNull(utc.tryParse("2020-01-15T10:20:30abc"));
+        assertNull(utc.tryParse("2020-01-15abc"));
+        assertNull(utc.tryParse("2020-01-15X10:20:30"));
+        assertNull(utc.tryParse("2020-01-15 10:20:30+08:00"));
+    }
+
+    @Test
+    public void returnsNullForInvalidDates() {
+        assertNull(utc.tryParse("2020-02-30"));
+        assertNull(utc.tryParse("2020-13-01"));
+        assertNull(utc.tryParse("2020-01-15T25:00:00"));
+        assertNull(utc.tryParse("2020-01-15T10:20:30+25:00"));
+    }
+
+    @Test
+    public void defaultParserUsesTheDefaultZone() throws ParseException {
+        assertSame(DateParser.getDefault(), DateParser.of(null));
+        assertNull(DateParser.getDefault().getZone());
+        assertEquals(Date.from(LocalDate.of(2020, 1, 15).atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                DateParser.parse("2020-01-15"));
+    }
+
+    @Test(expected = ParseException.class)
+    public void parseThrowsForTextsWhichAreNotDates() throws ParseException {
+        DateParser.parse("abc");
+    }
+}